@@ -0,0 +1,69 @@
+package com.github.adammw.ninemanmorris;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the rule checks in Board, on a position for each GameStage
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoardBenchmark {
+    @Param({"PLACING", "MOVING", "FLYING", "GAME_OVER"})
+    public GameStage stage;
+
+    private Board board;
+    private int side;
+    private int[] moves;
+
+    @Setup
+    public void setUp() {
+        board = BoardFixtures.create(stage);
+        side = board.getSideToMove();
+        moves = new int[Board.MAX_MOVES];
+    }
+
+    @Benchmark
+    public void isInMill(Blackhole blackhole) {
+        for (int point = 0; point < Board.NUM_POINTS; point++) {
+            blackhole.consume(board.isInMill(point, side));
+        }
+    }
+
+    @Benchmark
+    public boolean possibleMoves() {
+        return board.possibleMoves(side);
+    }
+
+    @Benchmark
+    public int numPiecesInMillsOwnedByPlayer() {
+        return board.numPiecesInMillsOwnedByPlayer(side);
+    }
+
+    @Benchmark
+    public Board recalculateGameStage() {
+        board.recalculateGameStage();
+        return board;
+    }
+
+    @Benchmark
+    public int generateMoves() {
+        return board.generateMoves(moves);
+    }
+}
@@ -0,0 +1,65 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * Realistic positions for benchmarking, one for the player to move being in each GameStage
+ */
+public class BoardFixtures {
+    /**
+     * Moves from the start of the game to reach a position in each stage, written as accepted by Perft
+     */
+    private static final String PLACING = "a1 b4 d7 d1 a4 c4";
+    private static final String MOVING = "a1 b4 d7 d1 a4 c4 a7 xd1 g1 d2 c3 g7 xg1 d3 g1 e4 g4 xe4 e4 b2 d6";
+    private static final String FLYING = MOVING + " d2-d1 xc4 c3-c4 g4-f4 d6-d5 f4-g4 xd3 c4-c3 d1-d2 d5-e5 " +
+            "d2-d1 xe4";
+    private static final String GAME_OVER = "a4 d7 d3 g4 d6 a1 g1 f6 d5 e5 d1 a7 c4 b4 f4 g7 xa4 f2 e4 d3-e3 " +
+            "a1-a4 d1-a1 b4-b6 c4-b4";
+
+    private BoardFixtures() {
+    }
+
+    /**
+     * Create a board where the player to move is in the given stage
+     * @param stage the stage
+     * @return the board
+     */
+    public static Board create(GameStage stage) {
+        Board board = new Board(new Player[] {
+                new HumanPlayer(null, "PLAYER 1"),
+                new HumanPlayer(null, "PLAYER 2")
+        });
+        switch (stage) {
+            case PLACING:
+                Perft.applyMoves(board, PLACING);
+                break;
+            case MOVING:
+                Perft.applyMoves(board, MOVING);
+                break;
+            case FLYING:
+                Perft.applyMoves(board, FLYING);
+                break;
+            case GAME_OVER:
+                Perft.applyMoves(board, GAME_OVER);
+                break;
+        }
+        if (stage != GameStage.GAME_OVER && board.getStage(board.getSideToMove()) != stage) {
+            throw new IllegalStateException("Fixture for " + stage + " is in the wrong stage");
+        }
+        if (stage == GameStage.GAME_OVER && !board.isGameOver()) {
+            throw new IllegalStateException("Fixture for " + stage + " is not over");
+        }
+        return board;
+    }
+
+    /**
+     * Get the first legal move in a position as a Move object
+     * @param board the board, which must not be game over
+     * @return the move
+     */
+    public static Move firstMove(Board board) {
+        int[] moves = new int[Board.MAX_MOVES];
+        if (board.generateMoves(moves) == 0) {
+            throw new IllegalStateException("No legal moves");
+        }
+        return Move.decode(moves[0]);
+    }
+}
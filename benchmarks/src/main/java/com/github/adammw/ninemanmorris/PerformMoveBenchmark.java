@@ -0,0 +1,64 @@
+package com.github.adammw.ninemanmorris;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of applying a move to a board. performMove can't be undone, so each operation plays the move on a
+ * fresh copy of the fixture; the copy benchmark measures that overhead on its own so it can be subtracted.
+ * makeMove is measured together with the unmakeMove that restores the position.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class PerformMoveBenchmark {
+    @Param({"PLACING", "MOVING", "FLYING"})
+    public GameStage stage;
+
+    private final Board.MillFormedCallback callback = () -> { };
+    private Board board;
+    private Move move;
+    private int encodedMove;
+
+    @Setup
+    public void setUp() {
+        board = BoardFixtures.create(stage);
+        move = BoardFixtures.firstMove(board);
+        int[] moves = new int[Board.MAX_MOVES];
+        board.generateMoves(moves);
+        encodedMove = moves[0];
+    }
+
+    @Benchmark
+    public Board copy() {
+        return new Board(board);
+    }
+
+    @Benchmark
+    public Board performMove() throws Board.IllegalMoveException {
+        Board copy = new Board(board);
+        copy.performMove(move, copy.getCurrentPlayer(), callback);
+        return copy;
+    }
+
+    @Benchmark
+    public Board makeAndUnmakeMove() {
+        board.makeMove(encodedMove);
+        board.unmakeMove();
+        return board;
+    }
+}
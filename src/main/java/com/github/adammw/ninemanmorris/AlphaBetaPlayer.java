@@ -0,0 +1,227 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Player class representing a computer player which chooses moves with an alpha-beta search.
+ * While the opponent is choosing their move the player can ponder: it searches the opponent's position on a
+ * background thread, which fills the transposition table with the results for every reply. The search for
+ * the player's own move keeps the table's generation so those results aren't the first to be replaced, and
+ * starts from the depth its position was pondered to. It is also given less time, down to a quarter of the
+ * time limit, for as long as the player pondered.
+ */
+public class AlphaBetaPlayer extends Player {
+    /**
+     * The smallest part of the time limit a move is searched for after pondering
+     */
+    static final int PONDER_TIME_DIVISOR = 4;
+
+    private final LazySMPSearch search;
+    private final int maxDepth;
+    private final long timeLimitMillis;
+    private final int[] legalMoves = new int[Board.MAX_MOVES];
+    private OpeningBook openingBook;
+    private ExecutorService ponderPool;
+    private Future<?> ponder;
+    private long ponderStart;
+    private long ponderedMillis; // time spent pondering since the last search
+    private int ponderedDepth; // deepest iteration completed by pondering since the last search
+    private boolean pondered; // whether the player pondered since the last search
+
+    /**
+     * Create a new AlphaBetaPlayer object
+     * @param controller the game controller
+     * @param name the player name
+     * @param maxDepth the maximum depth to search to, in turns
+     * @param timeLimitMillis the time budget for each move, in milliseconds
+     */
+    public AlphaBetaPlayer(GameController controller, String name, int maxDepth, long timeLimitMillis) {
+        this(controller, name, maxDepth, timeLimitMillis, TranspositionTable.DEFAULT_SIZE_MB, 1);
+    }
+
+    /**
+     * Create a new AlphaBetaPlayer object
+     * @param controller the game controller
+     * @param name the player name
+     * @param maxDepth the maximum depth to search to, in turns
+     * @param timeLimitMillis the time budget for each move, in milliseconds
+     * @param hashSizeMB the size of the transposition table, in megabytes
+     * @param threads the number of threads to search with
+     */
+    public AlphaBetaPlayer(GameController controller, String name, int maxDepth, long timeLimitMillis,
+                           int hashSizeMB, int threads) {
+        super(controller, name);
+        this.maxDepth = maxDepth;
+        this.timeLimitMillis = timeLimitMillis;
+        this.search = new LazySMPSearch(threads, new TranspositionTable(hashSizeMB));
+    }
+
+    /**
+     * Set the endgame database for the search to look up positions in
+     * @param endgameDatabase the database, or null to search without one
+     */
+    public void setEndgameDatabase(EndgameDatabase endgameDatabase) {
+        search.setEndgameDatabase(endgameDatabase);
+    }
+
+    /**
+     * Set the evaluator for the search to score positions with
+     * @param evaluator the evaluator
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        search.setEvaluator(evaluator);
+    }
+
+    /**
+     * Set the opening book to play moves from instead of searching, while the position is in the book
+     * @param openingBook the book, or null to always search
+     */
+    public void setOpeningBook(OpeningBook openingBook) {
+        this.openingBook = openingBook;
+    }
+
+    /**
+     * Get a move for the computer player
+     * @param board the current game board state
+     * @return the book move, or the best move found within the time budget
+     */
+    public Move getMove(Board board) {
+        return Move.decode(chooseMove(board));
+    }
+
+    /**
+     * Get which piece to remove for the computer player
+     * @param board the current board state, with a removal pending
+     * @return a move containing the piece to remove
+     */
+    public Move getPieceToRemove(Board board) {
+        return Move.decode(chooseMove(board));
+    }
+
+    /**
+     * Empty the transposition table, so that a game plays the same whether or not the player played before it
+     */
+    @Override
+    void newGame() {
+        search.getTable().clear();
+    }
+
+    /**
+     * Stop pondering and the search threads, the player can't be used afterwards
+     */
+    @Override
+    void shutdown() {
+        stopPondering();
+        if (ponderPool != null) {
+            ponderPool.shutdownNow();
+        }
+        search.shutdown();
+    }
+
+    /**
+     * Get the search the player chooses moves with, for its statistics
+     * @return the search
+     */
+    LazySMPSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Start searching the opponent's position on a background thread, unless already pondering
+     * @param board the current board state, with the opponent to move or to remove a piece
+     */
+    @Override
+    void startPondering(Board board) {
+        if (ponder != null || board.isGameOver() || board.generateMoves(legalMoves) == 0) { return; }
+        if (ponderPool == null) {
+            ponderPool = Executors.newSingleThreadExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "ponder");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+
+        // Pondering more than once in a turn, as when the opponent forms a mill, continues the same generation
+        if (!pondered) {
+            search.getTable().newSearch();
+            pondered = true;
+        }
+        Board copy = new Board(board);
+        search.clearStop(); // before starting, so a stop requested straight away isn't lost
+        ponderStart = System.nanoTime();
+        ponder = ponderPool.submit(() -> search.search(copy, maxDepth, TimeUnit.DAYS.toMillis(1), 1));
+    }
+
+    /**
+     * Stop the background search, waiting for it to finish
+     */
+    @Override
+    void stopPondering() {
+        if (ponder == null) { return; }
+        search.stop();
+        boolean interrupted = false;
+        try {
+            while (true) {
+                try {
+                    ponder.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true; // the search must finish before the player can search again
+                }
+            }
+        } catch (ExecutionException ex) {
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            if (interrupted) { Thread.currentThread().interrupt(); }
+        }
+        ponderedMillis += (System.nanoTime() - ponderStart) / 1000000L;
+        ponderedDepth = Math.max(ponderedDepth, search.getCompletedDepth());
+        ponder = null;
+    }
+
+    /**
+     * Check if the player is searching in the background
+     * @return true between startPondering and stopPondering
+     */
+    boolean isPondering() {
+        return ponder != null;
+    }
+
+    private int chooseMove(Board board) {
+        stopPondering();
+        boolean continuePondering = pondered;
+        long ponderMillis = ponderedMillis;
+        int ponderDepth = ponderedDepth;
+        pondered = false;
+        ponderedMillis = 0;
+        ponderedDepth = 0;
+        int bookMove = openingBook != null ? openingBook.probe(board) : OpeningBook.NO_MOVE;
+        if (bookMove != OpeningBook.NO_MOVE && isLegal(board, bookMove)) { return bookMove; }
+        if (!continuePondering) {
+            return search.search(board, maxDepth, timeLimitMillis);
+        }
+
+        // Pondering searched this position one turn below its root, so the iterations up to the depth stored for
+        // it are answered from the table and the search can start there
+        long entry = search.getTable().probe(board.getHash());
+        int startDepth = entry == 0 ? 1 : Math.min(TranspositionTable.getDepth(entry), ponderDepth - 1);
+        long timeLimit = Math.max(timeLimitMillis / PONDER_TIME_DIVISOR, timeLimitMillis - ponderMillis);
+        search.clearStop();
+        return search.search(board, maxDepth, timeLimit, Math.max(1, Math.min(startDepth, maxDepth)));
+    }
+
+    /**
+     * Check a move against the legal moves, as a book made for other rules or a corrupt book can hold any move
+     */
+    private boolean isLegal(Board board, int move) {
+        int count = board.generateMoves(legalMoves);
+        for (int i = 0; i < count; i++) {
+            if (legalMoves[i] == move) { return true; }
+        }
+        return false;
+    }
+}
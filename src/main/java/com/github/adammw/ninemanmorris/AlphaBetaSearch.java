@@ -0,0 +1,380 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * Negamax alpha-beta search with iterative deepening over the moves generated by a Board.
+ * The search makes and unmakes moves on the board it is given, which is restored when the search returns.
+ * Results are cached in a transposition table keyed by the board's Zobrist hash.
+ */
+public class AlphaBetaSearch {
+    /**
+     * The deepest search allowed, in turns (a move and any removal it allows)
+     */
+    public static final int MAX_DEPTH = 48;
+
+    /**
+     * Score of a won position, reduced by the number of plies needed to win
+     */
+    public static final int WIN_SCORE = 1000000;
+
+    /**
+     * Score of a position the endgame database shows is won, reduced by the number of plies needed to win.
+     * These rank below wins found by the search itself as the database's rules differ slightly from Board's.
+     */
+    public static final int ENDGAME_WIN_SCORE = WIN_SCORE / 2;
+
+    private static final int INFINITY = WIN_SCORE + 1;
+    private static final int MAX_PLY = 2 * MAX_DEPTH + 2; // each turn can take two plies when a mill is formed
+    private static final int TIME_CHECK_INTERVAL = 1024; // nodes between checks of the deadline
+
+    private final int[] moves = new int[MAX_PLY * Board.MAX_MOVES];
+    private final int[] moveScores = new int[Board.MAX_MOVES];
+    private final TranspositionTable table;
+    private EndgameDatabase endgameDatabase;
+    private Evaluator evaluator = new Evaluator();
+    private Board board;
+    private long deadline;
+    private boolean stopped;
+    private volatile boolean stopRequested;
+    private long nodes;
+    private int completedDepth;
+    private int bestScore;
+
+    /**
+     * Create a search with its own transposition table of the default size
+     */
+    public AlphaBetaSearch() {
+        this(new TranspositionTable());
+    }
+
+    /**
+     * Create a search
+     * @param table the transposition table to store results in
+     */
+    public AlphaBetaSearch(TranspositionTable table) {
+        this.table = table;
+    }
+
+    /**
+     * Get the transposition table used by the search
+     * @return the transposition table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Set the endgame database to look up positions in once neither player has pieces left to place
+     * @param endgameDatabase the database, or null to search without one
+     */
+    public void setEndgameDatabase(EndgameDatabase endgameDatabase) {
+        this.endgameDatabase = endgameDatabase;
+    }
+
+    /**
+     * Set the evaluator used to score positions at the end of the search
+     * @param evaluator the evaluator
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        this.evaluator = evaluator;
+    }
+
+    /**
+     * Search the current position for the best move for the player to move
+     * @param board the board to search, which must have at least one legal move
+     * @param maxDepth the maximum depth to search to, in turns
+     * @param timeLimitMillis the time to stop searching after, in milliseconds
+     * @return the encoded best move found
+     */
+    public int search(Board board, int maxDepth, long timeLimitMillis) {
+        table.newSearch();
+        stopRequested = false;
+        return search(board, maxDepth, timeLimitMillis, 1);
+    }
+
+    /**
+     * Search the current position, without starting a new search generation in the transposition table or
+     * clearing a pending stop request, as used by the threads of a parallel search
+     * @param board the board to search, which must have at least one legal move
+     * @param maxDepth the maximum depth to search to, in turns
+     * @param timeLimitMillis the time to stop searching after, in milliseconds
+     * @param startDepth the depth of the first iteration
+     * @return the encoded best move found
+     */
+    int search(Board board, int maxDepth, long timeLimitMillis, int startDepth) {
+        this.board = board;
+        this.deadline = System.nanoTime() + timeLimitMillis * 1000000L;
+        this.stopped = false;
+        this.nodes = 0;
+        this.completedDepth = 0;
+
+        int count = board.generateMoves(moves, 0);
+        if (count == 0) {
+            throw new IllegalStateException("No legal moves to search");
+        }
+        orderMoves(0, count);
+        if (startDepth > 1) {
+            // Skipping the shallow iterations relies on an earlier search, so start from the move it found best
+            long entry = table.probe(board.getHash());
+            if (entry != 0) {
+                moveToFront(0, count, TranspositionTable.getMove(entry));
+            }
+        }
+        int bestMove = moves[0];
+        bestScore = -INFINITY;
+
+        // Search one turn deeper each iteration, keeping the result of the last one to complete in time
+        for (int depth = Math.min(startDepth, maxDepth); depth <= Math.min(maxDepth, MAX_DEPTH); depth++) {
+            int side = board.getSideToMove();
+            int alpha = -INFINITY;
+            int iterationBestIdx = -1;
+            for (int i = 0; i < count; i++) {
+                if (stopRequested) {
+                    stopped = true; // checked before each root move, so a search asked to stop returns at once
+                    break;
+                }
+                int score = searchChild(moves[i], side, depth, 1, alpha, INFINITY);
+                if (stopped) { break; }
+                if (score > alpha) {
+                    alpha = score;
+                    iterationBestIdx = i;
+                }
+            }
+
+            // A partially searched iteration is still usable if it found a better move, as the previous
+            // best move, or the stored best move when starting above the first iteration, is searched first
+            if (iterationBestIdx >= 0 && (!stopped || iterationBestIdx > 0)) {
+                bestMove = moves[iterationBestIdx];
+                bestScore = alpha;
+                System.arraycopy(moves, 0, moves, 1, iterationBestIdx);
+                moves[0] = bestMove;
+            }
+            if (stopped) { break; }
+            completedDepth = depth;
+
+            // No need to search deeper once a forced win or loss has been found
+            if (Math.abs(bestScore) >= WIN_SCORE - MAX_PLY) { break; }
+        }
+
+        this.board = null;
+        return bestMove;
+    }
+
+    /**
+     * Ask a running search to stop as soon as possible, it will return the best move found so far.
+     * This may be called from another thread.
+     */
+    public void stop() {
+        stopRequested = true;
+    }
+
+    /**
+     * Clear a stop request made before a search started
+     */
+    void clearStop() {
+        stopRequested = false;
+    }
+
+    /**
+     * Get the number of positions visited by the last search
+     * @return the node count
+     */
+    public long getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Get the deepest iteration completed by the last search
+     * @return the depth in turns
+     */
+    public int getCompletedDepth() {
+        return completedDepth;
+    }
+
+    /**
+     * Get the score of the best move found by the last search, from the point of view of the player to move
+     * @return the score
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    /**
+     * Make a move, search the resulting position and take the move back
+     * @return the score of the move from the point of view of the player making it
+     */
+    private int searchChild(int move, int side, int depth, int ply, int alpha, int beta) {
+        board.makeMove(move);
+        int score;
+        if (board.getSideToMove() == side) {
+            // The move formed a mill, the removal that follows is part of the same turn
+            score = negamax(depth, ply, alpha, beta);
+        } else {
+            score = -negamax(depth - 1, ply, -beta, -alpha);
+        }
+        board.unmakeMove();
+        return score;
+    }
+
+    /**
+     * Search a position
+     * @param depth the remaining depth in turns
+     * @param ply the number of plies from the root
+     * @param alpha the lower bound of the search window
+     * @param beta the upper bound of the search window
+     * @return the score of the position from the point of view of the player to move
+     */
+    private int negamax(int depth, int ply, int alpha, int beta) {
+        if ((++nodes % TIME_CHECK_INTERVAL) == 0 && (stopRequested || System.nanoTime() > deadline)) {
+            stopped = true;
+        }
+        if (stopped) { return 0; }
+
+        int side = board.getSideToMove();
+        if (board.isGameOver()) {
+            return board.getStage(side) == GameStage.GAME_OVER ? -WIN_SCORE + ply : WIN_SCORE - ply;
+        }
+        if (endgameDatabase != null && ply > 0) {
+            short value = endgameDatabase.probe(board);
+            if (EndgameValue.isWin(value)) { return ENDGAME_WIN_SCORE - EndgameValue.getDistance(value); }
+            if (EndgameValue.isLoss(value)) { return -ENDGAME_WIN_SCORE + EndgameValue.getDistance(value); }
+            if (EndgameValue.isDraw(value)) { return 0; }
+        }
+        if ((depth <= 0 && !board.isRemovalPending()) || ply >= MAX_PLY) {
+            return evaluator.evaluate(board, side);
+        }
+
+        // Use the stored result for this position if it was searched deep enough
+        long key = board.getHash();
+        long entry = table.probe(key);
+        int hashMove = 0;
+        if (entry != 0) {
+            hashMove = TranspositionTable.getMove(entry);
+            if (TranspositionTable.getDepth(entry) >= Math.max(depth, 0)) {
+                int score = scoreFromTable(TranspositionTable.getScore(entry), ply);
+                int bound = TranspositionTable.getBound(entry);
+                if (bound == TranspositionTable.BOUND_EXACT ||
+                        (bound == TranspositionTable.BOUND_LOWER && score >= beta) ||
+                        (bound == TranspositionTable.BOUND_UPPER && score <= alpha)) {
+                    return score;
+                }
+            }
+        }
+
+        int offset = ply * Board.MAX_MOVES;
+        int count = board.generateMoves(moves, offset);
+        if (count == 0) {
+            // A player who is blocked in loses
+            return -WIN_SCORE + ply;
+        }
+        orderMoves(offset, count);
+        if (hashMove != 0) {
+            moveToFront(offset, count, hashMove);
+        }
+
+        int originalAlpha = alpha;
+        int best = -INFINITY;
+        int bestMove = 0;
+        for (int i = offset; i < offset + count; i++) {
+            int score = searchChild(moves[i], side, depth, ply + 1, alpha, beta);
+            if (stopped) { return 0; }
+            if (score > best) {
+                best = score;
+                bestMove = moves[i];
+                if (score > alpha) {
+                    alpha = score;
+                    if (alpha >= beta) { break; }
+                }
+            }
+        }
+
+        int bound = best <= originalAlpha ? TranspositionTable.BOUND_UPPER :
+                best >= beta ? TranspositionTable.BOUND_LOWER : TranspositionTable.BOUND_EXACT;
+        table.store(key, bestMove, scoreToTable(best, ply), depth, bound);
+        return best;
+    }
+
+    /**
+     * Convert a score to be stored in the transposition table, making wins relative to the position rather than
+     * the root so they remain valid when the position is reached at a different ply
+     */
+    private static int scoreToTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) { return score + ply; }
+        if (score <= -WIN_SCORE + MAX_PLY) { return score - ply; }
+        return score;
+    }
+
+    /**
+     * Convert a score read from the transposition table back to be relative to the root
+     */
+    private static int scoreFromTable(int score, int ply) {
+        if (score >= WIN_SCORE - MAX_PLY) { return score - ply; }
+        if (score <= -WIN_SCORE + MAX_PLY) { return score + ply; }
+        return score;
+    }
+
+    /**
+     * Move a move to the front of the list, if it is in the list
+     */
+    private void moveToFront(int offset, int count, int move) {
+        for (int i = offset; i < offset + count; i++) {
+            if (moves[i] == move) {
+                System.arraycopy(moves, offset, moves, offset + 1, i - offset);
+                moves[offset] = move;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Sort moves so that those forming a mill or blocking one of the opponent's mills are searched first
+     * @param offset the index of the first move in the moves buffer
+     * @param count the number of moves
+     */
+    private void orderMoves(int offset, int count) {
+        int side = board.getSideToMove();
+        int own = board.getPieces(side);
+        int opponent = board.getPieces(side ^ 1);
+        for (int i = 0; i < count; i++) {
+            int move = moves[offset + i];
+            int from = Move.getFrom(move);
+            int to = Move.getTo(move);
+            int score = 0;
+            if (to == Move.NO_POINT) {
+                // Prefer removing pieces which are one away from forming a mill
+                score = countNearMills(opponent & ~(1 << from), own, from);
+            } else {
+                int pieces = (from == Move.NO_POINT ? own : own & ~(1 << from)) | (1 << to);
+                for (int mill : Board.POINT_MILLS[to]) {
+                    if ((pieces & mill) == mill) { score += 4; }
+                    if (Integer.bitCount(opponent & mill) == 2) { score += 2; }
+                }
+            }
+            moveScores[i] = score;
+        }
+
+        // Insertion sort, highest score first, keeping the generated order for equal scores
+        for (int i = 1; i < count; i++) {
+            int move = moves[offset + i];
+            int score = moveScores[i];
+            int j = i - 1;
+            while (j >= 0 && moveScores[j] < score) {
+                moves[offset + j + 1] = moves[offset + j];
+                moveScores[j + 1] = moveScores[j];
+                j--;
+            }
+            moves[offset + j + 1] = move;
+            moveScores[j + 1] = score;
+        }
+    }
+
+    /**
+     * Count the mills through a point which the player could complete by filling it
+     */
+    private static int countNearMills(int pieces, int opponentPieces, int point) {
+        int count = 0;
+        for (int mill : Board.POINT_MILLS[point]) {
+            if ((opponentPieces & mill) == 0 && Integer.bitCount(pieces & mill) == 2) { count++; }
+        }
+        return count;
+    }
+}
@@ -2,21 +2,34 @@ package com.github.adammw.ninemanmorris;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
+import java.util.Random;
 
 /**
  * This class represents the game board and contains all the data for the current state of the game
  */
 public class Board {
-    private HashMap<Player, GameStage> playerStages = new HashMap<>();
-    private HashMap<Player, List<Piece>> playerPieces = new HashMap<>();
     private Player[] players;
-    private Piece[][] board = new Piece[7][7];
+    private int[] stages; // ordinal of each player's GameStage, indexed the same as players
+    private int[] piecesInHand; // number of pieces each player has left to place
+    private Piece[] boardPieces; // the piece returned by getPieceAt for each player
+    private int[] occupied; // bitboard of the points occupied by each player, indexed the same as players
+    private int[] pieceCounts; // number of pieces each player has on the board
+    private int[] formedMills; // bitmask of the indexes into MILLS of the mills each player has formed
+    private int[] millPieces; // bitboard of each player's pieces which are part of at least one formed mill
+    private int[] millPieceCounts; // number of each player's pieces which are part of at least one formed mill
+    private byte[] millsAtPoint = new byte[NUM_POINTS]; // number of formed mills each point is part of
+    private byte[] emptyNeighbours = new byte[NUM_POINTS]; // number of empty points adjacent to each point
+    private int[] mobility; // number of sliding moves each player's pieces have, ignoring the stage
+    private int[] blockedCounts; // number of each player's pieces with no empty adjacent point
+    private int[] openTwos; // number of mills holding two of a player's pieces and an empty point
     private List<Move> history = new ArrayList<>();
     private boolean allowRemoval = false; // set when the previous move formed a mill
+    private int sideToMove = 0; // index of the player whose turn it is
+    private int[] undoStack = new int[64]; // undo records for moves applied with makeMove
+    private long[] hashStack = new long[64]; // hash before each move applied with makeMove
+    private int undoCount = 0;
+    private long hash; // Zobrist hash of the position, updated incrementally
 
     /**
      * This constant array lists which locations are valid positions on the board.
@@ -36,6 +49,138 @@ public class Board {
             {true,  false, false, true,  false, false, true}
     };
 
+    /**
+     * The number of valid locations (points) on the board
+     */
+    public static final int NUM_POINTS = 24;
+
+    /**
+     * The maximum number of moves that can be generated for a single position (3 flying pieces x 21 empty points)
+     */
+    public static final int MAX_MOVES = 64;
+
+    /**
+     * The number of pieces each player starts the game with
+     */
+    public static final int PIECES_PER_PLAYER = 9;
+
+    /**
+     * Bitmask with a bit set for every point on the board
+     */
+    static final int ALL_POINTS = (1 << NUM_POINTS) - 1;
+
+    /**
+     * Point index for each location, indexed y first then x, or -1 if the location is not valid.
+     * Points are numbered in row-major order of VALID_LOCATIONS, so a1 = 0, d1 = 1, ... g7 = 23
+     */
+    static final int[][] POINT_INDEX = new int[VALID_LOCATIONS.length][VALID_LOCATIONS.length];
+
+    /**
+     * The x and y coordinates of each point
+     */
+    static final int[] POINT_X = new int[NUM_POINTS];
+    static final int[] POINT_Y = new int[NUM_POINTS];
+
+    /**
+     * Bitmasks of the 16 possible mills (three points in a line)
+     */
+    static final int[] MILLS = new int[16];
+
+    /**
+     * The two mill bitmasks passing through each point (one horizontal, one vertical)
+     */
+    static final int[][] POINT_MILLS = new int[NUM_POINTS][2];
+
+    /**
+     * The indexes into MILLS of the two mills passing through each point, in the same order as POINT_MILLS
+     */
+    static final int[][] POINT_MILL_INDEXES = new int[NUM_POINTS][2];
+
+    /**
+     * Bitmask of the points connected by a line to each point
+     */
+    static final int[] ADJACENT = new int[NUM_POINTS];
+
+    private static final GameStage[] STAGES = GameStage.values();
+
+    // Layout of the undo records pushed by makeMove
+    private static final int UNDO_MOVE_MASK = (1 << 10) - 1;
+    private static final int UNDO_ALLOW_REMOVAL = 1 << 10;
+    private static final int UNDO_SIDE_SHIFT = 11;
+    private static final int UNDO_STAGE_SHIFT = 12;
+
+    // Zobrist keys for each part of the position included in the hash
+    private static final long[][] POINT_KEYS = new long[2][NUM_POINTS];
+    private static final long[][] IN_HAND_KEYS = new long[2][10];
+    private static final long SIDE_KEY;
+    private static final long REMOVAL_KEY;
+
+    static {
+        Random random = new Random(0x4e4d4d); // fixed seed so hashes are stable between runs
+        for (int side = 0; side < 2; side++) {
+            for (int point = 0; point < NUM_POINTS; point++) {
+                POINT_KEYS[side][point] = random.nextLong();
+            }
+            for (int count = 0; count < IN_HAND_KEYS[side].length; count++) {
+                IN_HAND_KEYS[side][count] = random.nextLong();
+            }
+        }
+        SIDE_KEY = random.nextLong();
+        REMOVAL_KEY = random.nextLong();
+    }
+
+    static {
+        int boardSize = VALID_LOCATIONS.length;
+        int midpoint = boardSize / 2;
+
+        // Number the points
+        int point = 0;
+        for (int y = 0; y < boardSize; y++) {
+            for (int x = 0; x < boardSize; x++) {
+                if (VALID_LOCATIONS[y][x]) {
+                    POINT_INDEX[y][x] = point;
+                    POINT_X[point] = x;
+                    POINT_Y[point] = y;
+                    point++;
+                } else {
+                    POINT_INDEX[y][x] = -1;
+                }
+            }
+        }
+
+        // Walk each row and column to build the mills and connections between points,
+        // the centre row and column each contain two separate lines split at the midpoint
+        int millCount = 0;
+        int[] millsPerPoint = new int[NUM_POINTS];
+        for (int line = 0; line < boardSize; line++) {
+            for (int half = 0; half < (line == midpoint ? 2 : 1); half++) {
+                int start = (line == midpoint) ? half * (midpoint + 1) : 0;
+                int end = (line == midpoint) ? start + midpoint : boardSize;
+                for (int horizontal = 0; horizontal < 2; horizontal++) {
+                    int mill = 0;
+                    int prev = -1;
+                    for (int i = start; i < end; i++) {
+                        int p = (horizontal == 1) ? POINT_INDEX[line][i] : POINT_INDEX[i][line];
+                        if (p < 0) { continue; }
+                        mill |= 1 << p;
+                        if (prev >= 0) {
+                            ADJACENT[prev] |= 1 << p;
+                            ADJACENT[p] |= 1 << prev;
+                        }
+                        prev = p;
+                    }
+                    for (int p = 0; p < NUM_POINTS; p++) {
+                        if ((mill & (1 << p)) != 0) {
+                            POINT_MILL_INDEXES[p][millsPerPoint[p]] = millCount;
+                            POINT_MILLS[p][millsPerPoint[p]++] = mill;
+                        }
+                    }
+                    MILLS[millCount++] = mill;
+                }
+            }
+        }
+    }
+
     /**
      * This interface is used for providing callbacks when a mill is formed while processing a move
      */
@@ -43,6 +188,44 @@ public class Board {
         void millFormed();
     }
 
+    /**
+     * The outcome of a turn played with playTurn
+     */
+    public enum TurnStatus {
+        /** The turn was legal and has been played */
+        OK,
+        /** The game is already over */
+        GAME_OVER,
+        /** A removal from an earlier makeMove is still pending, so a new turn can't start */
+        REMOVAL_PENDING,
+        /** The move doesn't place or move a piece to a point */
+        INVALID_MOVE,
+        /** The point the piece is placed or moved to is occupied */
+        OCCUPIED,
+        /** A piece was placed after the placing stage, or moved during it */
+        WRONG_STAGE,
+        /** There is no piece of the player's own at the point moved from */
+        NOT_OWN_PIECE,
+        /** The piece was moved to a point which isn't adjacent before the player can fly */
+        NOT_ADJACENT,
+        /** The move formed a mill but no piece was removed */
+        REMOVAL_REQUIRED,
+        /** A piece was removed but the move didn't form a mill */
+        REMOVAL_NOT_ALLOWED,
+        /** The point removed from doesn't hold one of the opponent's pieces */
+        NOT_OPPONENT_PIECE,
+        /** The piece removed is part of a mill while the opponent has pieces which aren't */
+        REMOVAL_FROM_MILL;
+
+        /**
+         * Check if the turn was played
+         * @return true for OK
+         */
+        public boolean isLegal() {
+            return this == OK;
+        }
+    }
+
     /**
      * A custom exception class raised when invalid moves are encountered
      */
@@ -58,13 +241,108 @@ public class Board {
      */
     public Board(Player[] players) {
         this.players = players;
+        this.boardPieces = new Piece[players.length];
+        this.stages = new int[players.length];
+        this.piecesInHand = new int[players.length];
+        this.occupied = new int[players.length];
+        this.pieceCounts = new int[players.length];
+        this.formedMills = new int[players.length];
+        this.millPieces = new int[players.length];
+        this.millPieceCounts = new int[players.length];
+        this.mobility = new int[players.length];
+        this.blockedCounts = new int[players.length];
+        this.openTwos = new int[players.length];
+        for (int point = 0; point < NUM_POINTS; point++) {
+            emptyNeighbours[point] = (byte) Integer.bitCount(ADJACENT[point]);
+        }
+
+        for (int i = 0; i < players.length; i++) {
+            stages[i] = GameStage.PLACING.ordinal();
+            piecesInHand[i] = PIECES_PER_PLAYER;
+            boardPieces[i] = new Piece(players[i]);
+        }
+        hash = computeHash();
+    }
 
-        // Create pieces for each player
-        for(Player player : players) {
-            List<Piece> pieces = IntStream.range(0, 9).mapToObj(i -> new Piece(player)).collect(Collectors.toList());
-            playerPieces.put(player, pieces);
-            playerStages.put(player, GameStage.PLACING);
-        };
+    /**
+     * Create a copy of another Board, which can be changed independently of the original
+     * @param other the board to copy
+     */
+    Board(Board other) {
+        this.players = other.players;
+        this.boardPieces = other.boardPieces;
+        this.stages = other.stages.clone();
+        this.piecesInHand = other.piecesInHand.clone();
+        this.occupied = other.occupied.clone();
+        this.pieceCounts = other.pieceCounts.clone();
+        this.formedMills = other.formedMills.clone();
+        this.millPieces = other.millPieces.clone();
+        this.millPieceCounts = other.millPieceCounts.clone();
+        this.millsAtPoint = other.millsAtPoint.clone();
+        this.emptyNeighbours = other.emptyNeighbours.clone();
+        this.mobility = other.mobility.clone();
+        this.blockedCounts = other.blockedCounts.clone();
+        this.openTwos = other.openTwos.clone();
+        this.history = new ArrayList<>(other.history);
+        this.allowRemoval = other.allowRemoval;
+        this.sideToMove = other.sideToMove;
+        this.undoStack = other.undoStack.clone();
+        this.hashStack = other.hashStack.clone();
+        this.undoCount = other.undoCount;
+        this.hash = other.hash;
+    }
+
+    /**
+     * Create a copy of the board, which can be changed independently of the original
+     * @return the copy
+     */
+    public Board copy() {
+        return new Board(this);
+    }
+
+    /**
+     * Take an immutable snapshot of the current position. This method only supports two player games.
+     * @return the position
+     */
+    public Position snapshot() {
+        GameStage[] stages = {getStage(0), getStage(1)};
+        return Position.of(occupied, piecesInHand, stages, sideToMove, allowRemoval);
+    }
+
+    /**
+     * Set up the board in a position taken with snapshot, from this or any other board.
+     * The moves made before are forgotten, so they can no longer be taken back with unmakeMove.
+     * This method only supports two player games.
+     * @param position the position to set up
+     */
+    public void restore(Position position) {
+        if (players.length != 2) {
+            throw new IllegalStateException("Positions can only be restored in two player games");
+        }
+        Arrays.fill(occupied, 0);
+        Arrays.fill(pieceCounts, 0);
+        Arrays.fill(formedMills, 0);
+        Arrays.fill(millPieces, 0);
+        Arrays.fill(millPieceCounts, 0);
+        Arrays.fill(millsAtPoint, (byte) 0);
+        Arrays.fill(mobility, 0);
+        Arrays.fill(blockedCounts, 0);
+        Arrays.fill(openTwos, 0);
+        for (int point = 0; point < NUM_POINTS; point++) {
+            emptyNeighbours[point] = (byte) Integer.bitCount(ADJACENT[point]);
+        }
+        for (int side = 0; side < 2; side++) {
+            for (int pieces = position.getPieces(side); pieces != 0; pieces &= pieces - 1) {
+                addPiece(Integer.numberOfTrailingZeros(pieces), side);
+            }
+            stages[side] = position.getStage(side).ordinal();
+            piecesInHand[side] = position.getPiecesInHand(side);
+        }
+        sideToMove = position.getSideToMove();
+        allowRemoval = position.isRemovalPending();
+        history.clear();
+        undoCount = 0;
+        hash = computeHash();
     }
 
     /**
@@ -73,7 +351,16 @@ public class Board {
      * @return the current stage of the game
      */
     public GameStage getStage(Player player) {
-        return playerStages.get(player);
+        return getStage(getPlayerIndex(player));
+    }
+
+    /**
+     * Returns the stage in the game of the player at the specified index
+     * @param side the index of the player to check
+     * @return the current stage of the game
+     */
+    GameStage getStage(int side) {
+        return STAGES[stages[side]];
     }
 
     /**
@@ -81,7 +368,10 @@ public class Board {
      * @return if the game is over
      */
     public boolean isGameOver() {
-        return playerStages.values().stream().anyMatch(stage -> stage == GameStage.GAME_OVER);
+        for (int stage : stages) {
+            if (stage == GameStage.GAME_OVER.ordinal()) { return true; }
+        }
+        return false;
     }
 
     /**
@@ -91,7 +381,14 @@ public class Board {
      * @return the piece on the board at the specified coordinates
      */
     public Piece getPieceAt(int x, int y) {
-        return board[y][x];
+        int point = POINT_INDEX[y][x];
+        if (point < 0) { return null; }
+        for (int i = 0; i < occupied.length; i++) {
+            if ((occupied[i] & (1 << point)) != 0) {
+                return boardPieces[i];
+            }
+        }
+        return null;
     }
 
     /**
@@ -109,7 +406,33 @@ public class Board {
      * @return the number of pieces yet to be placed
      */
     public int getPiecesRemainingToBePlacedForPlayer(Player player) {
-        return playerPieces.get(player).size();
+        return getPiecesInHand(getPlayerIndex(player));
+    }
+
+    /**
+     * Get the number of pieces remaining to be placed for the player at the specified index
+     * @param side the index of the player to check
+     * @return the number of pieces yet to be placed
+     */
+    int getPiecesInHand(int side) {
+        return piecesInHand[side];
+    }
+
+    /**
+     * Get the pieces on the board for the player at the specified index
+     * @param side the index of the player to check
+     * @return a bitmask of the points occupied by the player's pieces
+     */
+    int getPieces(int side) {
+        return occupied[side];
+    }
+
+    /**
+     * Check if the previous move formed a mill and the same player must now remove one of the opponent's pieces
+     * @return if a removal is pending
+     */
+    public boolean isRemovalPending() {
+        return allowRemoval;
     }
 
     /**
@@ -121,6 +444,23 @@ public class Board {
         return players[idx];
     }
 
+    /**
+     * Get the index of the player whose turn it is. The turn passes to the opponent once a move, and any removal
+     * due to a mill it formed, is complete.
+     * @return the index of the player to move
+     */
+    public int getSideToMove() {
+        return sideToMove;
+    }
+
+    /**
+     * Get the player whose turn it is
+     * @return the player to move
+     */
+    public Player getCurrentPlayer() {
+        return players[sideToMove];
+    }
+
     /**
      * Get the number of players
      * @return the number of players
@@ -135,9 +475,9 @@ public class Board {
      */
     public Player getWinningPlayer() {
         if (!isGameOver()) { return null; }
-        for (Player p : players) {
-            if (playerStages.get(p) != GameStage.GAME_OVER) {
-                return p;
+        for (int i = 0; i < players.length; i++) {
+            if (stages[i] != GameStage.GAME_OVER.ordinal()) {
+                return players[i];
             }
         }
         return null;
@@ -151,68 +491,70 @@ public class Board {
      * @throws IllegalMoveException when the move is not within the rules of the game or otherwise invalid
      */
     public void performMove(Move move, Player player, MillFormedCallback millFormedCallback) throws IllegalMoveException {
-        Piece piece;
-        Player opponent = getOpposingPlayer(player);
-        BoardLocation prevLocation = move.getPreviousPieceLocation();
-        BoardLocation newLocation = move.getNewPieceLocation();
-        GameStage currentStage = getStage(player);
-        assert(prevLocation != null || newLocation != null);
-        assert((allowRemoval && newLocation == null) || (!allowRemoval && newLocation != null));
+        int side = getPlayerIndex(player);
+        int opponentSide = (side + 1) % players.length;
+        int prevPoint = Move.getFrom(move.getCode());
+        int newPoint = Move.getTo(move.getCode());
+        boolean hasPrevLocation = prevPoint != Move.NO_POINT;
+        boolean hasNewLocation = newPoint != Move.NO_POINT;
+        GameStage currentStage = getStage(side);
+        assert(hasPrevLocation || hasNewLocation);
+        assert((allowRemoval && !hasNewLocation) || (!allowRemoval && hasNewLocation));
         assert(currentStage != GameStage.GAME_OVER);
 
         // Ensure if placing or moving, that the piece doesn't already exist at that location
-        if (newLocation != null && getPieceAt(newLocation) != null) {
+        if (hasNewLocation && (getOccupiedPoints() & (1 << newPoint)) != 0) {
             throw new IllegalMoveException("Board location is occupied");
         }
 
         // Validate the move's from location according to the game state and game rules
-        if (prevLocation != null) {
-            piece = getPieceAt(prevLocation);
+        if (hasPrevLocation) {
+            int prevBit = 1 << prevPoint;
 
             // Ensure there is a piece at the from location
-            if (piece == null) {
+            if ((getOccupiedPoints() & prevBit) == 0) {
                 throw new IllegalMoveException("There is no piece at the specified location");
             }
 
             // Ensure you can't remove your own piece if a mill is formed
-            if (newLocation == null && piece.getOwner() == player) {
+            if (!hasNewLocation && (occupied[side] & prevBit) != 0) {
                 throw new IllegalMoveException("Can't remove your own piece");
             }
 
             // Ensure you can't remove an opponents piece in a mill
-            if (newLocation == null && isInMill(prevLocation, opponent) &&
-                    (numPiecesOnBoardOwnedByPlayer(opponent) - numPiecesInMillsOwnedByPlayer(opponent)) > 0) {
+            if (!hasNewLocation && isInMill(prevPoint, opponentSide) &&
+                    (numPiecesOnBoardOwnedByPlayer(opponentSide) - numPiecesInMillsOwnedByPlayer(opponentSide)) > 0) {
                 throw new IllegalMoveException("Can't remove a piece which is part of a mill");
             }
 
             // Ensure you can't remove another player's piece when moving/flying
-            if (newLocation != null && piece.getOwner() != player) {
+            if (hasNewLocation && (occupied[side] & prevBit) == 0) {
                 throw new IllegalMoveException("Can't move another player's piece");
             }
 
             // Ensure that the piece was actually moved
-            if (prevLocation.equals(newLocation)) {
+            if (prevPoint == newPoint) {
                 throw new IllegalMoveException("Must move a piece");
             }
 
             // Ensure you can't fly until you are in the flying stage
-            if (newLocation != null && currentStage == GameStage.MOVING) {
-                if (!isAdjacent(prevLocation, newLocation)) {
+            if (hasNewLocation && currentStage == GameStage.MOVING) {
+                if (!isAdjacent(prevPoint, newPoint)) {
                     throw new IllegalMoveException("Flying is not allowed yet");
                 }
             }
 
             // Remove the old piece from the board
-            removePiece(prevLocation);
+            removePiece(prevPoint);
         } else {
             // Remove the piece from the player's available pieces to place
             assert(currentStage == GameStage.PLACING);
-            piece = playerPieces.get(player).remove(0);
+            takePieceFromHand(side);
         }
 
         // Add the piece to it's new location (unless removing a piece, mill formation sets newLocation=null)
-        if (newLocation != null) {
-            addPiece(newLocation, piece);
+        if (hasNewLocation) {
+            addPiece(newPoint, side);
         }
 
         // Save move history (for undo)
@@ -221,11 +563,16 @@ public class Board {
 
         // Reset allowRemoval flag if it was set (only allow a single move per millFormed callback)
         if (allowRemoval) {
-            allowRemoval = false;
-        } else if(isInMill(newLocation, player)) { // if a mill was formed, notify callback and recalculate opponent's stage
-            allowRemoval = true;
-            millFormedCallback.millFormed();
-            allowRemoval = false;
+            setAllowRemoval(false);
+        } else {
+            if(isInMill(newPoint, side)) { // if a mill was formed, notify callback and recalculate opponent's stage
+                setAllowRemoval(true);
+                millFormedCallback.millFormed();
+                setAllowRemoval(false);
+            }
+
+            // The opponent's turn starts once the move and any removal is complete
+            setSideToMove(opponentSide);
         }
 
         // Recalculate each player's game stage
@@ -233,53 +580,286 @@ public class Board {
     }
 
     /**
-     * Checks the two locations are adjacent to each other on the board and connected by lines
-     * @param loc1 location 1
-     * @param loc2 location 2
-     * @return
+     * List every legal move for the player to move, encoded as described in Move.encode.
+     * If the previous move formed a mill, the moves are the opponent's pieces that may be removed,
+     * otherwise they are the placements, slides or flights allowed by the player's current stage.
+     * @param moves the buffer to write the moves into, which must have room for MAX_MOVES from offset
+     * @param offset the index in the buffer to write the first move at
+     * @return the number of moves written
+     */
+    public int generateMoves(int[] moves, int offset) {
+        int side = sideToMove;
+        int empty = ~getOccupiedPoints() & ALL_POINTS;
+        int count = offset;
+
+        if (allowRemoval) {
+            // Pieces in a mill can only be removed when all of the opponent's pieces are in mills
+            int opponentSide = (side + 1) % players.length;
+            int targets = occupied[opponentSide] & ~piecesInMillsOwnedByPlayer(opponentSide);
+            if (targets == 0) {
+                targets = occupied[opponentSide];
+            }
+            for (; targets != 0; targets &= targets - 1) {
+                moves[count++] = Move.encode(Integer.numberOfTrailingZeros(targets), Move.NO_POINT);
+            }
+            return count - offset;
+        }
+
+        switch (getStage(side)) {
+            case PLACING:
+                for (int to = empty; to != 0; to &= to - 1) {
+                    moves[count++] = Move.encode(Move.NO_POINT, Integer.numberOfTrailingZeros(to));
+                }
+                break;
+            case MOVING:
+            case FLYING:
+                boolean flying = getStage(side) == GameStage.FLYING;
+                for (int pieces = occupied[side]; pieces != 0; pieces &= pieces - 1) {
+                    int from = Integer.numberOfTrailingZeros(pieces);
+                    for (int to = flying ? empty : (ADJACENT[from] & empty); to != 0; to &= to - 1) {
+                        moves[count++] = Move.encode(from, Integer.numberOfTrailingZeros(to));
+                    }
+                }
+                break;
+            case GAME_OVER:
+                break;
+        }
+        return count - offset;
+    }
+
+    /**
+     * List every legal move for the player to move
+     * @param moves the buffer to write the moves into, which must have room for MAX_MOVES
+     * @return the number of moves written
+     * @see #generateMoves(int[], int)
+     */
+    public int generateMoves(int[] moves) {
+        return generateMoves(moves, 0);
+    }
+
+    /**
+     * Validate and play a whole turn for the player to move: a placement or move and, if it forms a mill, the
+     * removal of one of the opponent's pieces. Unlike performMove the turn is a single call without a callback,
+     * the removal has to be chosen up front and nothing changes unless the whole turn is legal. The turn is
+     * applied with makeMove, once for the move and once more for any removal, so it can be taken back with
+     * unmakeMove. This method only supports two player games.
+     * @param move the encoded placement or move, see Move.encode
+     * @param removedPoint the point of the opponent's piece to remove, or Move.NO_POINT if no mill is formed
+     * @return OK if the turn was played, otherwise the reason it is illegal
      */
-    private boolean isAdjacent(BoardLocation loc1, BoardLocation loc2) {
-        return checkAdjacentLocations(loc1.getX(), loc1.getY(), (x, y) -> x == loc2.getX() && y == loc2.getY());
+    public TurnStatus playTurn(int move, int removedPoint) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int side = sideToMove;
+        int opponentSide = side ^ 1;
+        GameStage stage = getStage(side);
+
+        if (isGameOver()) { return TurnStatus.GAME_OVER; }
+        if (allowRemoval) { return TurnStatus.REMOVAL_PENDING; }
+        if (to == Move.NO_POINT || to >= NUM_POINTS || from >= NUM_POINTS) { return TurnStatus.INVALID_MOVE; }
+        if ((getOccupiedPoints() & (1 << to)) != 0) { return TurnStatus.OCCUPIED; }
+
+        int pieces = occupied[side];
+        if (from == Move.NO_POINT) {
+            if (stage != GameStage.PLACING) { return TurnStatus.WRONG_STAGE; }
+        } else {
+            if (stage == GameStage.PLACING) { return TurnStatus.WRONG_STAGE; }
+            if ((pieces & (1 << from)) == 0) { return TurnStatus.NOT_OWN_PIECE; }
+            if (stage == GameStage.MOVING && !isAdjacent(from, to)) { return TurnStatus.NOT_ADJACENT; }
+            pieces &= ~(1 << from);
+        }
+
+        // A removal is only due if the move forms a mill and the opponent has a piece which could be removed
+        pieces |= 1 << to;
+        int[] mills = POINT_MILLS[to];
+        boolean millFormed = ((pieces & mills[0]) == mills[0] || (pieces & mills[1]) == mills[1])
+                && occupied[opponentSide] != 0;
+        if (!millFormed && removedPoint != Move.NO_POINT) { return TurnStatus.REMOVAL_NOT_ALLOWED; }
+        if (millFormed) {
+            if (removedPoint == Move.NO_POINT) { return TurnStatus.REMOVAL_REQUIRED; }
+            if (removedPoint < 0 || removedPoint >= NUM_POINTS || (occupied[opponentSide] & (1 << removedPoint)) == 0) {
+                return TurnStatus.NOT_OPPONENT_PIECE;
+            }
+            if (isInMill(removedPoint, opponentSide)
+                    && numPiecesOnBoardOwnedByPlayer(opponentSide) > numPiecesInMillsOwnedByPlayer(opponentSide)) {
+                return TurnStatus.REMOVAL_FROM_MILL;
+            }
+        }
+
+        makeMove(move);
+        if (millFormed) {
+            makeMove(Move.encode(removedPoint, Move.NO_POINT));
+        }
+        return TurnStatus.OK;
     }
 
     /**
-     * Get the opposing player
-     * @param player the current player
-     * @return the next Player in the players array
+     * Validate and play a whole turn for the player to move
+     * @param move the placement or move
+     * @param removed the location of the opponent's piece to remove, or null if no mill is formed
+     * @return OK if the turn was played, otherwise the reason it is illegal
+     * @see #playTurn(int, int)
      */
-    private Player getOpposingPlayer(Player player) {
-        int idx = Arrays.asList(players).indexOf(player);
-        return players[(idx + 1) % players.length];
+    public TurnStatus playTurn(Move move, BoardLocation removed) {
+        return playTurn(move.getCode(), removed != null ? removed.getPoint() : Move.NO_POINT);
+    }
+
+    /**
+     * Apply an encoded move for the player to move, as listed by generateMoves, without validating it.
+     * A move forming a mill leaves the same player to move with a removal pending, which is made as a separate
+     * move. Unlike performMove, no history is recorded and the move can be taken back with unmakeMove.
+     * This method only supports two player games.
+     * @param move the encoded move to apply
+     */
+    public void makeMove(int move) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        int side = sideToMove;
+        int opponentSide = side ^ 1;
+
+        // Save the state which can't be recovered from the move itself
+        if (undoCount == undoStack.length) {
+            undoStack = Arrays.copyOf(undoStack, undoStack.length * 2);
+            hashStack = Arrays.copyOf(hashStack, hashStack.length * 2);
+        }
+        hashStack[undoCount] = hash;
+        undoStack[undoCount++] = (move & UNDO_MOVE_MASK) |
+                (allowRemoval ? UNDO_ALLOW_REMOVAL : 0) |
+                (side << UNDO_SIDE_SHIFT) |
+                (stages[0] << UNDO_STAGE_SHIFT) |
+                (stages[1] << (UNDO_STAGE_SHIFT + 2));
+
+        if (allowRemoval) {
+            removePiece(from);
+            setAllowRemoval(false);
+
+            // performMove recalculates once after the removal and again once the move forming the mill completes
+            recalculateGameStage();
+            recalculateGameStage();
+            setSideToMove(opponentSide);
+            return;
+        }
+
+        if (from == Move.NO_POINT) {
+            takePieceFromHand(side);
+        } else {
+            removePiece(from);
+        }
+        addPiece(to, side);
+
+        // A removal is only pending if the opponent has a piece which could be removed
+        if (isInMill(to, side) && occupied[opponentSide] != 0) {
+            setAllowRemoval(true);
+        } else {
+            recalculateGameStage();
+            setSideToMove(opponentSide);
+        }
+    }
+
+    /**
+     * Take back the last move applied with makeMove, restoring the board to the state before it was made
+     */
+    public void unmakeMove() {
+        assert(undoCount > 0);
+        int record = undoStack[--undoCount];
+        int from = Move.getFrom(record & UNDO_MOVE_MASK);
+        int to = Move.getTo(record & UNDO_MOVE_MASK);
+        int side = (record >>> UNDO_SIDE_SHIFT) & 1;
+
+        allowRemoval = (record & UNDO_ALLOW_REMOVAL) != 0;
+        sideToMove = side;
+        stages[0] = (record >>> UNDO_STAGE_SHIFT) & 3;
+        stages[1] = (record >>> (UNDO_STAGE_SHIFT + 2)) & 3;
+
+        if (allowRemoval) {
+            addPiece(from, side ^ 1);
+        } else {
+            removePiece(to);
+            if (from == Move.NO_POINT) {
+                piecesInHand[side]++;
+            } else {
+                addPiece(from, side);
+            }
+        }
+        hash = hashStack[undoCount];
+    }
+
+    /**
+     * Get the Zobrist hash of the position, covering the pieces on the board, the player to move,
+     * the pieces each player has left to place and whether a removal is pending
+     * @return the 64-bit hash
+     */
+    public long getHash() {
+        return hash;
+    }
+
+    /**
+     * Calculate the Zobrist hash of the position from scratch
+     * @return the 64-bit hash
+     */
+    long computeHash() {
+        long h = 0;
+        for (int side = 0; side < occupied.length; side++) {
+            for (int pieces = occupied[side]; pieces != 0; pieces &= pieces - 1) {
+                h ^= POINT_KEYS[side][Integer.numberOfTrailingZeros(pieces)];
+            }
+            h ^= IN_HAND_KEYS[side][getPiecesInHand(side)];
+        }
+        if (sideToMove != 0) { h ^= SIDE_KEY; }
+        if (allowRemoval) { h ^= REMOVAL_KEY; }
+        return h;
+    }
+
+    /**
+     * Checks the two points are adjacent to each other on the board and connected by lines
+     * @param point1 point 1
+     * @param point2 point 2
+     * @return if the points are connected
+     */
+    private boolean isAdjacent(int point1, int point2) {
+        return (ADJACENT[point1] & (1 << point2)) != 0;
+    }
+
+    /**
+     * Get the index of the player in the players array, which is used to refer to the player everywhere else
+     * @param player the player to look up
+     * @return the index of the player
+     */
+    int getPlayerIndex(Player player) {
+        for (int i = 0; i < players.length; i++) {
+            if (players[i] == player) { return i; }
+        }
+        return -1;
     }
 
     /**
      * Recalculate the game stage for the specified player and update it, if nessicary
      * @param player the player to update the game stage for
      */
-    private void recalculateGameStage() {
-        for (Player player : players) {
-            switch (getStage(player)) {
+    void recalculateGameStage() {
+        for (int i = 0; i < players.length; i++) {
+            switch (getStage(i)) {
                 case PLACING:
                     // Move to Moving stage when the player has no more pieces to place
-                    if (playerPieces.get(player).size() == 0) {
-                        playerStages.put(player, GameStage.MOVING);
+                    if (piecesInHand[i] == 0) {
+                        stages[i] = GameStage.MOVING.ordinal();
                     }
                     break;
                 case MOVING:
                     // Game is over if the player is 'blocked in' and cannot move
-                    if (!possibleMoves(player)) {
-                        playerStages.put(player, GameStage.GAME_OVER);
+                    if (!possibleMoves(i)) {
+                        stages[i] = GameStage.GAME_OVER.ordinal();
                     }
 
                     // Move to flying stage when the player has only 3 pieces left
-                    if (numPiecesOnBoardOwnedByPlayer(player) < 4) {
-                        playerStages.put(player, GameStage.FLYING);
+                    if (numPiecesOnBoardOwnedByPlayer(i) < 4) {
+                        stages[i] = GameStage.FLYING.ordinal();
                     }
                     break;
                 case FLYING:
                     // The game is over when the player has less than 3 pieces left
-                    if (numPiecesOnBoardOwnedByPlayer(player) < 3) {
-                        playerStages.put(player, GameStage.GAME_OVER);
+                    if (numPiecesOnBoardOwnedByPlayer(i) < 3) {
+                        stages[i] = GameStage.GAME_OVER.ordinal();
                     }
                     break;
             }
@@ -288,232 +868,239 @@ public class Board {
 
     /**
      * Determine if a mill exists in the location specified
-     * @param loc the location to check for a mill
-     * @param player the player to check for owning the mill
+     * @param point the point to check for a mill
+     * @param side the index of the player to check for owning the mill
      * @return whether or not 3 pieces in a row (a mill) was formed at that location
      */
-    private boolean isInMill(BoardLocation loc, Player player) {
-        return isInMill(loc.getX(), loc.getY(), player);
+    boolean isInMill(int point, int side) {
+        return (millPieces[side] & (1 << point)) != 0;
     }
 
     /**
-     * Determine if a mill exists in the location specified
-     * @param x the x location to check for a mill
-     * @param y the y location to check for a mill
-     * @param player the player to check for owning the mill
-     * @return whether or not 3 pieces in a row (a mill) was formed at that location
+     * Get the points occupied by any player
+     * @return a bitmask of the occupied points
      */
-    private boolean isInMill(int x, int y, Player player) {
-        boolean millFormed = false;
-        int boardSize = board.length;
-        int boardMidpoint = boardSize / 2;
-
-        // Check row along where the piece was placed
-        if (y == boardMidpoint) {
-            if (x < boardMidpoint) {
-                millFormed = (numPiecesInRowOwnedByPlayer(y, player, 0, boardMidpoint) == 3);
-            } else {
-                millFormed = (numPiecesInRowOwnedByPlayer(y, player, boardMidpoint, boardSize) == 3);
-            }
-        } else {
-            millFormed = (numPiecesInRowOwnedByPlayer(y, player) == 3);
+    private int getOccupiedPoints() {
+        int mask = 0;
+        for (int pieces : occupied) {
+            mask |= pieces;
         }
-
-        if (millFormed) { return true; }
-
-        // Check column along where the piece was placed
-        if (x == boardMidpoint) {
-            if (y < boardMidpoint) {
-                millFormed = (numPiecesInColOwnedByPlayer(x, player, 0, boardMidpoint) == 3);
-            } else {
-                millFormed = (numPiecesInColOwnedByPlayer(x, player, boardMidpoint, boardSize) == 3);
-            }
-        } else {
-            millFormed = (numPiecesInColOwnedByPlayer(x, player) == 3);
-        }
-
-        return millFormed;
+        return mask;
     }
 
     /**
-     * Count the number of pieces that a player has in a particular row
-     * @param rowIdx the row index to look in
-     * @param player the player's pieces to look for
-     * @return the count of pieces in the row owned by the player
+     * Count the number of pieces that a player has on the board
+     * @param side the index of the player to check
+     * @return the number of pieces from that player remaining on the board
      */
-    private int numPiecesInRowOwnedByPlayer(int rowIdx, Player player) {
-        int boardSize = board[rowIdx].length;
-        return numPiecesInRowOwnedByPlayer(rowIdx, player, 0, boardSize);
+    int numPiecesOnBoardOwnedByPlayer(int side) {
+        return pieceCounts[side];
     }
 
     /**
-     * Count the number of pieces that a player has in a particular row
-     * @param rowIdx the row index to look in
-     * @param player the player's pieces to look for
-     * @param offset the offset along the row (needed to check the centre row which contains two "rows")
-     * @param xMax the maximum x value to check (exclusive; needed to check the centre row which contains two "rows")
-     * @return the count of pieces in the row owned by the player
+     * Get the pieces that a player has on the board that are currently forming a mill
+     * @param side the index of the player to check
+     * @return a bitmask of the points of the pieces forming a mill
      */
-    private int numPiecesInRowOwnedByPlayer(int rowIdx, Player player, int offset, int xMax) {
-        int count = 0;
-        for (int x = offset; x < xMax; x++) {
-            if (!VALID_LOCATIONS[rowIdx][x]) { continue; }
-            if (board[rowIdx][x] != null && board[rowIdx][x].getOwner() == player) {
-                count++;
-            }
-        }
-        return count;
+    int piecesInMillsOwnedByPlayer(int side) {
+        return millPieces[side];
     }
 
     /**
-     * Count the number of pieces that a player has in a particular column
-     * @param colIdx the row index to look in
-     * @param player the player's pieces to look for
-     * @return the count of pieces in the column owned by the player
+     * Get the mills that a player has currently formed
+     * @param side the index of the player to check
+     * @return a bitmask of the indexes into MILLS of the formed mills
      */
-    private int numPiecesInColOwnedByPlayer(int colIdx, Player player) {
-        int boardSize = board.length;
-        return numPiecesInColOwnedByPlayer(colIdx, player, 0, boardSize);
+    int getFormedMills(int side) {
+        return formedMills[side];
     }
 
     /**
-     * Count the number of pieces that a player has in a particular column
-     * @param colIdx the column index to look in
-     * @param player the player's pieces to look for
-     * @param offset the offset along the column (needed to check the centre row which contains two "columns")
-     * @param yMax the maximum y value to check (exclusive; needed to check the centre row which contains two "columns")
-     * @return the count of pieces in the column owned by the player
+     * Count the number of pieces that a player has on a board that are currently forming a mill
+     * @param side the index of the player to check
+     * @return the number of pieces forming a mill
      */
-    private int numPiecesInColOwnedByPlayer(int colIdx, Player player, int offset, int yMax) {
-        int count = 0;
-        for (int y = offset; y < yMax; y++) {
-            if (!VALID_LOCATIONS[y][colIdx]) { continue; }
-            if (board[y][colIdx] != null && board[y][colIdx].getOwner() == player) {
-                count++;
-            }
-        }
-        return count;
+    int numPiecesInMillsOwnedByPlayer(int side) {
+        return millPieceCounts[side];
     }
 
     /**
-     * Count the number of pieces that a player has on the board
-     * @param player the player to check
-     * @return the number of pieces from that player remaining on the board
+     * Check if there are possible moves that a player can make
+     * @param side the index of the player to check
+     * @return if the player is able to move their pieces
      */
-    private long numPiecesOnBoardOwnedByPlayer(Player player) {
-        return Arrays.stream(board)
-                .flatMap(Arrays::stream)
-                .filter(x -> x != null && x.getOwner() == player)
-                .count();
+    boolean possibleMoves(int side) {
+        return mobility[side] > 0;
     }
 
     /**
-     * Count the number of pieces that a player has on a board that are currently forming a mill
-     * @param player the player to check
-     * @return the number of pieces forming a mill (must be a multiple of 3)
-     */
-    private int numPiecesInMillsOwnedByPlayer(Player player) {
-        int count = 0;
-        for (int y = 0; y < board.length; y++) {
-            for (int x = 0; x < board[y].length; x++) {
-                if (!VALID_LOCATIONS[y][x]) { continue; }
-                Piece piece = getPieceAt(x, y);
-                if (piece == null || piece.getOwner() != player) { continue; }
-                if (isInMill(x, y, player)) { count++; }
+     * Remove a piece from the board at the specified point
+     * @param point point on the board to remove the piece
+     */
+    void removePiece(int point) {
+        for (int i = 0; i < occupied.length; i++) {
+            if ((occupied[i] & (1 << point)) != 0) {
+                // Break the mills through the point before the piece leaves them
+                for (int mill : POINT_MILL_INDEXES[point]) {
+                    if ((formedMills[i] & (1 << mill)) != 0) {
+                        formedMills[i] &= ~(1 << mill);
+                        updateMillPieces(MILLS[mill], i, -1);
+                    }
+                }
+                occupied[i] &= ~(1 << point);
+                pieceCounts[i]--;
+                hash ^= POINT_KEYS[i][point];
+                updateOpenTwos(point, i, -1);
+                updateNeighbours(point, i, -1);
             }
         }
-        return count;
-    }
-
-    private interface AdjacentLocationComparator {
-        boolean compare(int x, int y);
     }
 
-    private boolean checkAdjacentLocations(int x, int y, AdjacentLocationComparator comparator) {
-        int boardSize = board.length;
-        int midpoint = boardSize / 2;
+    /**
+     * Add a piece to the board at the specified point
+     * @param point point on the board to add the piece
+     * @param side the index of the player owning the piece
+     */
+    void addPiece(int point, int side) {
+        updateOpenTwos(point, side, 1);
+        occupied[side] |= 1 << point;
+        pieceCounts[side]++;
+        hash ^= POINT_KEYS[side][point];
+        updateNeighbours(point, side, 1);
 
-        // check vertical movement
-        // check if next spot in positive direction is the next location,
-        // unless it's d5 (as otherwise it would treat d3 as adjacent)
-        if(x != midpoint || y != (midpoint - 1)) {
-            for (int y2 = y + 1; y2 < boardSize; y2++) {
-                if (VALID_LOCATIONS[y2][x]) {
-                    if (comparator.compare(x, y2)) { return true; }
-                    break;
-                }
+        // Only the two mills through the point can be completed by the new piece
+        for (int mill : POINT_MILL_INDEXES[point]) {
+            if ((occupied[side] & MILLS[mill]) == MILLS[mill]) {
+                formedMills[side] |= 1 << mill;
+                updateMillPieces(MILLS[mill], side, 1);
             }
         }
+    }
 
-        // check if next spot in negative direction is the next location,
-        // unless it's d3 (as otherwise it would treat d5 as adjacent)
-        if (x != midpoint || y != (midpoint + 1)) {
-            for (int y2 = y - 1; y2 >= 0; y2--) {
-                if (VALID_LOCATIONS[y2][x]) {
-                    if (comparator.compare(x, y2)) { return true; }
-                    break;
+    /**
+     * Update the count of open two-in-a-rows for the mills through a point while the point is empty, before a
+     * piece is added to it or after a piece is removed from it
+     * @param point the point which is changing
+     * @param side the index of the player adding or removing the piece
+     * @param change 1 if a piece is being added or -1 if a piece has been removed
+     */
+    private void updateOpenTwos(int point, int side, int change) {
+        int all = getOccupiedPoints();
+        for (int mill : POINT_MILLS[point]) {
+            int onMill = all & mill;
+            int count = Integer.bitCount(onMill);
+            if (count == 1 && (occupied[side] & onMill) != 0) {
+                // The player's piece and the point make two with the third point empty
+                openTwos[side] += change;
+            } else if (count == 2) {
+                // The point is the empty third point of any open two
+                for (int i = 0; i < occupied.length; i++) {
+                    if ((occupied[i] & mill) == onMill) { openTwos[i] -= change; }
                 }
             }
         }
+    }
 
-        // check horizontal movement
-        // check if next spot in positive direction is the next location,
-        // unless it's c4 (as otherwise it would treat e4 as adjacent)
-        if(y != midpoint || x != (midpoint - 1)) {
-            for (int x2 = x + 1; x2 < boardSize; x2++) {
-                if (VALID_LOCATIONS[y][x2]) {
-                    if (comparator.compare(x2, y)) { return true; }
-                    break;
-                }
-            }
+    /**
+     * Update the empty neighbour counts, mobility and blocked pieces after a piece is added to or removed from
+     * a point
+     * @param point the point which has changed
+     * @param side the index of the player owning the piece
+     * @param change 1 if the piece was added or -1 if it was removed
+     */
+    private void updateNeighbours(int point, int side, int change) {
+        int neighbours = ADJACENT[point];
+        for (int n = neighbours; n != 0; n &= n - 1) {
+            emptyNeighbours[Integer.numberOfTrailingZeros(n)] -= change;
         }
-
-        // check if next spot in negative direction is the next location,
-        // unless it's e4 (as otherwise it would treat c4 as adjacent)
-        if (y != midpoint || x != (midpoint + 1)) {
-            for (int x2 = x - 1; x2 >= 0; x2--) {
-                if (VALID_LOCATIONS[y][x2]) {
-                    if (comparator.compare(x2, y)) { return true; }
-                    break;
-                }
+        int blocked = change > 0 ? 0 : 1; // empty neighbours of a piece which has just become or stopped being blocked
+        for (int i = 0; i < occupied.length; i++) {
+            int owned = neighbours & occupied[i];
+            mobility[i] -= change * Integer.bitCount(owned);
+            for (; owned != 0; owned &= owned - 1) {
+                if (emptyNeighbours[Integer.numberOfTrailingZeros(owned)] == blocked) { blockedCounts[i] += change; }
             }
         }
+        mobility[side] += change * emptyNeighbours[point];
+        if (emptyNeighbours[point] == 0) { blockedCounts[side] += change; }
+    }
 
-        return false;
+    /**
+     * Get the number of sliding moves a player's pieces have, whether or not the player is in the moving stage
+     * @param side the index of the player to check
+     * @return the number of pairs of one of the player's pieces and an empty adjacent point
+     */
+    int getMobility(int side) {
+        return mobility[side];
+    }
+
+    /**
+     * Get the number of a player's pieces which can't slide because every adjacent point is occupied
+     * @param side the index of the player to check
+     * @return the number of blocked pieces
+     */
+    int getBlockedCount(int side) {
+        return blockedCounts[side];
     }
 
+    /**
+     * Get the number of mills where a player has two pieces and the third point is empty
+     * @param side the index of the player to check
+     * @return the number of open two-in-a-rows
+     */
+    int getOpenTwos(int side) {
+        return openTwos[side];
+    }
 
     /**
-     * Check if there are possible moves that a player can make
-     * @param player the player to check
-     * @return if the player is able to move their pieces
+     * Update the count of formed mills at each point of a mill which has been formed or broken, keeping track of
+     * the pieces which are part of any mill
+     * @param mill bitmask of the points of the mill
+     * @param side the index of the player owning the mill
+     * @param change 1 if the mill was formed, -1 if it was broken
      */
-    private boolean possibleMoves(Player player) {
-        for (int y = 0; y < board.length; y++) {
-            for (int x = 0; x < board[y].length; x++) {
-                if (!VALID_LOCATIONS[y][x]) { continue; }
-                Piece piece = getPieceAt(x, y);
-                if (piece == null || piece.getOwner() != player) { continue; }
-                if (checkAdjacentLocations(x, y, (x2, y2) -> getPieceAt(x2, y2) == null)) { return true; }
+    private void updateMillPieces(int mill, int side, int change) {
+        for (int points = mill; points != 0; points &= points - 1) {
+            int point = Integer.numberOfTrailingZeros(points);
+            millsAtPoint[point] += change;
+            if (millsAtPoint[point] == 0) {
+                millPieces[side] &= ~(1 << point);
+                millPieceCounts[side]--;
+            } else if (change > 0 && millsAtPoint[point] == 1) {
+                millPieces[side] |= 1 << point;
+                millPieceCounts[side]++;
             }
         }
-        return false;
     }
 
     /**
-     * Remove a piece from the board at the specified location
-     * @param loc location on the board to remove the piece
+     * Remove one of the player's pieces from those remaining to be placed
+     * @param side the index of the player placing the piece
+     */
+    private void takePieceFromHand(int side) {
+        hash ^= IN_HAND_KEYS[side][piecesInHand[side]] ^ IN_HAND_KEYS[side][piecesInHand[side] - 1];
+        piecesInHand[side]--;
+    }
+
+    /**
+     * Set the flag allowing the next move to remove an opponent's piece
+     * @param allow if a removal is pending
      */
-    private void removePiece(BoardLocation loc) {
-        board[loc.getY()][loc.getX()] = null;
+    private void setAllowRemoval(boolean allow) {
+        if (allowRemoval != allow) {
+            allowRemoval = allow;
+            hash ^= REMOVAL_KEY;
+        }
     }
 
     /**
-     * Add a piece to the board at the specified location
-     * @param loc location on the board to add the piece
-     * @param piece the piece to add
+     * Pass the turn to a player
+     * @param side the index of the player to move
      */
-    private void addPiece(BoardLocation loc, Piece piece) {
-        board[loc.getY()][loc.getX()] = piece;
+    private void setSideToMove(int side) {
+        if (sideToMove != side) {
+            sideToMove = side;
+            hash ^= SIDE_KEY;
+        }
     }
 }
@@ -1,33 +1,85 @@
 package com.github.adammw.ninemanmorris;
 
 /**
- * This class represents a location on the board
+ * This class represents a location on the board.
+ * There is one shared instance for each of the 24 points, returned by of and valueOf, so looking up a location
+ * never allocates. Locations are immutable and can be compared with equals or used as map keys.
  */
-public class BoardLocation {
-    private int x;
-    private int y;
+public final class BoardLocation {
+    /**
+     * The location of each point, indexed by point number
+     */
+    private static final BoardLocation[] POINTS = new BoardLocation[Board.NUM_POINTS];
 
-    public class InvalidLocationException extends Exception {
+    static {
+        for (int point = 0; point < Board.NUM_POINTS; point++) {
+            POINTS[point] = new BoardLocation(Board.POINT_X[point], Board.POINT_Y[point], point);
+        }
+    }
+
+    private final int x;
+    private final int y;
+    private final int point;
+
+    public static class InvalidLocationException extends Exception {
         public InvalidLocationException(String message) {
             super(message);
         }
     }
 
+    /**
+     * Parse a location such as "d2". Prefer valueOf, which returns the shared instance.
+     * @param location the name of the location
+     * @throws InvalidLocationException if the name isn't a point on the board
+     */
     public BoardLocation(String location) throws InvalidLocationException {
-        if (location.length() != 2) throw new InvalidLocationException("Invalid location");
-        if (location.charAt(0) >= 'a' && location.charAt(0) <= 'g') {
-            x = location.charAt(0) - 'a';
-        } else {
-            throw new InvalidLocationException("Invalid location");
-        }
-        if (location.charAt(1) >= '1' && location.charAt(1) <= '7') {
-            y = location.charAt(1) - '1';
-        } else {
-            throw new InvalidLocationException("Invalid location");
-        }
-        if (!Board.VALID_LOCATIONS[y][x]) {
-            throw new InvalidLocationException("Invalid location");
+        this(valueOf(location));
+    }
+
+    private BoardLocation(BoardLocation location) {
+        this(location.x, location.y, location.point);
+    }
+
+    private BoardLocation(int x, int y, int point) {
+        this.x = x;
+        this.y = y;
+        this.point = point;
+    }
+
+    /**
+     * Get the location of a point
+     * @param point the point index (0 - 23)
+     * @return the shared location of the point
+     */
+    public static BoardLocation of(int point) {
+        return POINTS[point];
+    }
+
+    /**
+     * Parse a location such as "d2"
+     * @param location the name of the location
+     * @return the shared location with that name
+     * @throws InvalidLocationException if the name isn't a point on the board
+     */
+    public static BoardLocation valueOf(String location) throws InvalidLocationException {
+        int point = parsePoint(location);
+        if (point < 0) throw new InvalidLocationException("Invalid location");
+        return POINTS[point];
+    }
+
+    /**
+     * Parse the name of a point such as "d2"
+     * @param location the name of the location
+     * @return the point index (0 - 23), or -1 if the name isn't a point on the board
+     */
+    static int parsePoint(CharSequence location) {
+        if (location.length() != 2) { return -1; }
+        int x = location.charAt(0) - 'a';
+        int y = location.charAt(1) - '1';
+        if (x < 0 || x >= Board.VALID_LOCATIONS.length || y < 0 || y >= Board.VALID_LOCATIONS.length) {
+            return -1;
         }
+        return Board.POINT_INDEX[y][x];
     }
 
     public int getX() {
@@ -38,7 +90,26 @@ public class BoardLocation {
         return y;
     }
 
-    public boolean equals(BoardLocation o) {
-        return o != null && this.x == o.x && this.y == o.y;
+    /**
+     * Get the point index of the location, as used by Board and Move.encode
+     * @return the point index (0 - 23)
+     */
+    public int getPoint() {
+        return point;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof BoardLocation && ((BoardLocation) o).point == point;
+    }
+
+    @Override
+    public int hashCode() {
+        return point;
+    }
+
+    @Override
+    public String toString() {
+        return "" + (char) ('a' + x) + (char) ('1' + y);
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,196 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * The 16 symmetries of the board: the 8 rotations and reflections of the square, each optionally combined with
+ * swapping the inner and outer rings. Every symmetry maps lines onto lines, so it preserves mills and which
+ * points are adjacent, and a position has the same game-theoretic value as any of its transformed copies.
+ *
+ * A position can be canonicalized by finding the symmetry which transforms it into the smallest of its copies,
+ * so caches, opening books and databases only need to store one copy of each position. Sets of points are
+ * transformed with precomputed lookup tables, which is cheap enough to do at every node of a search.
+ */
+public final class BoardSymmetry {
+    /**
+     * The number of symmetries, including the identity (symmetry 0)
+     */
+    public static final int COUNT = 16;
+
+    /**
+     * The point each point is moved to by each symmetry, indexed by symmetry then point
+     */
+    static final int[][] PERMUTATIONS = new int[COUNT][Board.NUM_POINTS];
+
+    /**
+     * The symmetry which undoes each symmetry
+     */
+    static final int[] INVERSES = new int[COUNT];
+
+    /**
+     * The transformed bitmask of each byte of a bitmask, indexed by symmetry, then byte and byte value
+     * combined, so a set of points is transformed with three lookups
+     */
+    private static final int[][] BYTE_TABLES = new int[COUNT][3 * 256];
+
+    static {
+        int size = Board.VALID_LOCATIONS.length;
+        int midpoint = size / 2;
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            for (int point = 0; point < Board.NUM_POINTS; point++) {
+                int x = Board.POINT_X[point] - midpoint;
+                int y = Board.POINT_Y[point] - midpoint;
+                if ((symmetry & 8) != 0) {
+                    // Swap the inner and outer rings by rescaling the distance from the centre
+                    int ring = Math.max(Math.abs(x), Math.abs(y));
+                    int newRing = midpoint + 1 - ring;
+                    x = x / ring * newRing;
+                    y = y / ring * newRing;
+                }
+                if ((symmetry & 4) != 0) {
+                    x = -x; // reflect
+                }
+                for (int turn = 0; turn < (symmetry & 3); turn++) {
+                    int rotated = -y; // rotate a quarter turn
+                    y = x;
+                    x = rotated;
+                }
+                PERMUTATIONS[symmetry][point] = Board.POINT_INDEX[y + midpoint][x + midpoint];
+            }
+        }
+
+        for (int symmetry = 0; symmetry < COUNT; symmetry++) {
+            int[] permutation = PERMUTATIONS[symmetry];
+            for (int value = 0; value < 3 * 256; value++) {
+                int part = value >>> 8;
+                int result = 0;
+                for (int bit = 0; bit < 8; bit++) {
+                    if ((value & (1 << bit)) != 0) { result |= 1 << permutation[part * 8 + bit]; }
+                }
+                BYTE_TABLES[symmetry][value] = result;
+            }
+            for (int inverse = 0; inverse < COUNT; inverse++) {
+                boolean undoes = true;
+                for (int point = 0; point < Board.NUM_POINTS && undoes; point++) {
+                    undoes = PERMUTATIONS[inverse][permutation[point]] == point;
+                }
+                if (undoes) { INVERSES[symmetry] = inverse; }
+            }
+        }
+    }
+
+    private BoardSymmetry() {
+    }
+
+    /**
+     * Apply a symmetry to a set of points
+     * @param mask bitmask of the points
+     * @param symmetry the symmetry to apply, between 0 and COUNT - 1
+     * @return bitmask of the transformed points
+     */
+    public static int transform(int mask, int symmetry) {
+        int[] table = BYTE_TABLES[symmetry];
+        return table[mask & 0xff] | table[256 + ((mask >>> 8) & 0xff)] | table[512 + (mask >>> 16)];
+    }
+
+    /**
+     * Apply a symmetry to a single point
+     * @param point the point index
+     * @param symmetry the symmetry to apply
+     * @return the transformed point index
+     */
+    public static int transformPoint(int point, int symmetry) {
+        return PERMUTATIONS[symmetry][point];
+    }
+
+    /**
+     * Apply a symmetry to an encoded move (see Move.encode)
+     * @param move the encoded move
+     * @param symmetry the symmetry to apply
+     * @return the encoded transformed move
+     */
+    public static int transformMove(int move, int symmetry) {
+        int from = Move.getFrom(move);
+        int to = Move.getTo(move);
+        return Move.encode(from == Move.NO_POINT ? Move.NO_POINT : PERMUTATIONS[symmetry][from],
+                to == Move.NO_POINT ? Move.NO_POINT : PERMUTATIONS[symmetry][to]);
+    }
+
+    /**
+     * Get the symmetry which undoes a symmetry
+     * @param symmetry the symmetry
+     * @return the inverse symmetry
+     */
+    public static int inverse(int symmetry) {
+        return INVERSES[symmetry];
+    }
+
+    /**
+     * Find the symmetry which transforms a position into its canonical copy, the one where the first set of
+     * points is smallest as a bitmask, with ties broken by the smallest second set
+     * @param first bitmask of the first player's pieces
+     * @param second bitmask of the second player's pieces
+     * @return the symmetry giving the canonical copy, the lowest such symmetry if there are several
+     */
+    public static int canonicalize(int first, int second) {
+        int best = 0;
+        int bestFirst = first;
+        int bestSecond = second;
+        for (int symmetry = 1; symmetry < COUNT; symmetry++) {
+            int[] table = BYTE_TABLES[symmetry];
+            int transformed = table[first & 0xff] | table[256 + ((first >>> 8) & 0xff)] | table[512 + (first >>> 16)];
+            if (transformed > bestFirst) { continue; }
+            int transformedSecond = table[second & 0xff] | table[256 + ((second >>> 8) & 0xff)] |
+                    table[512 + (second >>> 16)];
+            if (transformed < bestFirst || transformedSecond < bestSecond) {
+                best = symmetry;
+                bestFirst = transformed;
+                bestSecond = transformedSecond;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Find the symmetry which transforms the pieces on a board into their canonical copy. Only the pieces on the
+     * board are transformed, the rest of the position (pieces in hand, side to move) is unaffected by symmetry.
+     * @param board a board with two players
+     * @return the symmetry giving the canonical copy
+     */
+    public static int canonicalize(Board board) {
+        return canonicalize(board.getPieces(0), board.getPieces(1));
+    }
+
+    /**
+     * Transform a move into the canonical copy of a position. When other symmetries also leave the canonical
+     * copy unchanged, as for the empty board, the moves they map onto each other are equivalent, and the one with
+     * the smallest code is returned so that equivalent moves are always counted as the same move.
+     * @param first bitmask of the first player's pieces
+     * @param second bitmask of the second player's pieces
+     * @param symmetry the symmetry giving the canonical copy, as returned by canonicalize
+     * @param move the encoded move in the position's orientation
+     * @return the encoded move in the canonical copy's orientation
+     */
+    public static int canonicalizeMove(int first, int second, int symmetry, int move) {
+        int canonicalFirst = transform(first, symmetry);
+        int canonicalSecond = transform(second, symmetry);
+        int canonicalMove = transformMove(move, symmetry);
+        int best = canonicalMove;
+        for (int other = 1; other < COUNT; other++) {
+            if (transform(canonicalFirst, other) == canonicalFirst &&
+                    transform(canonicalSecond, other) == canonicalSecond) {
+                best = Math.min(best, transformMove(canonicalMove, other));
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Transform a move into the canonical copy of the pieces on a board, see canonicalizeMove(int, int, int, int)
+     * @param board a board with two players
+     * @param symmetry the symmetry giving the canonical copy, as returned by canonicalize
+     * @param move the encoded move in the board's orientation
+     * @return the encoded move in the canonical copy's orientation
+     */
+    public static int canonicalizeMove(Board board, int symmetry, int move) {
+        return canonicalizeMove(board.getPieces(0), board.getPieces(1), symmetry, move);
+    }
+}
@@ -0,0 +1,74 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Probes the solved endgame tables written by EndgameDatabaseGenerator. Every table found in the directory is
+ * memory mapped when the database is opened (see EndgameTable), so a probe is a symmetry reduction, an index
+ * calculation and a single read, and the database can be shared by any number of search threads.
+ */
+public class EndgameDatabase {
+    private final EndgameTable[][] tables =
+            new EndgameTable[EndgameDatabaseGenerator.MAX_PIECES + 1][EndgameDatabaseGenerator.MAX_PIECES + 1];
+
+    /**
+     * Open the tables in a directory, any subspaces without a table are treated as unknown
+     * @param directory the directory the tables were generated in
+     * @throws IOException if a table can't be read
+     */
+    public EndgameDatabase(File directory) throws IOException {
+        for (int w = EndgameDatabaseGenerator.MIN_PIECES; w <= EndgameDatabaseGenerator.MAX_PIECES; w++) {
+            for (int b = EndgameDatabaseGenerator.MIN_PIECES; b <= EndgameDatabaseGenerator.MAX_PIECES; b++) {
+                File file = EndgameDatabaseGenerator.getFile(directory, w, b);
+                if (file.exists()) {
+                    tables[w][b] = EndgameTable.open(file);
+                }
+            }
+        }
+    }
+
+    /**
+     * Check if the database has the table for a subspace
+     * @param toMoveCount the number of pieces the player to move has
+     * @param opponentCount the number of pieces the opponent has
+     * @return true if positions in the subspace can be probed
+     */
+    public boolean contains(int toMoveCount, int opponentCount) {
+        return isInRange(toMoveCount) && isInRange(opponentCount) && tables[toMoveCount][opponentCount] != null;
+    }
+
+    /**
+     * Get the value of a position where neither player has pieces left to place
+     * @param toMove bitmask of the points occupied by the player to move
+     * @param opponent bitmask of the points occupied by the opponent
+     * @return the EndgameValue of the position, or EndgameValue.UNKNOWN if it isn't in the database
+     */
+    public short probe(int toMove, int opponent) {
+        int toMoveCount = Integer.bitCount(toMove);
+        int opponentCount = Integer.bitCount(opponent);
+        if (!contains(toMoveCount, opponentCount)) { return EndgameValue.UNKNOWN; }
+        return tables[toMoveCount][opponentCount].get(toMove, opponent);
+    }
+
+    /**
+     * Get the value of the current position on a board for the player to move
+     * @param board the board to probe
+     * @return the EndgameValue of the position, or EndgameValue.UNKNOWN if it isn't an endgame position
+     *         in the database
+     */
+    public short probe(Board board) {
+        if (board.getPlayerCount() != 2 || board.isRemovalPending() || board.isGameOver()) {
+            return EndgameValue.UNKNOWN;
+        }
+        int side = board.getSideToMove();
+        if (board.getPiecesInHand(side) != 0 || board.getPiecesInHand(1 - side) != 0) {
+            return EndgameValue.UNKNOWN;
+        }
+        return probe(board.getPieces(side), board.getPieces(1 - side));
+    }
+
+    private static boolean isInRange(int count) {
+        return count >= EndgameDatabaseGenerator.MIN_PIECES && count <= EndgameDatabaseGenerator.MAX_PIECES;
+    }
+}
@@ -0,0 +1,514 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Offline generator of an endgame database for the MOVING and FLYING stages of the game, solved by retrograde
+ * analysis. Positions are split into subspaces by the number of pieces each player has on the board (see
+ * EndgameIndex), with the player to move always counted first. A move without a removal from subspace (w, b)
+ * leads to subspace (b, w), so those two are solved together, while a removal leads to (b - 1, w) which has
+ * fewer pieces and is already solved. Subspaces are solved in order of the total number of pieces, with the
+ * pairs sharing a total solved in parallel on a fork-join pool, and each is written to its own file as soon as
+ * it is solved. Only the pairs being solved are held in memory, the subspaces they capture into are memory
+ * mapped (see EndgameTable). A pair takes about ESTIMATED_BYTES_PER_POSITION bytes for each of its positions,
+ * and pairs are only solved together while their total stays within the memory limit, so the peak is the
+ * larger of the limit and the biggest single pair (about 12GB for 7 pieces against 8 and 8 against 7).
+ * Positions are stored once for each set of symmetric copies, see EndgameIndex.
+ *
+ * The database uses the usual rules for these stages: a player with three pieces may fly, a player with more
+ * pieces must slide along a line, and a player loses on their turn if they are blocked in or have fewer than
+ * three pieces. Positions not decided by the analysis are draws.
+ *
+ * Usage: EndgameDatabaseGenerator [output directory] [max pieces per player] [threads]
+ */
+public class EndgameDatabaseGenerator {
+    /**
+     * The fewest pieces a player can have on the board without having lost
+     */
+    public static final int MIN_PIECES = 3;
+
+    /**
+     * The most pieces a player can have on the board
+     */
+    public static final int MAX_PIECES = 9;
+
+    /**
+     * The memory needed to solve a pair for each of its positions: the value and the count of undecided
+     * successors, with room for the position to be queued
+     */
+    public static final int ESTIMATED_BYTES_PER_POSITION = 3 + 8;
+
+    private static final int PAGE_BITS = 24;
+    private static final int PAGE_SIZE = 1 << PAGE_BITS;
+
+    private final File directory;
+    private final int maxPieces;
+    private final ForkJoinPool pool;
+    private long memoryLimit = Runtime.getRuntime().maxMemory() / 2;
+    private ProgressListener progressListener;
+
+    /**
+     * Receives the progress of a generator
+     */
+    public interface ProgressListener {
+        /**
+         * Called on the solving thread as each pair of subspaces is written
+         * @param w the number of pieces the player to move has in the first subspace of the pair
+         * @param b the number of pieces the opponent has in the first subspace of the pair
+         * @param positions the number of positions in the pair
+         * @param nanos the time taken to solve the pair, in nanoseconds
+         */
+        void pairSolved(int w, int b, long positions, long nanos);
+    }
+
+    /**
+     * Create a generator
+     * @param directory the directory to write the subspace files to
+     * @param maxPieces the most pieces either player may have, at most MAX_PIECES
+     * @param threads the number of subspace pairs to solve at the same time
+     */
+    public EndgameDatabaseGenerator(File directory, int maxPieces, int threads) {
+        if (maxPieces < MIN_PIECES || maxPieces > MAX_PIECES) {
+            throw new IllegalArgumentException("Pieces per player must be between " + MIN_PIECES + " and " + MAX_PIECES);
+        }
+        this.directory = directory;
+        this.maxPieces = maxPieces;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Set the memory the pairs solved at the same time may take between them, see ESTIMATED_BYTES_PER_POSITION.
+     * A pair bigger than the limit is still solved, on its own.
+     * @param memoryLimit the limit in bytes, half of the maximum heap size by default
+     */
+    public void setMemoryLimit(long memoryLimit) {
+        this.memoryLimit = memoryLimit;
+    }
+
+    /**
+     * Report the progress of the generator
+     * @param progressListener the listener, or null to not report progress
+     */
+    public void setProgressListener(ProgressListener progressListener) {
+        this.progressListener = progressListener;
+    }
+
+    public static void main(String[] args) throws IOException {
+        File directory = new File(args.length > 0 ? args[0] : "endgame");
+        int maxPieces = args.length > 1 ? Integer.parseInt(args[1]) : MAX_PIECES;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        EndgameDatabaseGenerator generator = new EndgameDatabaseGenerator(directory, maxPieces, threads);
+        generator.setProgressListener((w, b, positions, nanos) ->
+                System.out.printf("Solved %d-%d (%d positions) in %.1fs%n", w, b, positions, nanos / 1e9));
+        generator.generate();
+    }
+
+    /**
+     * Solve every subspace, skipping those which already have a file in the output directory
+     * @throws IOException if the directory can't be created
+     */
+    public void generate() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Can't create directory " + directory);
+        }
+        for (int total = 2 * MIN_PIECES; total <= 2 * maxPieces; total++) {
+            // Solve the pairs of this total together, in batches which fit in the memory limit
+            List<RecursiveAction> batch = new ArrayList<>();
+            long batchBytes = 0;
+            for (int w = Math.max(MIN_PIECES, total - maxPieces); w <= total / 2; w++) {
+                int b = total - w;
+                if (getFile(w, b).exists() && getFile(b, w).exists()) { continue; }
+                long bytes = getPairSize(w, b) * ESTIMATED_BYTES_PER_POSITION;
+                if (!batch.isEmpty() && batchBytes + bytes > memoryLimit) {
+                    solveAll(batch);
+                    batch.clear();
+                    batchBytes = 0;
+                }
+                batch.add(new SolvePairTask(w, b));
+                batchBytes += bytes;
+            }
+            solveAll(batch);
+        }
+    }
+
+    /**
+     * Solve pairs in parallel on the pool
+     */
+    private void solveAll(List<RecursiveAction> tasks) {
+        if (tasks.isEmpty()) { return; }
+        pool.invoke(new RecursiveAction() {
+            @Override
+            protected void compute() {
+                invokeAll(tasks);
+            }
+        });
+    }
+
+    /**
+     * Get the number of positions in the pair of subspaces (w, b) and (b, w)
+     */
+    static long getPairSize(int w, int b) {
+        long size = new EndgameIndex(w, b).getSize();
+        return w == b ? size : size + new EndgameIndex(b, w).getSize();
+    }
+
+    /**
+     * Get the file a subspace is stored in
+     * @param toMoveCount the number of pieces the player to move has
+     * @param opponentCount the number of pieces the opponent has
+     * @return the file
+     */
+    public File getFile(int toMoveCount, int opponentCount) {
+        return getFile(directory, toMoveCount, opponentCount);
+    }
+
+    /**
+     * Get the file a subspace is stored in
+     * @param directory the directory the database is stored in
+     * @param toMoveCount the number of pieces the player to move has
+     * @param opponentCount the number of pieces the opponent has
+     * @return the file
+     */
+    public static File getFile(File directory, int toMoveCount, int opponentCount) {
+        return new File(directory, "w" + toMoveCount + "_b" + opponentCount + ".nmmdb");
+    }
+
+    /**
+     * Solve subspaces (w, b) and (b, w) together and write them to disk
+     */
+    void solvePair(int w, int b) {
+        long start = System.nanoTime();
+        Pair pair = new Pair(w, b);
+        pair.initialise();
+        pair.propagate();
+        pair.write();
+        if (progressListener != null) {
+            progressListener.pairSolved(w, b, pair.size, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Task solving one pair of subspaces
+     */
+    private class SolvePairTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int w;
+        private final int b;
+
+        SolvePairTask(int w, int b) {
+            this.w = w;
+            this.b = b;
+        }
+
+        @Override
+        protected void compute() {
+            solvePair(w, b);
+        }
+    }
+
+    /**
+     * The state of a pair of subspaces being solved. Positions in (w, b) are numbered first, followed by those in
+     * (b, w) unless the counts are equal, in which case the pair is a single subspace.
+     */
+    private class Pair {
+        private final EndgameIndex[] indexes;
+        private final long[] offsets;
+        private final EndgameTable[] exits; // subspace reached by a removal from each half, or null if it's a win
+        private final long size;
+        private final short[][] values;
+        private final byte[][] remaining; // successors within the pair not yet known to be wins for the opponent
+        private final List<LongQueue> levels = new ArrayList<>();
+        private final long[] neighbours = new long[Board.MAX_MOVES]; // distinct positions one move away
+
+        Pair(int w, int b) {
+            indexes = (w == b) ? new EndgameIndex[] { new EndgameIndex(w, b) } :
+                    new EndgameIndex[] { new EndgameIndex(w, b), new EndgameIndex(b, w) };
+            offsets = new long[indexes.length];
+            exits = new EndgameTable[indexes.length];
+            long total = 0;
+            for (int i = 0; i < indexes.length; i++) {
+                offsets[i] = total;
+                total += indexes[i].getSize();
+                int capturedCount = indexes[i].getOpponentCount() - 1;
+                if (capturedCount >= MIN_PIECES) {
+                    try {
+                        exits[i] = EndgameTable.open(getFile(capturedCount, indexes[i].getToMoveCount()));
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                }
+            }
+            size = total;
+            int pages = (int) ((size + PAGE_SIZE - 1) >>> PAGE_BITS);
+            values = new short[pages][];
+            remaining = new byte[pages][];
+            for (int page = 0; page < pages; page++) {
+                int length = (int) Math.min(PAGE_SIZE, size - ((long) page << PAGE_BITS));
+                values[page] = new short[length];
+                remaining[page] = new byte[length];
+            }
+        }
+
+        /**
+         * Count the successors of every position and queue those decided by the moves leaving the pair
+         */
+        void initialise() {
+            for (int half = 0; half < indexes.length; half++) {
+                EndgameIndex index = indexes[half];
+                for (long i = 0; i < index.getSize(); i++) {
+                    if (!index.isCanonical(i)) { continue; }
+                    long position = index.positionAt(i);
+                    long id = offsets[half] + i;
+                    int toMove = EndgameIndex.getToMove(position);
+                    int opponent = EndgameIndex.getOpponent(position);
+                    int successors = countSuccessors(half, toMove, opponent);
+                    setRemaining(id, successors);
+                    if (successors == 0 && !hasMoves(toMove, opponent)) {
+                        enqueue(id, 0, false); // blocked in
+                        continue;
+                    }
+                    Exits result = evaluateExits(half, toMove, opponent);
+                    if (result.bestWin > 0) {
+                        enqueue(id, result.bestWin, true);
+                    } else if (successors == 0 && !result.draw) {
+                        enqueue(id, result.longestLoss, false);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Decide positions in order of distance, working backwards from each decided position to its predecessors
+         */
+        void propagate() {
+            for (int level = 0; level < levels.size(); level++) {
+                LongQueue queue = levels.get(level);
+                for (int q = 0; q < queue.size; q++) {
+                    long entry = queue.items[q];
+                    long id = entry >>> 1;
+                    if (getValue(id) != EndgameValue.DRAW) { continue; }
+                    boolean win = (entry & 1) != 0;
+                    setValue(id, win ? EndgameValue.win(level) : EndgameValue.loss(level));
+                    visitPredecessors(id, level, win);
+                }
+                levels.set(level, null);
+            }
+        }
+
+        /**
+         * Update the predecessors of a newly decided position
+         */
+        private void visitPredecessors(long id, int level, boolean win) {
+            int half = (indexes.length > 1 && id >= offsets[1]) ? 1 : 0;
+            long position = indexes[half].positionAt(id - offsets[half]);
+            int toMove = EndgameIndex.getToMove(position);
+            int moved = EndgameIndex.getOpponent(position); // the player who made the last move
+            int predecessorHalf = indexes.length - 1 - half;
+            EndgameIndex predecessorIndex = indexes[predecessorHalf];
+            int empty = ~(toMove | moved) & Board.ALL_POINTS;
+            boolean flying = Integer.bitCount(moved) == MIN_PIECES;
+
+            // Symmetric predecessors share an index, so each is only counted once (matching countSuccessors)
+            int count = 0;
+            for (int pieces = moved; pieces != 0; pieces &= pieces - 1) {
+                int to = Integer.numberOfTrailingZeros(pieces);
+                if (formsMill(moved, to)) { continue; } // that move would have removed a piece
+                int froms = flying ? empty : (Board.ADJACENT[to] & empty);
+                for (; froms != 0; froms &= froms - 1) {
+                    int previous = moved ^ (1 << to) ^ (froms & -froms);
+                    count = addDistinct(count, offsets[predecessorHalf] + predecessorIndex.indexOf(previous, toMove));
+                }
+            }
+
+            for (int i = 0; i < count; i++) {
+                long predecessor = neighbours[i];
+                if (getValue(predecessor) != EndgameValue.DRAW) { continue; }
+                if (!win) {
+                    // The predecessor can move into a lost position for the opponent
+                    enqueue(predecessor, level + 1, true);
+                } else if (decrementRemaining(predecessor) == 0) {
+                    // Every move within the pair loses, so it's lost unless a removal saves it
+                    long previous = predecessorIndex.positionAt(predecessor - offsets[predecessorHalf]);
+                    Exits result = evaluateExits(predecessorHalf,
+                            EndgameIndex.getToMove(previous), EndgameIndex.getOpponent(previous));
+                    if (result.bestWin == 0 && !result.draw) {
+                        enqueue(predecessor, Math.max(level, result.longestLoss - 1) + 1, false);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Add a position to the neighbours buffer unless it is already there
+         * @return the new number of neighbours
+         */
+        private int addDistinct(int count, long id) {
+            for (int i = 0; i < count; i++) {
+                if (neighbours[i] == id) { return count; }
+            }
+            neighbours[count] = id;
+            return count + 1;
+        }
+
+        /**
+         * Count the distinct positions reached by the moves from a position which stay within the pair (those
+         * which don't remove a piece)
+         */
+        private int countSuccessors(int half, int toMove, int opponent) {
+            int successorHalf = indexes.length - 1 - half;
+            int empty = ~(toMove | opponent) & Board.ALL_POINTS;
+            boolean flying = Integer.bitCount(toMove) == MIN_PIECES;
+            int count = 0;
+            for (int pieces = toMove; pieces != 0; pieces &= pieces - 1) {
+                int from = Integer.numberOfTrailingZeros(pieces);
+                for (int tos = flying ? empty : (Board.ADJACENT[from] & empty); tos != 0; tos &= tos - 1) {
+                    int to = Integer.numberOfTrailingZeros(tos);
+                    int moved = toMove ^ (1 << from) ^ (1 << to);
+                    if (!formsMill(moved, to)) {
+                        count = addDistinct(count, indexes[successorHalf].indexOf(opponent, moved));
+                    }
+                }
+            }
+            return count;
+        }
+
+        /**
+         * Look up the values of the positions reached by moves which remove one of the opponent's pieces
+         */
+        private Exits evaluateExits(int half, int toMove, int opponent) {
+            Exits result = new Exits();
+            int empty = ~(toMove | opponent) & Board.ALL_POINTS;
+            boolean flying = Integer.bitCount(toMove) == MIN_PIECES;
+            int removable = opponent & ~piecesInMills(opponent);
+            if (removable == 0) { removable = opponent; }
+            for (int pieces = toMove; pieces != 0; pieces &= pieces - 1) {
+                int from = Integer.numberOfTrailingZeros(pieces);
+                for (int tos = flying ? empty : (Board.ADJACENT[from] & empty); tos != 0; tos &= tos - 1) {
+                    int to = Integer.numberOfTrailingZeros(tos);
+                    int moved = toMove ^ (1 << from) ^ (1 << to);
+                    if (!formsMill(moved, to)) { continue; }
+                    if (exits[half] == null) {
+                        result.bestWin = 1; // the opponent is left with two pieces
+                        return result;
+                    }
+                    for (int r = removable; r != 0; r &= r - 1) {
+                        short value = exits[half].get(opponent ^ (r & -r), moved);
+                        if (EndgameValue.isLoss(value)) {
+                            int win = EndgameValue.getDistance(value) + 1;
+                            if (result.bestWin == 0 || win < result.bestWin) { result.bestWin = win; }
+                        } else if (EndgameValue.isDraw(value)) {
+                            result.draw = true;
+                        } else {
+                            result.longestLoss = Math.max(result.longestLoss, EndgameValue.getDistance(value) + 1);
+                        }
+                    }
+                }
+            }
+            return result;
+        }
+
+        private boolean hasMoves(int toMove, int opponent) {
+            if (Integer.bitCount(toMove) == MIN_PIECES) { return true; }
+            int empty = ~(toMove | opponent) & Board.ALL_POINTS;
+            for (int pieces = toMove; pieces != 0; pieces &= pieces - 1) {
+                if ((Board.ADJACENT[Integer.numberOfTrailingZeros(pieces)] & empty) != 0) { return true; }
+            }
+            return false;
+        }
+
+        private void enqueue(long id, int level, boolean win) {
+            while (levels.size() <= level) { levels.add(new LongQueue()); }
+            levels.get(level).add((id << 1) | (win ? 1 : 0));
+        }
+
+        private short getValue(long id) {
+            return values[(int) (id >>> PAGE_BITS)][(int) (id & (PAGE_SIZE - 1))];
+        }
+
+        private void setValue(long id, short value) {
+            values[(int) (id >>> PAGE_BITS)][(int) (id & (PAGE_SIZE - 1))] = value;
+        }
+
+        private void setRemaining(long id, int count) {
+            remaining[(int) (id >>> PAGE_BITS)][(int) (id & (PAGE_SIZE - 1))] = (byte) count;
+        }
+
+        private int decrementRemaining(long id) {
+            return --remaining[(int) (id >>> PAGE_BITS)][(int) (id & (PAGE_SIZE - 1))];
+        }
+
+        /**
+         * Write each subspace of the pair to its file
+         */
+        void write() {
+            for (int half = 0; half < indexes.length; half++) {
+                EndgameIndex index = indexes[half];
+                File file = getFile(index.getToMoveCount(), index.getOpponentCount());
+                File temp = new File(file.getPath() + ".tmp");
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp), 1 << 16))) {
+                    EndgameTable.writeHeader(out, index);
+                    for (long i = 0; i < index.getSize(); i++) {
+                        out.writeShort(getValue(offsets[half] + i));
+                    }
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+                if (!temp.renameTo(file)) {
+                    throw new UncheckedIOException(new IOException("Can't rename " + temp + " to " + file));
+                }
+            }
+        }
+    }
+
+    /**
+     * The outcome of the moves from a position which remove an opponent's piece
+     */
+    private static class Exits {
+        int bestWin; // shortest win, or 0 if none of the moves wins
+        boolean draw; // if any of the moves draws
+        int longestLoss; // longest loss among the moves, in plies from the position
+    }
+
+    /**
+     * A growable list of longs
+     */
+    private static class LongQueue {
+        long[] items = new long[16];
+        int size;
+
+        void add(long item) {
+            if (size == items.length) { items = Arrays.copyOf(items, size * 2); }
+            items[size++] = item;
+        }
+    }
+
+    /**
+     * Check if a piece at a point is part of a mill
+     */
+    static boolean formsMill(int pieces, int point) {
+        int[] mills = Board.POINT_MILLS[point];
+        return (pieces & mills[0]) == mills[0] || (pieces & mills[1]) == mills[1];
+    }
+
+    /**
+     * Get the pieces which are part of a mill
+     */
+    static int piecesInMills(int pieces) {
+        int mask = 0;
+        for (int mill : Board.MILLS) {
+            if ((pieces & mill) == mill) { mask |= mill; }
+        }
+        return mask;
+    }
+}
@@ -0,0 +1,214 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.Arrays;
+
+/**
+ * Numbers the positions of one endgame subspace, where the player to move has a fixed number of pieces on
+ * the board, the opponent has a fixed number of pieces, and neither has any pieces left to place.
+ * Positions are first reduced by the board's symmetries (see BoardSymmetry) so only one of each set of
+ * symmetric positions is stored. The player to move's pieces are numbered among the sets of points which are
+ * the smallest of their symmetric copies, and the opponent's pieces are ranked among the combinations of the
+ * points left over, so every position maps directly to an index between 0 and getSize() - 1 and symmetric
+ * positions map to the same index.
+ */
+public class EndgameIndex {
+    /**
+     * Binomial coefficients C(n, k) for n, k up to the number of points
+     */
+    static final long[][] BINOMIAL = new long[Board.NUM_POINTS + 1][Board.NUM_POINTS + 1];
+
+    static {
+        for (int n = 0; n <= Board.NUM_POINTS; n++) {
+            BINOMIAL[n][0] = 1;
+            for (int k = 1; k <= n; k++) {
+                BINOMIAL[n][k] = BINOMIAL[n - 1][k - 1] + BINOMIAL[n - 1][k];
+            }
+        }
+    }
+
+    /**
+     * The canonical sets of each size, built the first time a subspace needs them
+     */
+    private static final CanonicalSets[] CANONICAL_SETS = new CanonicalSets[Board.NUM_POINTS + 1];
+
+    private final int toMoveCount;
+    private final int opponentCount;
+    private final CanonicalSets canonicalSets;
+    private final long opponentCombinations;
+    private final long size;
+
+    /**
+     * Create the index for a subspace
+     * @param toMoveCount the number of pieces the player to move has on the board
+     * @param opponentCount the number of pieces the opponent has on the board
+     */
+    public EndgameIndex(int toMoveCount, int opponentCount) {
+        if (toMoveCount < 0 || opponentCount < 0 || toMoveCount + opponentCount > Board.NUM_POINTS) {
+            throw new IllegalArgumentException("Invalid piece counts");
+        }
+        this.toMoveCount = toMoveCount;
+        this.opponentCount = opponentCount;
+        this.canonicalSets = getCanonicalSets(toMoveCount);
+        this.opponentCombinations = BINOMIAL[Board.NUM_POINTS - toMoveCount][opponentCount];
+        this.size = canonicalSets.masks.length * opponentCombinations;
+    }
+
+    public int getToMoveCount() {
+        return toMoveCount;
+    }
+
+    public int getOpponentCount() {
+        return opponentCount;
+    }
+
+    /**
+     * Get the number of positions in the subspace
+     * @return the number of positions
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * Get the index of a position, which is shared by all of its symmetric copies
+     * @param toMove bitmask of the points occupied by the player to move
+     * @param opponent bitmask of the points occupied by the opponent
+     * @return the index of the position
+     */
+    public long indexOf(int toMove, int opponent) {
+        int symmetry = BoardSymmetry.canonicalize(toMove, opponent);
+        int bestToMove = BoardSymmetry.transform(toMove, symmetry);
+        int bestOpponent = BoardSymmetry.transform(opponent, symmetry);
+        int free = ~bestToMove & Board.ALL_POINTS;
+        long set = canonicalSets.classOfRank[(int) rank(bestToMove)];
+        return set * opponentCombinations + rank(compress(bestOpponent, free));
+    }
+
+    /**
+     * Get the position at an index
+     * @param index the index of the position
+     * @return the position packed into a long, see getToMove and getOpponent
+     */
+    public long positionAt(long index) {
+        int toMove = canonicalSets.masks[(int) (index / opponentCombinations)];
+        int free = ~toMove & Board.ALL_POINTS;
+        int opponent = expand(unrank(index % opponentCombinations, opponentCount), free);
+        return pack(toMove, opponent);
+    }
+
+    /**
+     * Check if an index is the one its position maps to. When the player to move's pieces are symmetric some
+     * indexes hold a symmetric copy of a position stored at a lower index, and these are never used.
+     * @param index the index to check
+     * @return true if the index is used
+     */
+    public boolean isCanonical(long index) {
+        long position = positionAt(index);
+        return indexOf(getToMove(position), getOpponent(position)) == index;
+    }
+
+    /**
+     * Pack a position into a long
+     */
+    public static long pack(int toMove, int opponent) {
+        return (toMove & 0xffffffffL) | ((long) opponent << 32);
+    }
+
+    /**
+     * Get the points occupied by the player to move from a packed position
+     */
+    public static int getToMove(long position) {
+        return (int) position;
+    }
+
+    /**
+     * Get the points occupied by the opponent from a packed position
+     */
+    public static int getOpponent(long position) {
+        return (int) (position >>> 32);
+    }
+
+    /**
+     * Rank a set of points among all sets of the same size, in colexicographic order
+     */
+    static long rank(int mask) {
+        long rank = 0;
+        int i = 1;
+        for (int bits = mask; bits != 0; bits &= bits - 1) {
+            rank += BINOMIAL[Integer.numberOfTrailingZeros(bits)][i++];
+        }
+        return rank;
+    }
+
+    /**
+     * Get the set of points of the given size with the given rank, the inverse of rank
+     */
+    static int unrank(long rank, int count) {
+        int mask = 0;
+        int point = Board.NUM_POINTS - 1;
+        for (int i = count; i > 0; i--) {
+            while (BINOMIAL[point][i] > rank) { point--; }
+            rank -= BINOMIAL[point][i];
+            mask |= 1 << point;
+            point--;
+        }
+        return mask;
+    }
+
+    /**
+     * Renumber the points of a set so that only the points in free are counted
+     */
+    static int compress(int mask, int free) {
+        int compressed = 0;
+        int bit = 1;
+        for (int bits = free; bits != 0; bits &= bits - 1) {
+            if ((mask & bits & -bits) != 0) { compressed |= bit; }
+            bit <<= 1;
+        }
+        return compressed;
+    }
+
+    /**
+     * Map a compressed set back onto the points in free, the inverse of compress
+     */
+    static int expand(int compressed, int free) {
+        int mask = 0;
+        for (int bits = free; compressed != 0; bits &= bits - 1, compressed >>>= 1) {
+            if ((compressed & 1) != 0) { mask |= bits & -bits; }
+        }
+        return mask;
+    }
+
+    private static synchronized CanonicalSets getCanonicalSets(int count) {
+        if (CANONICAL_SETS[count] == null) {
+            CANONICAL_SETS[count] = new CanonicalSets(count);
+        }
+        return CANONICAL_SETS[count];
+    }
+
+    /**
+     * Numbering of the sets of points of one size which are smaller than all of their symmetric copies.
+     * Sets are compared by bitmask, which orders them the same way as their rank.
+     */
+    private static class CanonicalSets {
+        private final int[] classOfRank; // number of each canonical set by rank, or -1 if not canonical
+        private final int[] masks; // each canonical set by number
+
+        CanonicalSets(int count) {
+            int combinations = (int) BINOMIAL[Board.NUM_POINTS][count];
+            classOfRank = new int[combinations];
+            int[] canonical = new int[combinations];
+            int classes = 0;
+            for (int rank = 0; rank < combinations; rank++) {
+                int mask = unrank(rank, count);
+                boolean smallest = true;
+                for (int symmetry = 1; symmetry < BoardSymmetry.COUNT && smallest; symmetry++) {
+                    smallest = BoardSymmetry.transform(mask, symmetry) >= mask;
+                }
+                classOfRank[rank] = smallest ? classes : -1;
+                if (smallest) { canonical[classes++] = mask; }
+            }
+            masks = Arrays.copyOf(canonical, classes);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * One solved endgame subspace, read directly from its file through a read-only memory mapping.
+ * The values are never copied onto the heap: the operating system pages them in as they are probed and the
+ * page cache is shared by every process mapping the same file. The table is immutable once opened, so it can
+ * be probed from any number of threads at the same time.
+ *
+ * The file holds a header (magic number, version, the two piece counts and the number of positions) followed
+ * by the EndgameValue of every position in EndgameIndex order, as big-endian shorts.
+ */
+public class EndgameTable {
+    static final int MAGIC = 0x4e4d4d44; // "NMMD"
+    static final int VERSION = 2;
+    static final int HEADER_SIZE = 24;
+
+    // Files are mapped in chunks as a single mapping is limited to 2GB
+    private static final int CHUNK_BITS = 30;
+    private static final long CHUNK_MASK = (1L << CHUNK_BITS) - 1;
+
+    private final EndgameIndex index;
+    private final ByteBuffer[] chunks;
+
+    private EndgameTable(EndgameIndex index, ByteBuffer[] chunks) {
+        this.index = index;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Map a subspace file
+     * @param file the file written by EndgameDatabaseGenerator
+     * @return the table
+     * @throws IOException if the file can't be read or isn't a complete endgame table
+     */
+    public static EndgameTable open(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            while (header.hasRemaining() && channel.read(header) >= 0) { }
+            header.flip();
+            if (header.remaining() < HEADER_SIZE || header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not an endgame table: " + file);
+            }
+            int toMoveCount = header.getInt();
+            int opponentCount = header.getInt();
+            if (!isValidCount(toMoveCount) || !isValidCount(opponentCount)) {
+                throw new IOException("Invalid piece counts " + toMoveCount + " and " + opponentCount + ": " + file);
+            }
+            EndgameIndex index = new EndgameIndex(toMoveCount, opponentCount);
+            long size = header.getLong();
+            long bytes = size * 2;
+            if (size != index.getSize() || channel.size() != HEADER_SIZE + bytes) {
+                throw new IOException("Incomplete endgame table: " + file);
+            }
+
+            ByteBuffer[] chunks = new ByteBuffer[(int) ((bytes + CHUNK_MASK) >>> CHUNK_BITS)];
+            for (int i = 0; i < chunks.length; i++) {
+                long start = (long) i << CHUNK_BITS;
+                chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_SIZE + start,
+                        Math.min(1L << CHUNK_BITS, bytes - start));
+            }
+            return new EndgameTable(index, chunks);
+        }
+    }
+
+    private static boolean isValidCount(int count) {
+        return count >= EndgameDatabaseGenerator.MIN_PIECES && count <= EndgameDatabaseGenerator.MAX_PIECES;
+    }
+
+    /**
+     * Write the header of a table, to be followed by getSize() values
+     */
+    static void writeHeader(DataOutputStream out, EndgameIndex index) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(index.getToMoveCount());
+        out.writeInt(index.getOpponentCount());
+        out.writeLong(index.getSize());
+    }
+
+    public EndgameIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Get the value of a position
+     * @param toMove bitmask of the points occupied by the player to move
+     * @param opponent bitmask of the points occupied by the opponent
+     * @return the EndgameValue of the position
+     */
+    public short get(int toMove, int opponent) {
+        return get(index.indexOf(toMove, opponent));
+    }
+
+    /**
+     * Get the value stored at an index
+     * @param position the index of the position
+     * @return the EndgameValue of the position
+     */
+    public short get(long position) {
+        long offset = position * 2;
+        // Absolute reads don't touch the buffer's position, so are safe from multiple threads
+        return chunks[(int) (offset >>> CHUNK_BITS)].getShort((int) (offset & CHUNK_MASK));
+    }
+}
@@ -0,0 +1,68 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * Encodes the game-theoretic value of an endgame position in a short, from the point of view of the player to
+ * move: 0 is a draw, a positive number is a win in that many plies and a negative number -(d + 1) is a loss
+ * in d plies.
+ */
+public final class EndgameValue {
+    public static final short DRAW = 0;
+
+    /**
+     * Returned by probes for positions which aren't in the database
+     */
+    public static final short UNKNOWN = Short.MIN_VALUE;
+
+    private EndgameValue() {
+    }
+
+    /**
+     * Encode a win
+     * @param plies the number of plies to the win, at least 1
+     */
+    public static short win(int plies) {
+        return (short) plies;
+    }
+
+    /**
+     * Encode a loss
+     * @param plies the number of plies to the loss, 0 if the player to move has already lost
+     */
+    public static short loss(int plies) {
+        return (short) -(plies + 1);
+    }
+
+    public static boolean isWin(short value) {
+        return value > 0;
+    }
+
+    public static boolean isLoss(short value) {
+        return value < 0 && value != UNKNOWN;
+    }
+
+    public static boolean isKnown(short value) {
+        return value != UNKNOWN;
+    }
+
+    public static boolean isDraw(short value) {
+        return value == DRAW;
+    }
+
+    /**
+     * Get the number of plies until the game is decided
+     * @param value a win or loss value
+     * @return the distance in plies
+     */
+    public static int getDistance(short value) {
+        return value > 0 ? value : -value - 1;
+    }
+
+    /**
+     * Describe a value, such as "win in 5"
+     */
+    public static String toString(short value) {
+        if (!isKnown(value)) { return "unknown"; }
+        if (isDraw(value)) { return "draw"; }
+        return (isWin(value) ? "win in " : "loss in ") + getDistance(value);
+    }
+}
@@ -0,0 +1,356 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Offline tuner for the weights of an Evaluator, fitting them to the results of recorded games ("Texel"
+ * tuning). Every position of every game is labelled with the game's result, and the evaluation of the position
+ * is mapped to an expected result with a logistic curve. The tuner looks for the weights which minimise the
+ * mean squared difference between expected and actual results, by local search: each weight in turn is moved up
+ * or down by a step while that lowers the error, with the step halved whenever no weight can be improved.
+ *
+ * Positions are held in a Dataset of flat primitive arrays so that tens of millions of them fit in memory, and
+ * the error is summed over ranges of positions in parallel on a fork-join pool. Positions with a removal
+ * pending are skipped, as their evaluation doesn't account for the piece about to be lost.
+ *
+ * Usage: EvaluationTuner [weights file] [threads] [plies to skip] [game record file...]
+ * where the weights file is read as the starting point if it exists and is written after every improvement.
+ */
+public class EvaluationTuner {
+    /**
+     * The number of positions below which the error of a range is summed without splitting it further
+     */
+    static final int SPLIT_THRESHOLD = 1 << 16;
+
+    private static final double LN10_OVER_400 = Math.log(10) / 400;
+
+    private final Dataset dataset;
+    private final ForkJoinPool pool;
+    private double scale = 1;
+
+    /**
+     * Labelled positions stored as the features of each position (see Evaluator.getFeatures), counted for the
+     * first player, its phase and the result of its game, in growable primitive arrays
+     */
+    public static class Dataset {
+        private byte[] features = new byte[1024 * Evaluator.FEATURES];
+        private byte[] phases = new byte[1024];
+        private byte[] results = new byte[1024]; // points scored by the first player times two
+        private int size;
+        private final int[] buffer = new int[Evaluator.FEATURES];
+        private final Board board = new Board(new Player[] {
+                new HumanPlayer(null, "PLAYER 1"),
+                new HumanPlayer(null, "PLAYER 2")
+        });
+        private final Position start = board.snapshot();
+
+        public int size() {
+            return size;
+        }
+
+        /**
+         * Add a position
+         * @param board the position, which must be a two player game
+         * @param winner the index of the player who won the position's game, or GameResult.DRAW
+         */
+        public void add(Board board, int winner) {
+            Evaluator.getFeatures(board, 0, buffer);
+            add(buffer, Evaluator.getPhase(board), winner == GameResult.DRAW ? 1 : winner == 0 ? 2 : 0);
+        }
+
+        /**
+         * Add a position by its features
+         * @param values the value of each feature for the first player, indexed by feature ordinal
+         * @param phase the phase of the game the position is in
+         * @param points the points scored by the first player times two: 0 for a loss, 1 for a draw, 2 for a win
+         */
+        void add(int[] values, int phase, int points) {
+            if (size == phases.length) {
+                int capacity = 2 * size;
+                features = Arrays.copyOf(features, capacity * Evaluator.FEATURES);
+                phases = Arrays.copyOf(phases, capacity);
+                results = Arrays.copyOf(results, capacity);
+            }
+            int base = size * Evaluator.FEATURES;
+            for (int f = 0; f < Evaluator.FEATURES; f++) {
+                features[base + f] = (byte) values[f];
+            }
+            phases[size] = (byte) phase;
+            results[size] = (byte) points;
+            size++;
+        }
+
+        /**
+         * Add every position of a game, from the start of the game, apart from those with a removal pending
+         * @param moves the moves of the game, encoded as by Move.encode with removals as separate moves
+         * @param count the number of moves
+         * @param winner the index of the winning player, or GameResult.DRAW
+         * @param skipPlies the number of plies at the start of the game whose positions aren't added
+         * @return the number of positions added
+         */
+        public int addGame(int[] moves, int count, int winner, int skipPlies) {
+            board.restore(start);
+            int added = 0;
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moves[i]);
+                if (i + 1 >= skipPlies && !board.isRemovalPending()) {
+                    add(board, winner);
+                    added++;
+                }
+            }
+            return added;
+        }
+
+        /**
+         * Add every game in a game record file
+         * @param file the file written by GameRecordWriter
+         * @param skipPlies the number of plies at the start of each game whose positions aren't added
+         * @return the number of games read
+         * @throws IOException if the file can't be read or isn't valid
+         */
+        public int addGames(File file, int skipPlies) throws IOException {
+            int games = 0;
+            try (GameRecordReader reader = new GameRecordReader(new FileInputStream(file))) {
+                while (reader.next()) {
+                    addGame(reader.getMoves(), reader.getMoveCount(), reader.getWinner(), skipPlies);
+                    games++;
+                }
+            }
+            return games;
+        }
+
+        /**
+         * Evaluate a position with the given weights
+         */
+        int evaluate(int index, int[] weights) {
+            int base = index * Evaluator.FEATURES;
+            int weightBase = phases[index] * Evaluator.FEATURES;
+            int score = 0;
+            for (int f = 0; f < Evaluator.FEATURES; f++) {
+                score += weights[weightBase + f] * features[base + f];
+            }
+            return score;
+        }
+
+        /**
+         * Get the result of a position's game for the first player
+         * @return 0 for a loss, 0.5 for a draw or 1 for a win
+         */
+        double getResult(int index) {
+            return results[index] * 0.5;
+        }
+
+        /**
+         * Sum the squared errors of a range of positions
+         */
+        double sumErrors(int from, int to, int[] weights, double scale) {
+            double sum = 0;
+            for (int i = from; i < to; i++) {
+                double error = getResult(i) - expectedResult(evaluate(i, weights), scale);
+                sum += error * error;
+            }
+            return sum;
+        }
+    }
+
+    /**
+     * Create a tuner
+     * @param dataset the positions to fit the weights to
+     * @param threads the number of threads to compute the error with
+     */
+    public EvaluationTuner(Dataset dataset, int threads) {
+        this.dataset = dataset;
+        this.pool = new ForkJoinPool(threads);
+    }
+
+    /**
+     * Map an evaluation to an expected result
+     * @param score the evaluation for the first player
+     * @param scale how steeply the expected result changes with the evaluation
+     * @return the expected points for the first player, between 0 and 1
+     */
+    static double expectedResult(int score, double scale) {
+        return 1 / (1 + Math.exp(-scale * score * LN10_OVER_400));
+    }
+
+    public double getScale() {
+        return scale;
+    }
+
+    /**
+     * Compute the mean squared error of the weights over the dataset, in parallel
+     * @param weights the weights, indexed as by Evaluator.getWeights
+     * @return the error
+     */
+    public double computeError(int[] weights) {
+        return computeError(weights, scale);
+    }
+
+    private double computeError(int[] weights, double scale) {
+        if (dataset.size() == 0) { return 0; }
+        return pool.invoke(new ErrorTask(weights, scale, 0, dataset.size())) / dataset.size();
+    }
+
+    /**
+     * Sums the squared errors of a range of positions, splitting it in half until it is small enough
+     */
+    private class ErrorTask extends RecursiveTask<Double> {
+        private static final long serialVersionUID = 1L;
+
+        private final int[] weights;
+        private final double scale;
+        private final int from;
+        private final int to;
+
+        ErrorTask(int[] weights, double scale, int from, int to) {
+            this.weights = weights;
+            this.scale = scale;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Double compute() {
+            if (to - from <= SPLIT_THRESHOLD) {
+                return dataset.sumErrors(from, to, weights, scale);
+            }
+            int middle = (from + to) >>> 1;
+            ErrorTask left = new ErrorTask(weights, scale, from, middle);
+            left.fork();
+            double right = new ErrorTask(weights, scale, middle, to).compute();
+            return left.join() + right;
+        }
+    }
+
+    /**
+     * Find the scale of the logistic curve which best fits the results with fixed weights, by golden section
+     * search. The scale is then kept while the weights are tuned, so that they stay in the same units.
+     * @param weights the weights to fit the scale to
+     * @return the scale, which is also used by later calls
+     */
+    public double fitScale(int[] weights) {
+        double ratio = (Math.sqrt(5) - 1) / 2;
+        double low = 0;
+        double high = 10;
+        double a = high - ratio * (high - low);
+        double b = low + ratio * (high - low);
+        double errorA = computeError(weights, a);
+        double errorB = computeError(weights, b);
+        while (high - low > 1e-4) {
+            if (errorA < errorB) {
+                high = b;
+                b = a;
+                errorB = errorA;
+                a = high - ratio * (high - low);
+                errorA = computeError(weights, a);
+            } else {
+                low = a;
+                a = b;
+                errorA = errorB;
+                b = low + ratio * (high - low);
+                errorB = computeError(weights, b);
+            }
+        }
+        scale = (low + high) / 2;
+        return scale;
+    }
+
+    /**
+     * Tune the weights by local search
+     * @param initial the weights to start from
+     * @param initialStep the amount to change weights by at first, halved until it reaches one
+     * @param listener called with the weights after every improvement, or null
+     * @return the tuned weights
+     */
+    public Evaluator tune(Evaluator initial, int initialStep, ProgressListener listener) {
+        int[] weights = initial.getWeights();
+        double best = computeError(weights);
+        for (int step = initialStep; step >= 1; step /= 2) {
+            boolean improved = true;
+            while (improved) {
+                improved = false;
+                for (int i = 0; i < weights.length; i++) {
+                    for (int delta : new int[] { step, -step }) {
+                        weights[i] += delta;
+                        double error = computeError(weights);
+                        if (error < best) {
+                            best = error;
+                            improved = true;
+                            if (listener != null) { listener.improved(new Evaluator(weights), error); }
+                            break;
+                        }
+                        weights[i] -= delta;
+                    }
+                }
+            }
+        }
+        return new Evaluator(weights);
+    }
+
+    /**
+     * Receives the progress of tuning
+     */
+    public interface ProgressListener {
+        /**
+         * Called when the error has been lowered
+         * @param evaluator the evaluator with the new weights
+         * @param error the new error
+         */
+        void improved(Evaluator evaluator, double error);
+    }
+
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 4) {
+            System.err.println("Usage: EvaluationTuner [weights file] [threads] [plies to skip] [game record file...]");
+            System.exit(1);
+        }
+        File output = new File(args[0]);
+        int threads = Integer.parseInt(args[1]);
+        int skipPlies = Integer.parseInt(args[2]);
+
+        long start = System.nanoTime();
+        Dataset dataset = new Dataset();
+        int games = 0;
+        for (int i = 3; i < args.length; i++) {
+            games += dataset.addGames(new File(args[i]), skipPlies);
+        }
+        System.out.printf("Read %d positions from %d games in %.1fs%n", dataset.size(), games,
+                (System.nanoTime() - start) / 1e9);
+
+        Evaluator initial = output.exists() ? Evaluator.read(output) : new Evaluator();
+        EvaluationTuner tuner = new EvaluationTuner(dataset, threads);
+        try {
+            System.out.printf("Scale %.4f, error %.6f%n", tuner.fitScale(initial.getWeights()),
+                    tuner.computeError(initial.getWeights()));
+            Evaluator tuned = tuner.tune(initial, 16, (evaluator, error) -> {
+                System.out.printf("Error %.6f after %.1fs%n", error, (System.nanoTime() - start) / 1e9);
+                try {
+                    write(evaluator, output);
+                } catch (IOException ex) {
+                    System.err.println("Can't write weights: " + ex.getMessage());
+                }
+            });
+            write(tuned, output);
+            System.out.print(tuned);
+        } finally {
+            tuner.shutdown();
+        }
+    }
+
+    private static void write(Evaluator evaluator, File file) throws IOException {
+        try (Writer out = new FileWriter(file)) {
+            out.write(evaluator.toString());
+        }
+    }
+}
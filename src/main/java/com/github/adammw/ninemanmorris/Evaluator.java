@@ -0,0 +1,227 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.Arrays;
+
+/**
+ * Static evaluation of a position as a weighted sum of features. Each feature is counted for both players and
+ * the opponent's count is subtracted from the player's. The features are read from counts which Board keeps up
+ * to date as pieces are added and removed, so an evaluation doesn't scan the board.
+ * Every feature has a separate weight for each phase of the game, so that for example mobility can matter more
+ * once pieces start moving. The weights are configurable and can be read from and written to a simple text
+ * format, with one line per feature giving its name and then its weight in each phase, for offline tuning.
+ */
+public class Evaluator {
+    /**
+     * The features of a position which are weighted
+     */
+    public enum Feature {
+        /** Pieces on the board plus pieces left to place */
+        MATERIAL,
+        /** Pieces which are part of a formed mill */
+        MILL_PIECES,
+        /** Formed mills */
+        MILLS,
+        /** Mills with two of the player's pieces and an empty point */
+        OPEN_TWOS,
+        /** Pieces with no empty adjacent point */
+        BLOCKED,
+        /** Sliding moves, counted only while the player is in the moving stage */
+        MOBILITY,
+        /** A removal due to a mill the player has just formed */
+        REMOVAL_PENDING
+    }
+
+    /**
+     * The phases of the game with separate weights: while pieces are being placed, once both players move and
+     * once either player can fly
+     */
+    public static final int PLACING_PHASE = 0;
+    public static final int MOVING_PHASE = 1;
+    public static final int FLYING_PHASE = 2;
+    public static final int PHASES = 3;
+
+    public static final int FEATURES = Feature.values().length;
+
+    private static final Feature[] FEATURE_VALUES = Feature.values();
+
+    /**
+     * Default weights, equivalent to the evaluation used before weights were configurable
+     */
+    private static final int[] DEFAULT_WEIGHTS = {
+            100, 10, 0, 0, 0, 4, 0, // placing
+            100, 10, 0, 0, 0, 4, 0, // moving
+            100, 10, 0, 0, 0, 4, 0  // flying
+    };
+
+    private final int[] weights; // indexed by phase * FEATURES + feature
+
+    /**
+     * Create an evaluator with the default weights
+     */
+    public Evaluator() {
+        this(DEFAULT_WEIGHTS);
+    }
+
+    /**
+     * Create an evaluator
+     * @param weights the weight of each feature in each phase, indexed by phase * FEATURES + feature ordinal
+     */
+    public Evaluator(int[] weights) {
+        if (weights.length != PHASES * FEATURES) {
+            throw new IllegalArgumentException("Expected " + PHASES * FEATURES + " weights");
+        }
+        this.weights = weights.clone();
+    }
+
+    /**
+     * Evaluate a position
+     * @param board the position, which must be a two player game
+     * @param side the index of the player to evaluate the position for
+     * @return the score, positive if the position is better for the player
+     */
+    public int evaluate(Board board, int side) {
+        int base = getPhase(board) * FEATURES;
+        int opponent = side ^ 1;
+        int material = board.numPiecesOnBoardOwnedByPlayer(side) + board.getPiecesInHand(side)
+                - board.numPiecesOnBoardOwnedByPlayer(opponent) - board.getPiecesInHand(opponent);
+        int millPieces = board.numPiecesInMillsOwnedByPlayer(side) - board.numPiecesInMillsOwnedByPlayer(opponent);
+        int mills = Integer.bitCount(board.getFormedMills(side)) - Integer.bitCount(board.getFormedMills(opponent));
+        int score = weights[base] * material
+                + weights[base + 1] * millPieces
+                + weights[base + 2] * mills
+                + weights[base + 3] * (board.getOpenTwos(side) - board.getOpenTwos(opponent))
+                + weights[base + 4] * (board.getBlockedCount(side) - board.getBlockedCount(opponent))
+                + weights[base + 5] * (getMobility(board, side) - getMobility(board, opponent));
+        if (board.isRemovalPending()) {
+            score += board.getSideToMove() == side ? weights[base + 6] : -weights[base + 6];
+        }
+        return score;
+    }
+
+    /**
+     * Get the value of every feature of a position, so that evaluate returns the dot product of the features
+     * and the weights of the position's phase
+     * @param board the position, which must be a two player game
+     * @param side the index of the player to count the features for
+     * @param features the array to write the value of each feature into, indexed by feature ordinal
+     */
+    public static void getFeatures(Board board, int side, int[] features) {
+        int opponent = side ^ 1;
+        features[Feature.MATERIAL.ordinal()] = board.numPiecesOnBoardOwnedByPlayer(side) + board.getPiecesInHand(side)
+                - board.numPiecesOnBoardOwnedByPlayer(opponent) - board.getPiecesInHand(opponent);
+        features[Feature.MILL_PIECES.ordinal()] = board.numPiecesInMillsOwnedByPlayer(side)
+                - board.numPiecesInMillsOwnedByPlayer(opponent);
+        features[Feature.MILLS.ordinal()] = Integer.bitCount(board.getFormedMills(side))
+                - Integer.bitCount(board.getFormedMills(opponent));
+        features[Feature.OPEN_TWOS.ordinal()] = board.getOpenTwos(side) - board.getOpenTwos(opponent);
+        features[Feature.BLOCKED.ordinal()] = board.getBlockedCount(side) - board.getBlockedCount(opponent);
+        features[Feature.MOBILITY.ordinal()] = getMobility(board, side) - getMobility(board, opponent);
+        features[Feature.REMOVAL_PENDING.ordinal()] = !board.isRemovalPending() ? 0
+                : board.getSideToMove() == side ? 1 : -1;
+    }
+
+    /**
+     * Get the phase of the game a position is in, which selects the weights used to evaluate it
+     * @param board the position
+     * @return PLACING_PHASE, MOVING_PHASE or FLYING_PHASE
+     */
+    public static int getPhase(Board board) {
+        if (board.getPiecesInHand(0) > 0 || board.getPiecesInHand(1) > 0) { return PLACING_PHASE; }
+        if (board.getStage(0) == GameStage.FLYING || board.getStage(1) == GameStage.FLYING) { return FLYING_PHASE; }
+        return MOVING_PHASE;
+    }
+
+    private static int getMobility(Board board, int side) {
+        return board.getStage(side) == GameStage.MOVING ? board.getMobility(side) : 0;
+    }
+
+    /**
+     * Get the weight of a feature
+     * @param phase the phase of the game
+     * @param feature the feature
+     * @return the weight
+     */
+    public int getWeight(int phase, Feature feature) {
+        return weights[phase * FEATURES + feature.ordinal()];
+    }
+
+    /**
+     * Get every weight
+     * @return a copy of the weights, indexed by phase * FEATURES + feature ordinal
+     */
+    public int[] getWeights() {
+        return weights.clone();
+    }
+
+    /**
+     * Read weights in the format written by toString. Features which aren't listed keep their default weights.
+     * @param in the text to read
+     * @return the evaluator
+     * @throws IOException if the text can't be read or isn't valid
+     */
+    public static Evaluator read(Reader in) throws IOException {
+        int[] weights = DEFAULT_WEIGHTS.clone();
+        BufferedReader reader = new BufferedReader(in);
+        String line;
+        while ((line = reader.readLine()) != null) {
+            line = line.trim();
+            if (line.isEmpty() || line.startsWith("#")) { continue; }
+            String[] fields = line.split("\\s+");
+            try {
+                Feature feature = Feature.valueOf(fields[0]);
+                if (fields.length != PHASES + 1) {
+                    throw new IOException("Expected " + PHASES + " weights for " + feature);
+                }
+                for (int phase = 0; phase < PHASES; phase++) {
+                    weights[phase * FEATURES + feature.ordinal()] = Integer.parseInt(fields[phase + 1]);
+                }
+            } catch (IllegalArgumentException ex) {
+                throw new IOException("Invalid weights: " + line);
+            }
+        }
+        return new Evaluator(weights);
+    }
+
+    /**
+     * Read weights from a file in the format written by toString
+     * @param file the file to read
+     * @return the evaluator
+     * @throws IOException if the file can't be read or isn't valid
+     */
+    public static Evaluator read(File file) throws IOException {
+        try (Reader in = new FileReader(file)) {
+            return read(in);
+        }
+    }
+
+    /**
+     * Write the weights, one line per feature with its weight in each phase
+     */
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder("# feature placing moving flying\n");
+        for (Feature feature : FEATURE_VALUES) {
+            text.append(feature);
+            for (int phase = 0; phase < PHASES; phase++) {
+                text.append(' ').append(getWeight(phase, feature));
+            }
+            text.append('\n');
+        }
+        return text.toString();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Evaluator && Arrays.equals(weights, ((Evaluator) o).weights);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(weights);
+    }
+}
@@ -1,6 +1,7 @@
 package com.github.adammw.ninemanmorris;
 
 import java.util.Arrays;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -44,6 +45,12 @@ public class GameController {
 
             // When a mill is formed, prompt the player for which piece to remove continually until valid
             Board.MillFormedCallback millFormedCallback = () -> {
+                // Ponder on the position after the move while a human player chooses the piece to remove
+                if (currentPlayer instanceof HumanPlayer) {
+                    forEachOtherPlayer(currentPlayer, Player::stopPondering);
+                    forEachOtherPlayer(currentPlayer, player -> player.startPondering(board));
+                }
+
                 boolean validMove;
                 do {
                     try {
@@ -57,6 +64,11 @@ public class GameController {
                 } while(!validMove);
             };
 
+            // Let the computer players think while a human player enters their move
+            if (currentPlayer instanceof HumanPlayer) {
+                forEachOtherPlayer(currentPlayer, player -> player.startPondering(board));
+            }
+
             // Prompt the player for a move
             try {
                 Move move = currentPlayer.getMove(board);
@@ -64,12 +76,26 @@ public class GameController {
                 currentPlayerIdx = (currentPlayerIdx + 1) % board.getPlayerCount();
             } catch(Board.IllegalMoveException ex) {
                 view.displayError(ex);
+            } finally {
+                forEachOtherPlayer(currentPlayer, Player::stopPondering);
             }
         } while(!board.isGameOver());
 
         // Announce winner if game is over
         Player winningPlayer = board.getWinningPlayer();
         view.announceWinner(board, winningPlayer);
+
+        for (int i = 0; i < board.getPlayerCount(); i++) {
+            board.getPlayer(i).shutdown();
+        }
+    }
+
+    private void forEachOtherPlayer(Player currentPlayer, Consumer<Player> action) {
+        for (int i = 0; i < board.getPlayerCount(); i++) {
+            if (board.getPlayer(i) != currentPlayer) {
+                action.accept(board.getPlayer(i));
+            }
+        }
     }
 
     /**
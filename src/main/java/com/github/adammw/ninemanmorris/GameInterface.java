@@ -80,7 +80,7 @@ public class GameInterface {
                         System.out.println("You have " + board.getPiecesRemainingToBePlacedForPlayer(player) + " pieces remaining to be placed.");
                         System.out.println("Where do you want to place your next piece? (a1 - g7)");
                         printPrompt(player);
-                        toPosition = new BoardLocation(in.readLine());
+                        toPosition = BoardLocation.valueOf(in.readLine());
                         break;
                     case MOVING:
                     case FLYING:
@@ -89,10 +89,10 @@ public class GameInterface {
                         }
                         System.out.println("Which piece do you want to move? (a1 - g7) ");
                         printPrompt(player);
-                        fromPosition = new BoardLocation(in.readLine());
+                        fromPosition = BoardLocation.valueOf(in.readLine());
                         System.out.println("Where do you want to move the piece to? (a1 - g7) ");
                         printPrompt(player);
-                        toPosition = new BoardLocation(in.readLine());
+                        toPosition = BoardLocation.valueOf(in.readLine());
                         break;
                 }
                 valid = true;
@@ -123,7 +123,7 @@ public class GameInterface {
             try {
                 System.out.println("Which piece to remove? (a1 - g7)");
                 printPrompt(player);
-                fromPosition = new BoardLocation(in.readLine());
+                fromPosition = BoardLocation.valueOf(in.readLine());
             } catch (BoardLocation.InvalidLocationException ex) {
                 System.err.println("Invalid location");
             }
@@ -0,0 +1,161 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParseException;
+import java.util.Map;
+
+/**
+ * A text notation for games, modelled on chess PGN, for exchanging games with other tools.
+ * Each game is a set of tag pairs such as [Result "1-0"] followed by the moves and the result. A turn is written
+ * with the a1 - g7 coordinates used by BoardLocation: "d2" places a piece, "d2-d3" moves one and a removal is
+ * added as "xa1", for example "d2-d3xa1". Turns are numbered in pairs as in chess, "1. d2 a1 2. d3 a4 ...", and
+ * the result is "1-0" or "0-1" for a win by the first or second player, "1/2-1/2" for a draw or "*" for an
+ * unfinished game. Comments in braces are ignored. GameNotationReader reads this notation.
+ *
+ * Usage: GameNotation [input file] [output file]
+ * converts a file of game records (see GameRecord) to this notation, or a file in this notation to game
+ * records, depending on the type of the input file.
+ */
+public final class GameNotation {
+    private static final int LINE_LENGTH = 80;
+
+    private GameNotation() {
+    }
+
+    /**
+     * Get the result token for a winner
+     * @param winner the index of the winning player, or GameResult.DRAW
+     * @param finished false if the game was stopped before the end
+     * @return the result token
+     */
+    public static String getResultToken(int winner, boolean finished) {
+        if (winner == 0) { return "1-0"; }
+        if (winner == 1) { return "0-1"; }
+        return finished ? "1/2-1/2" : "*";
+    }
+
+    /**
+     * Write the name of a point, such as "d2"
+     * @param out where to write the name
+     * @param point the point index
+     */
+    static void appendPoint(Appendable out, int point) throws IOException {
+        out.append((char) ('a' + Board.POINT_X[point])).append((char) ('1' + Board.POINT_Y[point]));
+    }
+
+    /**
+     * Write a game
+     * @param out where to write the game
+     * @param tags extra tag pairs to write before the result tag, or null
+     * @param winner the index of the winning player, or GameResult.DRAW
+     * @param finished false if the game was stopped before the end, written as "*" when there's no winner
+     * @param moves the game's moves from the start, encoded as by Move.encode with removals as separate moves
+     * @param count the number of moves
+     * @throws IOException if the game can't be written
+     */
+    public static void write(Appendable out, Map<String, String> tags, int winner, boolean finished,
+                             int[] moves, int count) throws IOException {
+        String result = getResultToken(winner, finished);
+        if (tags != null) {
+            for (Map.Entry<String, String> tag : tags.entrySet()) {
+                if (!tag.getKey().equals("Result")) {
+                    writeTag(out, tag.getKey(), tag.getValue());
+                }
+            }
+        }
+        writeTag(out, "Result", result);
+        out.append('\n');
+
+        int lineLength = 0;
+        int turn = 0;
+        for (int i = 0; i < count; i++) {
+            StringBuilder text = new StringBuilder(16);
+            if (turn % 2 == 0) {
+                text.append(turn / 2 + 1).append(". ");
+            }
+            int from = Move.getFrom(moves[i]);
+            if (from != Move.NO_POINT) {
+                appendPoint(text, from);
+                text.append('-');
+            }
+            appendPoint(text, Move.getTo(moves[i]));
+            if (i + 1 < count && Move.getTo(moves[i + 1]) == Move.NO_POINT) {
+                text.append('x');
+                appendPoint(text, Move.getFrom(moves[++i]));
+            }
+            turn++;
+
+            if (lineLength > 0 && lineLength + 1 + text.length() > LINE_LENGTH) {
+                out.append('\n');
+                lineLength = 0;
+            } else if (lineLength > 0) {
+                out.append(' ');
+                lineLength++;
+            }
+            out.append(text);
+            lineLength += text.length();
+        }
+        if (lineLength > 0 && lineLength + 1 + result.length() > LINE_LENGTH) {
+            out.append('\n');
+        } else if (lineLength > 0) {
+            out.append(' ');
+        }
+        out.append(result).append("\n\n");
+    }
+
+    private static void writeTag(Appendable out, String name, String value) throws IOException {
+        out.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') { out.append('\\'); }
+            out.append(c);
+        }
+        out.append("\"]\n");
+    }
+
+    public static void main(String[] args) throws IOException, ParseException {
+        if (args.length < 2) {
+            System.err.println("Usage: GameNotation [input file] [output file]");
+            System.exit(1);
+        }
+        long start = System.nanoTime();
+        int games = 0;
+        try (InputStream in = new BufferedInputStream(new FileInputStream(args[0]))) {
+            in.mark(4);
+            boolean binary = in.read() == (GameRecord.MAGIC >>> 24) && in.read() == ((GameRecord.MAGIC >>> 16) & 0xff);
+            in.reset();
+
+            if (binary) {
+                try (GameRecordReader reader = new GameRecordReader(in);
+                     Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(args[1]),
+                             StandardCharsets.UTF_8))) {
+                    while (reader.next()) {
+                        write(out, null, reader.getWinner(), true, reader.getMoves(), reader.getMoveCount());
+                        games++;
+                    }
+                }
+            } else {
+                try (GameNotationReader reader = new GameNotationReader(
+                        new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8)));
+                     GameRecordWriter out = new GameRecordWriter(new FileOutputStream(args[1]))) {
+                    while (reader.next()) {
+                        out.writeGame(reader.getWinner(), reader.getMoves(), reader.getMoveCount());
+                        games++;
+                    }
+                }
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("Converted %d games in %.2fs (%.0f games/minute)%n", games, seconds, games * 60 / seconds);
+    }
+}
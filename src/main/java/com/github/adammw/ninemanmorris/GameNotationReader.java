@@ -0,0 +1,291 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Reads games written in the notation described by GameNotation one at a time, replaying every turn on a
+ * board with Board.playTurn to check it is legal. Characters are scanned straight out of a reused buffer and
+ * the moves of each game are decoded into a reused array, so only tag values allocate and a stream of any
+ * number of games can be read with constant memory.
+ */
+public class GameNotationReader implements Closeable {
+    private static final int EOF = -1;
+
+    private final Reader in;
+    private final char[] buffer = new char[1 << 16];
+    private int position;
+    private int limit;
+    private int line = 1;
+
+    private final char[] token = new char[32];
+    private int tokenLength;
+
+    private final Board board;
+    private final Map<String, String> tags = new LinkedHashMap<>();
+    private int[] moves = new int[256];
+    private int moveCount;
+    private int winner;
+    private boolean finished;
+
+    /**
+     * Create a reader
+     * @param in the characters to read from
+     */
+    public GameNotationReader(Reader in) {
+        this.in = in;
+        this.board = new Board(new Player[] {
+                new HumanPlayer(null, "PLAYER 1"),
+                new HumanPlayer(null, "PLAYER 2")
+        });
+    }
+
+    /**
+     * Move on to the next game
+     * @return true if there was another game, false at the end of the stream
+     * @throws IOException if the stream can't be read
+     * @throws ParseException if the game isn't valid notation or contains an illegal move, with the line number
+     * as the error offset
+     */
+    public boolean next() throws IOException, ParseException {
+        for (; moveCount > 0; moveCount--) {
+            board.unmakeMove();
+        }
+        tags.clear();
+        winner = GameResult.DRAW;
+        finished = false;
+        boolean started = false;
+
+        while (true) {
+            int c = skipWhitespace();
+            if (c == EOF) {
+                if (started) { throw error("Game has no result"); }
+                return false;
+            }
+            started = true;
+            if (c == '[') {
+                readTag();
+            } else if (c == '{') {
+                skipComment();
+            } else {
+                readToken();
+                if (tokenLength > 0 && token[tokenLength - 1] == '.') {
+                    continue; // turn number
+                }
+                if (readResult()) {
+                    return true;
+                }
+                readTurn();
+            }
+        }
+    }
+
+    /**
+     * Get the winner of the current game
+     * @return the index of the winning player, or GameResult.DRAW
+     */
+    public int getWinner() {
+        return winner;
+    }
+
+    /**
+     * Check if the current game was played to the end, it's false for games with the result "*"
+     * @return true if the game finished
+     */
+    public boolean isFinished() {
+        return finished;
+    }
+
+    /**
+     * Get the number of moves in the current game, counting removals as separate moves
+     * @return the number of moves
+     */
+    public int getMoveCount() {
+        return moveCount;
+    }
+
+    /**
+     * Get the moves of the current game, encoded as by Move.encode with removals as separate moves.
+     * The array is reused by the next game and may be longer than getMoveCount().
+     * @return the moves
+     */
+    public int[] getMoves() {
+        return moves;
+    }
+
+    /**
+     * Get the value of a tag of the current game
+     * @param name the tag name
+     * @return the value, or null if the game doesn't have the tag
+     */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    /**
+     * Get the tags of the current game, which are replaced by the next game
+     * @return the tags in the order they were read
+     */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /**
+     * Get the board with the moves of the current game played
+     * @return the board, which is reused by the next game
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+
+    private boolean readResult() throws ParseException {
+        if (matches("1-0")) {
+            winner = 0;
+        } else if (matches("0-1")) {
+            winner = 1;
+        } else if (matches("1/2-1/2")) {
+            winner = GameResult.DRAW;
+        } else if (matches("*")) {
+            return true;
+        } else {
+            return false;
+        }
+        finished = true;
+        return true;
+    }
+
+    private void readTurn() throws ParseException {
+        int i = 0;
+        int from = Move.NO_POINT;
+        int to = readPoint(i);
+        i += 2;
+        if (i < tokenLength && token[i] == '-') {
+            from = to;
+            to = readPoint(i + 1);
+            i += 3;
+        }
+        int removed = Move.NO_POINT;
+        if (i < tokenLength && token[i] == 'x') {
+            removed = readPoint(i + 1);
+            i += 3;
+        }
+        if (i != tokenLength) { throw error("Invalid turn " + new String(token, 0, tokenLength)); }
+
+        int move = Move.encode(from, to);
+        Board.TurnStatus status = board.playTurn(move, removed);
+        if (!status.isLegal()) { throw error("Illegal turn " + tokenString() + " (" + status + ")"); }
+
+        if (moveCount + 2 > moves.length) {
+            moves = Arrays.copyOf(moves, 2 * moves.length);
+        }
+        moves[moveCount++] = move;
+        if (removed != Move.NO_POINT) {
+            moves[moveCount++] = Move.encode(removed, Move.NO_POINT);
+        }
+    }
+
+    private int readPoint(int offset) throws ParseException {
+        if (offset + 2 > tokenLength) { throw error("Invalid turn " + tokenString()); }
+        int x = token[offset] - 'a';
+        int y = token[offset + 1] - '1';
+        if (x < 0 || x >= Board.POINT_INDEX.length || y < 0 || y >= Board.POINT_INDEX.length
+                || Board.POINT_INDEX[y][x] < 0) {
+            throw error("Invalid point in " + tokenString());
+        }
+        return Board.POINT_INDEX[y][x];
+    }
+
+    private void readTag() throws IOException, ParseException {
+        position++; // [
+        StringBuilder name = new StringBuilder();
+        int c;
+        while ((c = peek()) != EOF && c != ' ' && c != ']') {
+            name.append((char) c);
+            position++;
+        }
+        if (skipWhitespace() != '"') { throw error("Tag has no value"); }
+        position++;
+        StringBuilder value = new StringBuilder();
+        while ((c = read()) != '"') {
+            if (c == '\\') { c = read(); }
+            if (c == EOF || c == '\n') { throw error("Unterminated tag value"); }
+            value.append((char) c);
+        }
+        if (skipWhitespace() != ']') { throw error("Unterminated tag"); }
+        position++;
+        tags.put(name.toString(), value.toString());
+    }
+
+    private void skipComment() throws IOException, ParseException {
+        int c;
+        while ((c = read()) != '}') {
+            if (c == EOF) { throw error("Unterminated comment"); }
+        }
+    }
+
+    private void readToken() throws IOException, ParseException {
+        tokenLength = 0;
+        int c;
+        while ((c = peek()) != EOF && c > ' ' && c != '[' && c != '{') {
+            if (tokenLength == token.length) { throw error("Token too long"); }
+            token[tokenLength++] = (char) c;
+            position++;
+        }
+    }
+
+    private boolean matches(String text) {
+        if (text.length() != tokenLength) { return false; }
+        for (int i = 0; i < tokenLength; i++) {
+            if (text.charAt(i) != token[i]) { return false; }
+        }
+        return true;
+    }
+
+    private String tokenString() {
+        return new String(token, 0, tokenLength);
+    }
+
+    private ParseException error(String message) {
+        return new ParseException(message + " on line " + line, line);
+    }
+
+    private int skipWhitespace() throws IOException {
+        int c;
+        while ((c = peek()) != EOF && c <= ' ') {
+            if (c == '\n') { line++; }
+            position++;
+        }
+        return c;
+    }
+
+    private int read() throws IOException {
+        int c = peek();
+        if (c != EOF) {
+            if (c == '\n') { line++; }
+            position++;
+        }
+        return c;
+    }
+
+    private int peek() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return EOF;
+            }
+        }
+        return buffer[position];
+    }
+}
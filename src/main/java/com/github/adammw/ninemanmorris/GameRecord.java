@@ -0,0 +1,53 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * Constants and encoding shared by GameRecordWriter and GameRecordReader, which store games in a compact binary
+ * format. A file starts with a header (the magic number "NMMG" and a version byte), followed by each game as a
+ * varint giving the length of the game in bytes, a result byte (the winning side + 1, or 0 for a draw) and then
+ * one entry per turn.
+ *
+ * A turn is a move plus the removal it allows, if any. Turns are stored in one byte where possible: 0-23 is a
+ * placement on that point and 24-119 is a slide, stored as 24 + 4 * from + the index of the destination among
+ * the points adjacent to from. Every other turn (flights, and any turn with a removal) takes two bytes, a
+ * big-endian 15 bit value (from * 24 + to) * 25 + removed with the top bit of the first byte set, where from is
+ * 24 for a placement and removed is 24 when nothing is removed.
+ */
+public final class GameRecord {
+    static final int MAGIC = 0x4e4d4d47; // "NMMG"
+    static final int VERSION = 1;
+
+    /**
+     * Result byte of a drawn or unfinished game
+     */
+    static final int RESULT_DRAW = 0;
+
+    static final int SLIDE_BASE = Board.NUM_POINTS;
+    static final int TWO_BYTE_FLAG = 0x80;
+    static final int NO_POINT = Board.NUM_POINTS; // stands for no point in two byte turns
+    static final int MAX_TWO_BYTE_VALUE = ((NO_POINT * Board.NUM_POINTS + Board.NUM_POINTS - 1) * 25) + NO_POINT;
+
+    private GameRecord() {
+    }
+
+    /**
+     * Get the index of a point among the points adjacent to another
+     * @return the index, or -1 if the points aren't adjacent
+     */
+    static int getDirection(int from, int to) {
+        int adjacent = Board.ADJACENT[from];
+        if ((adjacent & (1 << to)) == 0) { return -1; }
+        return Integer.bitCount(adjacent & ((1 << to) - 1));
+    }
+
+    /**
+     * Get the point adjacent to another with a given index, the inverse of getDirection
+     * @return the point, or -1 if there aren't that many adjacent points
+     */
+    static int getAdjacent(int from, int direction) {
+        int adjacent = Board.ADJACENT[from];
+        for (int i = 0; i < direction && adjacent != 0; i++) {
+            adjacent &= adjacent - 1;
+        }
+        return adjacent == 0 ? -1 : Integer.numberOfTrailingZeros(adjacent);
+    }
+}
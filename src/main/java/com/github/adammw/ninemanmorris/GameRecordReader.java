@@ -0,0 +1,150 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Reads games written by GameRecordWriter one at a time. Each call to next moves on to the following game,
+ * reusing the same buffers, so a stream of any number of games can be scanned with constant memory.
+ */
+public class GameRecordReader implements Closeable {
+    private final InputStream in;
+    private byte[] buffer = new byte[256];
+    private int length;
+    private int[] moves = new int[256];
+    private int moveCount = -1; // -1 until the moves of the current game are decoded
+
+    /**
+     * Create a reader, reading the header
+     * @param in the stream to read from
+     * @throws IOException if the stream can't be read or isn't in the game record format
+     */
+    public GameRecordReader(InputStream in) throws IOException {
+        this.in = in instanceof BufferedInputStream ? in : new BufferedInputStream(in, 1 << 16);
+        int magic = 0;
+        for (int i = 0; i < 4; i++) {
+            magic = (magic << 8) | readByte();
+        }
+        if (magic != GameRecord.MAGIC) {
+            throw new IOException("Not a game record stream");
+        }
+        if (readByte() != GameRecord.VERSION) {
+            throw new IOException("Unsupported game record version");
+        }
+    }
+
+    /**
+     * Move on to the next game
+     * @return true if there was another game, false at the end of the stream
+     * @throws IOException if the stream can't be read or ends part way through a game
+     */
+    public boolean next() throws IOException {
+        int first = in.read();
+        if (first < 0) { return false; }
+
+        // Read the varint length
+        int value = first & 0x7f;
+        for (int shift = 7; (first & 0x80) != 0; shift += 7) {
+            if (shift > 28) { throw new IOException("Invalid game length"); }
+            first = readByte();
+            value |= (first & 0x7f) << shift;
+        }
+        if (value < 1) { throw new IOException("Invalid game length"); }
+
+        if (buffer.length < value) {
+            buffer = new byte[Math.max(value, 2 * buffer.length)];
+        }
+        for (int read = 0; read < value; ) {
+            int n = in.read(buffer, read, value - read);
+            if (n < 0) { throw new EOFException("Game record is truncated"); }
+            read += n;
+        }
+        length = value;
+        moveCount = -1;
+        if ((buffer[0] & 0xff) > 2) { throw new IOException("Invalid game result"); }
+        return true;
+    }
+
+    /**
+     * Get the winner of the current game
+     * @return the index of the winning player, or GameResult.DRAW
+     */
+    public int getWinner() {
+        return (buffer[0] & 0xff) - 1;
+    }
+
+    /**
+     * Get the size of the current game in the stream, excluding its length prefix
+     * @return the number of bytes
+     */
+    public int getByteCount() {
+        return length;
+    }
+
+    /**
+     * Get the number of moves in the current game, counting each removal as a move
+     * @return the number of moves
+     * @throws IOException if the game's moves are malformed
+     */
+    public int getMoveCount() throws IOException {
+        decodeMoves();
+        return moveCount;
+    }
+
+    /**
+     * Get the moves of the current game, encoded as by Move.encode with removals as separate moves.
+     * The array is reused for the next game, only the first getMoveCount entries are valid.
+     * @return the encoded moves
+     * @throws IOException if the game's moves are malformed
+     */
+    public int[] getMoves() throws IOException {
+        decodeMoves();
+        return moves;
+    }
+
+    private void decodeMoves() throws IOException {
+        if (moveCount >= 0) { return; }
+        if (moves.length < 2 * length) {
+            moves = Arrays.copyOf(moves, Math.max(2 * length, 2 * moves.length));
+        }
+        int count = 0;
+        for (int i = 1; i < length; i++) {
+            int b = buffer[i] & 0xff;
+            if (b < GameRecord.SLIDE_BASE) {
+                moves[count++] = Move.encode(Move.NO_POINT, b);
+            } else if (b < GameRecord.TWO_BYTE_FLAG) {
+                int from = (b - GameRecord.SLIDE_BASE) / 4;
+                int to = from < Board.NUM_POINTS ? GameRecord.getAdjacent(from, (b - GameRecord.SLIDE_BASE) % 4) : -1;
+                if (to < 0) { throw new IOException("Invalid slide in game record"); }
+                moves[count++] = Move.encode(from, to);
+            } else {
+                if (++i >= length) { throw new IOException("Game record is truncated"); }
+                int value = ((b & 0x7f) << 8) | (buffer[i] & 0xff);
+                if (value > GameRecord.MAX_TWO_BYTE_VALUE) { throw new IOException("Invalid move in game record"); }
+                int removed = value % 25;
+                int to = (value / 25) % Board.NUM_POINTS;
+                int from = value / 25 / Board.NUM_POINTS;
+                moves[count++] = Move.encode(from == GameRecord.NO_POINT ? Move.NO_POINT : from, to);
+                if (removed != GameRecord.NO_POINT) {
+                    moves[count++] = Move.encode(removed, Move.NO_POINT);
+                }
+            }
+        }
+        moveCount = count;
+    }
+
+    private int readByte() throws IOException {
+        int b = in.read();
+        if (b < 0) { throw new EOFException("Game record is truncated"); }
+        return b;
+    }
+
+    @Override
+    public void close() throws IOException {
+        in.close();
+    }
+}
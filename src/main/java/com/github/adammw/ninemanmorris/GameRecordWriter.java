@@ -0,0 +1,123 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes games to a stream in the binary format described in GameRecord, one game at a time, so any number of
+ * games can be written without holding them in memory.
+ */
+public class GameRecordWriter implements Closeable, Flushable {
+    private final OutputStream out;
+    private byte[] buffer = new byte[256];
+
+    /**
+     * Create a writer starting a new stream, writing the header
+     * @param out the stream to write to
+     * @throws IOException if the header can't be written
+     */
+    public GameRecordWriter(OutputStream out) throws IOException {
+        this(out, true);
+    }
+
+    private GameRecordWriter(OutputStream out, boolean writeHeader) throws IOException {
+        this.out = out instanceof BufferedOutputStream ? out : new BufferedOutputStream(out, 1 << 16);
+        if (writeHeader) {
+            this.out.write(GameRecord.MAGIC >>> 24);
+            this.out.write(GameRecord.MAGIC >>> 16);
+            this.out.write(GameRecord.MAGIC >>> 8);
+            this.out.write(GameRecord.MAGIC);
+            this.out.write(GameRecord.VERSION);
+        }
+    }
+
+    /**
+     * Open a file to add games to, writing the header if the file is new or empty
+     * @param file the file
+     * @return the writer
+     * @throws IOException if the file can't be opened
+     */
+    public static GameRecordWriter append(File file) throws IOException {
+        boolean empty = !file.exists() || file.length() == 0;
+        if (!empty) {
+            // Check the existing file is in the same format before adding to it, the reader checks the header
+            // as it is created
+            try (InputStream in = new FileInputStream(file)) {
+                new GameRecordReader(in);
+            }
+        }
+        return new GameRecordWriter(new FileOutputStream(file, true), empty);
+    }
+
+    /**
+     * Write a game
+     * @param winner the index of the winning player, or GameResult.DRAW if the game was drawn or not finished
+     * @param moves the game's moves from the start, encoded as by Move.encode with each removal as a separate
+     *              move, as generated by Board.generateMoves
+     * @param count the number of moves
+     * @throws IOException if the game can't be written
+     * @throws IllegalArgumentException if a removal doesn't follow a move or a move is malformed
+     */
+    public void writeGame(int winner, int[] moves, int count) throws IOException {
+        if (winner < GameResult.DRAW || winner > 1) {
+            throw new IllegalArgumentException("Invalid winner " + winner);
+        }
+        if (buffer.length < 2 * count + 1) {
+            buffer = Arrays.copyOf(buffer, Math.max(2 * count + 1, 2 * buffer.length));
+        }
+        int length = 0;
+        buffer[length++] = (byte) (winner + 1);
+        for (int i = 0; i < count; i++) {
+            int from = Move.getFrom(moves[i]);
+            int to = Move.getTo(moves[i]);
+            if (to == Move.NO_POINT) {
+                throw new IllegalArgumentException("Removal without a mill at move " + i);
+            }
+            int removed = GameRecord.NO_POINT;
+            if (i + 1 < count && Move.getTo(moves[i + 1]) == Move.NO_POINT) {
+                removed = Move.getFrom(moves[++i]);
+            }
+
+            int direction = from != Move.NO_POINT ? GameRecord.getDirection(from, to) : -1;
+            if (removed == GameRecord.NO_POINT && from == Move.NO_POINT) {
+                buffer[length++] = (byte) to;
+            } else if (removed == GameRecord.NO_POINT && direction >= 0) {
+                buffer[length++] = (byte) (GameRecord.SLIDE_BASE + 4 * from + direction);
+            } else {
+                int value = ((from == Move.NO_POINT ? GameRecord.NO_POINT : from) * Board.NUM_POINTS + to) * 25 +
+                        removed;
+                buffer[length++] = (byte) (GameRecord.TWO_BYTE_FLAG | (value >>> 8));
+                buffer[length++] = (byte) value;
+            }
+        }
+
+        writeVarint(length);
+        out.write(buffer, 0, length);
+    }
+
+    private void writeVarint(int value) throws IOException {
+        while ((value & ~0x7f) != 0) {
+            out.write((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    @Override
+    public void flush() throws IOException {
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,147 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.Arrays;
+
+/**
+ * The outcome of a game played without a user interface: who won, how many plies it took and when each player
+ * moved between stages of the game. Results are written as one line of text per game, for example
+ * "12 0 87 18:0M 19:1M 80:1F 87:1X", giving the game number, the winning side (or -1 for a draw), the number of
+ * plies and a transition for each change of stage as ply:side followed by the first letter of the new stage
+ * (X for GAME_OVER).
+ */
+public class GameResult {
+    /**
+     * Winner of a game which was stopped at the ply limit
+     */
+    public static final int DRAW = -1;
+
+    private static final GameStage[] STAGES = GameStage.values();
+    private static final String STAGE_LETTERS = "PMFX"; // indexed by GameStage ordinal
+
+    private final int game;
+    private final int winner;
+    private final int plies;
+    private final int[] transitions; // ply << 3 | side << 2 | stage ordinal
+
+    /**
+     * Create a game result
+     * @param game the number of the game
+     * @param winner the index of the winning player, or DRAW
+     * @param plies the number of plies played, including removals
+     * @param transitions the stage changes in the order they happened, see encodeTransition
+     */
+    public GameResult(int game, int winner, int plies, int[] transitions) {
+        this.game = game;
+        this.winner = winner;
+        this.plies = plies;
+        this.transitions = transitions;
+    }
+
+    public int getGame() {
+        return game;
+    }
+
+    public int getWinner() {
+        return winner;
+    }
+
+    public int getPlies() {
+        return plies;
+    }
+
+    public int getTransitionCount() {
+        return transitions.length;
+    }
+
+    /**
+     * Get the ply after which a stage transition happened
+     * @param i the index of the transition
+     * @return the ply number, counting from 1
+     */
+    public int getTransitionPly(int i) {
+        return transitions[i] >>> 3;
+    }
+
+    /**
+     * Get the player whose stage changed in a transition
+     * @param i the index of the transition
+     * @return the index of the player
+     */
+    public int getTransitionSide(int i) {
+        return (transitions[i] >>> 2) & 1;
+    }
+
+    /**
+     * Get the stage a player moved into in a transition
+     * @param i the index of the transition
+     * @return the new stage
+     */
+    public GameStage getTransitionStage(int i) {
+        return STAGES[transitions[i] & 3];
+    }
+
+    /**
+     * Pack a stage transition into an int
+     * @param ply the ply after which the stage changed
+     * @param side the index of the player whose stage changed
+     * @param stage the new stage
+     * @return the packed transition
+     */
+    static int encodeTransition(int ply, int side, GameStage stage) {
+        return (ply << 3) | (side << 2) | stage.ordinal();
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder line = new StringBuilder();
+        line.append(game).append(' ').append(winner).append(' ').append(plies);
+        for (int i = 0; i < transitions.length; i++) {
+            line.append(' ').append(getTransitionPly(i)).append(':').append(getTransitionSide(i))
+                    .append(STAGE_LETTERS.charAt(transitions[i] & 3));
+        }
+        return line.toString();
+    }
+
+    /**
+     * Read a result written by toString
+     * @param line the line of text
+     * @return the result
+     * @throws IllegalArgumentException if the line isn't a valid result
+     */
+    public static GameResult parse(String line) {
+        String[] fields = line.trim().split(" ");
+        if (fields.length < 3) {
+            throw new IllegalArgumentException("Invalid game result: " + line);
+        }
+        try {
+            int[] transitions = new int[fields.length - 3];
+            for (int i = 0; i < transitions.length; i++) {
+                String field = fields[i + 3];
+                int colon = field.indexOf(':');
+                int stage = STAGE_LETTERS.indexOf(field.charAt(field.length() - 1));
+                if (colon < 0 || stage < 0) {
+                    throw new IllegalArgumentException("Invalid stage transition: " + field);
+                }
+                transitions[i] = encodeTransition(Integer.parseInt(field.substring(0, colon)),
+                        Integer.parseInt(field.substring(colon + 1, field.length() - 1)), STAGES[stage]);
+            }
+            return new GameResult(Integer.parseInt(fields[0]), Integer.parseInt(fields[1]),
+                    Integer.parseInt(fields[2]), transitions);
+        } catch (NumberFormatException ex) {
+            throw new IllegalArgumentException("Invalid game result: " + line, ex);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof GameResult)) { return false; }
+        GameResult other = (GameResult) o;
+        return game == other.game && winner == other.winner && plies == other.plies &&
+                Arrays.equals(transitions, other.transitions);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * (31 * (31 * game + winner) + plies) + Arrays.hashCode(transitions);
+    }
+}
@@ -0,0 +1,144 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Plays one game between two players without a user interface, following the same flow as GameController:
+ * each move is applied with Board.performMove and a player forming a mill is asked for the piece to remove.
+ * The game can start with a fixed opening, and the plies after it can be chosen at random so that games
+ * between deterministic players differ. Games are stopped as a draw once a ply limit is reached.
+ */
+public class HeadlessGame {
+    /**
+     * The default number of plies after which a game is declared a draw
+     */
+    public static final int DEFAULT_MAX_PLIES = 400;
+
+    private final Board board;
+    private final int maxPlies;
+    private final int randomPlies;
+    private final Random random;
+    private final int[] moves = new int[Board.MAX_MOVES];
+    private final List<Integer> transitions = new ArrayList<>();
+    private final GameStage[] stages = new GameStage[2];
+    private int[] opening = new int[0];
+    private int[] played = new int[2 * DEFAULT_MAX_PLIES]; // every move made, encoded as by Move.encode
+    private int plies;
+
+    /**
+     * Create a game
+     * @param players the two players, the first moving first
+     * @param maxPlies the number of plies after which the game is a draw
+     * @param randomPlies the number of plies after the opening to choose at random instead of asking the
+     *                    players
+     * @param seed the seed for choosing the random plies
+     */
+    public HeadlessGame(Player[] players, int maxPlies, int randomPlies, long seed) {
+        if (players.length != 2) {
+            throw new IllegalArgumentException("A game needs two players");
+        }
+        this.board = new Board(players);
+        this.maxPlies = maxPlies;
+        this.randomPlies = randomPlies;
+        this.random = new Random(seed);
+    }
+
+    /**
+     * Set the moves to start the game with, before any random plies
+     * @param opening the encoded moves, each counting as a ply
+     */
+    public void setOpening(int[] opening) {
+        this.opening = opening;
+    }
+
+    /**
+     * Play the game to the end
+     * @param game the number of the game, recorded in the result
+     * @return the result of the game
+     * @throws IllegalStateException if a player chooses an illegal move
+     * @throws CancellationException if the thread is interrupted between moves
+     */
+    public GameResult play(int game) {
+        for (int side = 0; side < stages.length; side++) {
+            stages[side] = board.getStage(side);
+        }
+
+        while (!board.isGameOver() && plies < maxPlies) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Game " + game + " was interrupted");
+            }
+            Player player = board.getCurrentPlayer();
+            Move move = nextMove(player, false);
+            perform(move, player, () -> {
+                plies++; // the move forming the mill
+                perform(nextMove(player, true), player, () -> { });
+            });
+            plies++; // the move, or the removal when a mill was formed
+            recordTransitions();
+        }
+
+        Player winner = board.getWinningPlayer();
+        int[] packed = new int[transitions.size()];
+        for (int i = 0; i < packed.length; i++) {
+            packed[i] = transitions.get(i);
+        }
+        return new GameResult(game, winner == null ? GameResult.DRAW : (winner == board.getPlayer(0) ? 0 : 1),
+                plies, packed);
+    }
+
+    /**
+     * Get the moves played so far, with each removal as a separate move
+     * @return the encoded moves
+     */
+    public int[] getMoves() {
+        return Arrays.copyOf(played, plies);
+    }
+
+    /**
+     * Get the board the game is played on
+     * @return the board
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    private void perform(Move move, Player player, Board.MillFormedCallback millFormedCallback) {
+        try {
+            if (plies == played.length) {
+                played = Arrays.copyOf(played, 2 * played.length);
+            }
+            played[plies] = move.getCode(); // recorded first as a removal is made inside performMove
+            board.performMove(move, player, millFormedCallback);
+        } catch (Board.IllegalMoveException ex) {
+            throw new IllegalStateException(player.getName() + " made an illegal move: " + ex.getMessage(), ex);
+        }
+    }
+
+    private void recordTransitions() {
+        for (int side = 0; side < stages.length; side++) {
+            GameStage stage = board.getStage(side);
+            if (stage != stages[side]) {
+                transitions.add(GameResult.encodeTransition(plies, side, stage));
+                stages[side] = stage;
+            }
+        }
+    }
+
+    /**
+     * Get the next move from the opening, a random move or the player's choice, depending on the ply
+     */
+    private Move nextMove(Player player, boolean removal) {
+        if (plies < opening.length) {
+            return Move.decode(opening[plies]);
+        }
+        if (plies < opening.length + randomPlies) {
+            int count = board.generateMoves(moves);
+            return Move.decode(moves[random.nextInt(count)]);
+        }
+        return removal ? player.getPieceToRemove(board) : player.getMove(board);
+    }
+}
@@ -0,0 +1,192 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Parallel alpha-beta search using the "lazy SMP" scheme: helper threads search the same root position on
+ * their own copy of the board, sharing only the transposition table. The helpers fill the table with results
+ * which the main thread then picks up, and every other helper starts one iteration deeper so the threads
+ * spread out over different parts of the tree. The move returned is always the main thread's.
+ */
+public class LazySMPSearch {
+    private final TranspositionTable table;
+    private final AlphaBetaSearch[] searches;
+    private final ExecutorService helperPool;
+
+    /**
+     * Create a parallel search
+     * @param threads the number of threads to search with, including the calling thread
+     * @param table the transposition table shared by all of the threads
+     */
+    public LazySMPSearch(int threads, TranspositionTable table) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is required");
+        }
+        this.table = table;
+        this.searches = new AlphaBetaSearch[threads];
+        for (int i = 0; i < threads; i++) {
+            searches[i] = new AlphaBetaSearch(table);
+        }
+        this.helperPool = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "search-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Set the endgame database for every thread to look up positions in
+     * @param endgameDatabase the database, or null to search without one
+     */
+    public void setEndgameDatabase(EndgameDatabase endgameDatabase) {
+        for (AlphaBetaSearch search : searches) {
+            search.setEndgameDatabase(endgameDatabase);
+        }
+    }
+
+    /**
+     * Set the evaluator for every thread to score positions with
+     * @param evaluator the evaluator
+     */
+    public void setEvaluator(Evaluator evaluator) {
+        for (AlphaBetaSearch search : searches) {
+            search.setEvaluator(evaluator);
+        }
+    }
+
+    /**
+     * Search the current position for the best move for the player to move
+     * @param board the board to search, which must have at least one legal move
+     * @param maxDepth the maximum depth to search to, in turns
+     * @param timeLimitMillis the time to stop searching after, in milliseconds
+     * @return the encoded best move found
+     */
+    public int search(Board board, int maxDepth, long timeLimitMillis) {
+        table.newSearch();
+        clearStop();
+        return search(board, maxDepth, timeLimitMillis, 1);
+    }
+
+    /**
+     * Search the current position, without starting a new search generation in the transposition table or
+     * clearing a pending stop request, so that a search can continue from the results of an earlier one
+     * @param board the board to search, which must have at least one legal move
+     * @param maxDepth the maximum depth to search to, in turns
+     * @param timeLimitMillis the time to stop searching after, in milliseconds
+     * @param startDepth the depth of the main thread's first iteration
+     * @return the encoded best move found
+     */
+    int search(Board board, int maxDepth, long timeLimitMillis, int startDepth) {
+        // Start the helpers, each on a copy of the board
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < searches.length; i++) {
+            AlphaBetaSearch helper = searches[i];
+            Board copy = new Board(board);
+            int helperStartDepth = startDepth + (i % 2);
+            helpers.add(helperPool.submit(() -> helper.search(copy, maxDepth, timeLimitMillis, helperStartDepth)));
+        }
+
+        int bestMove = searches[0].search(board, maxDepth, timeLimitMillis, startDepth);
+
+        // Stop the helpers once the main thread has finished
+        for (int i = 1; i < searches.length; i++) {
+            searches[i].stop();
+        }
+        // Every helper must have finished before the next search reuses their searches and the table
+        boolean interrupted = false;
+        Throwable failure = null;
+        for (Future<?> helper : helpers) {
+            while (true) {
+                try {
+                    helper.get();
+                    break;
+                } catch (InterruptedException ex) {
+                    interrupted = true;
+                } catch (ExecutionException ex) {
+                    if (failure == null) { failure = ex.getCause(); }
+                    break;
+                }
+            }
+        }
+        if (interrupted) { Thread.currentThread().interrupt(); }
+        if (failure != null) { throw new IllegalStateException(failure); }
+        return bestMove;
+    }
+
+    /**
+     * Ask a running search to stop as soon as possible, it will return the best move found so far.
+     * This may be called from another thread.
+     */
+    public void stop() {
+        for (AlphaBetaSearch search : searches) {
+            search.stop();
+        }
+    }
+
+    /**
+     * Clear a stop request, so that the next search started without clearing it runs
+     */
+    void clearStop() {
+        for (AlphaBetaSearch search : searches) {
+            search.clearStop();
+        }
+    }
+
+    /**
+     * Get the number of search threads
+     * @return the thread count
+     */
+    public int getThreadCount() {
+        return searches.length;
+    }
+
+    /**
+     * Get the transposition table shared by the threads
+     * @return the transposition table
+     */
+    public TranspositionTable getTable() {
+        return table;
+    }
+
+    /**
+     * Get the number of positions visited by all threads in the last search
+     * @return the node count
+     */
+    public long getNodes() {
+        long nodes = 0;
+        for (AlphaBetaSearch search : searches) {
+            nodes += search.getNodes();
+        }
+        return nodes;
+    }
+
+    /**
+     * Get the deepest iteration completed by the main thread in the last search
+     * @return the depth in turns
+     */
+    public int getCompletedDepth() {
+        return searches[0].getCompletedDepth();
+    }
+
+    /**
+     * Get the score of the best move found by the last search, from the point of view of the player to move
+     * @return the score
+     */
+    public int getBestScore() {
+        return searches[0].getBestScore();
+    }
+
+    /**
+     * Stop the helper threads, the search can't be used afterwards
+     */
+    public void shutdown() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * The running score of a match between two players, from the point of view of the first, with the Elo
+ * difference it implies and the sequential probability ratio test (SPRT) statistic used to stop a match once
+ * the result is clear.
+ */
+public class MatchScore {
+    /**
+     * The normal quantile for a 95% confidence interval
+     */
+    private static final double Z_95 = 1.959964;
+
+    private int wins;
+    private int draws;
+    private int losses;
+
+    public MatchScore() {
+    }
+
+    public MatchScore(int wins, int draws, int losses) {
+        this.wins = wins;
+        this.draws = draws;
+        this.losses = losses;
+    }
+
+    /**
+     * Add the result of a game
+     * @param score 1 for a win, 0.5 for a draw or 0 for a loss
+     */
+    public void add(double score) {
+        if (score > 0.5) {
+            wins++;
+        } else if (score < 0.5) {
+            losses++;
+        } else {
+            draws++;
+        }
+    }
+
+    public int getWins() {
+        return wins;
+    }
+
+    public int getDraws() {
+        return draws;
+    }
+
+    public int getLosses() {
+        return losses;
+    }
+
+    public int getGames() {
+        return wins + draws + losses;
+    }
+
+    /**
+     * Get the average score per game
+     * @return the score between 0 and 1
+     */
+    public double getScore() {
+        return (wins + 0.5 * draws) / getGames();
+    }
+
+    /**
+     * Get the Elo difference implied by the score
+     * @return the Elo difference, positive if the first player is stronger
+     */
+    public double getElo() {
+        return toElo(getScore());
+    }
+
+    /**
+     * Get the half-width of the 95% confidence interval of the Elo difference
+     * @return the error margin in Elo, infinite if every game was won or every game was lost
+     */
+    public double getEloError() {
+        double score = getScore();
+        if (score <= 0 || score >= 1) { return Double.POSITIVE_INFINITY; }
+        double margin = Z_95 * Math.sqrt(getVariance() / getGames());
+        return (toElo(Math.min(score + margin, 1)) - toElo(Math.max(score - margin, 0))) / 2;
+    }
+
+    /**
+     * Get the log-likelihood ratio of the hypothesis that the Elo difference is elo1 against it being elo0,
+     * using the normal approximation to the trinomial distribution of game results. Half a game of each result
+     * is added when estimating the score and its variance, so a match where every game has had the same
+     * result still gives a finite ratio.
+     * @param elo0 the Elo difference under the null hypothesis
+     * @param elo1 the Elo difference under the alternative hypothesis
+     * @return the log-likelihood ratio, or 0 if no games have been played
+     */
+    public double getLogLikelihoodRatio(double elo0, double elo1) {
+        int games = getGames();
+        if (games == 0) { return 0; }
+        double w = wins + 0.5;
+        double d = draws + 0.5;
+        double l = losses + 0.5;
+        double n = w + d + l;
+        double score = (w + 0.5 * d) / n;
+        double variance = (w * (1 - score) * (1 - score) + d * (0.5 - score) * (0.5 - score) +
+                l * score * score) / n;
+        double score0 = toScore(elo0);
+        double score1 = toScore(elo1);
+        return (score1 - score0) * (2 * score - score0 - score1) * games / (2 * variance);
+    }
+
+    /**
+     * Get the variance of the score of a single game
+     */
+    private double getVariance() {
+        int games = getGames();
+        if (games == 0) { return 0; }
+        double score = getScore();
+        return (wins * (1 - score) * (1 - score) + draws * (0.5 - score) * (0.5 - score) +
+                losses * score * score) / games;
+    }
+
+    /**
+     * Convert an expected score into an Elo difference
+     */
+    public static double toElo(double score) {
+        if (score <= 0) { return Double.NEGATIVE_INFINITY; }
+        if (score >= 1) { return Double.POSITIVE_INFINITY; }
+        return -400 * Math.log10(1 / score - 1);
+    }
+
+    /**
+     * Convert an Elo difference into an expected score
+     */
+    public static double toScore(double elo) {
+        return 1 / (1 + Math.pow(10, -elo / 400));
+    }
+
+    @Override
+    public String toString() {
+        return String.format("+%d =%d -%d, score %.3f, Elo %+.1f +/- %.1f",
+                wins, draws, losses, getScore(), getElo(), getEloError());
+    }
+}
@@ -0,0 +1,60 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * Player class representing a computer player which chooses moves with a Monte Carlo tree search
+ */
+public class MonteCarloPlayer extends Player {
+    private final MonteCarloSearch search;
+    private final long timeLimitMillis;
+    private final long maxPlayouts;
+
+    /**
+     * Create a new MonteCarloPlayer object
+     * @param controller the game controller
+     * @param name the player name
+     * @param timeLimitMillis the time budget for each move, in milliseconds
+     * @param maxPlayouts the playout budget for each move, or 0 to use the time budget only
+     * @param threads the number of threads to search with
+     */
+    public MonteCarloPlayer(GameController controller, String name, long timeLimitMillis, long maxPlayouts,
+                            int threads) {
+        super(controller, name);
+        this.timeLimitMillis = timeLimitMillis;
+        this.maxPlayouts = maxPlayouts;
+        this.search = new MonteCarloSearch(threads, MonteCarloSearch.DEFAULT_MAX_NODES);
+    }
+
+    /**
+     * Get the search the player chooses moves with, for its statistics
+     * @return the search
+     */
+    public MonteCarloSearch getSearch() {
+        return search;
+    }
+
+    /**
+     * Get a move for the computer player
+     * @param board the current game board state
+     * @return the best move found within the budget
+     */
+    public Move getMove(Board board) {
+        return Move.decode(search.search(board, timeLimitMillis, maxPlayouts));
+    }
+
+    /**
+     * Get which piece to remove for the computer player
+     * @param board the current board state, with a removal pending
+     * @return a move containing the piece to remove
+     */
+    public Move getPieceToRemove(Board board) {
+        return Move.decode(search.search(board, timeLimitMillis, maxPlayouts));
+    }
+
+    /**
+     * Stop the search threads, the player can't be used afterwards
+     */
+    @Override
+    void shutdown() {
+        search.shutdown();
+    }
+}
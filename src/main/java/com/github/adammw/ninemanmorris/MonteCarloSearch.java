@@ -0,0 +1,356 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Monte Carlo tree search with UCT selection. Each iteration walks down the tree choosing the child with the best
+ * upper confidence bound, adds the children of the leaf it reaches once the leaf has been visited a few times,
+ * plays the rest of the game out with light random moves (a move closing a mill is always taken when there is
+ * one) and adds the result to every node on the way back up.
+ *
+ * Threads share one tree ("tree parallelism"), each on its own copy of the board. A thread counts its visit to
+ * a node as soon as it passes through, before the result is known, which acts as a virtual loss that steers the
+ * other threads to different parts of the tree. The nodes are kept in preallocated arrays so that searching
+ * doesn't allocate, and once the arrays are full the tree stops growing and iterations play out from its leaves.
+ * Each ply is one move as generated by Board.generateMoves, so a removal is a node of its own.
+ */
+public class MonteCarloSearch {
+    /**
+     * The default number of nodes the tree can hold
+     */
+    public static final int DEFAULT_MAX_NODES = 1 << 20;
+
+    /**
+     * The exploration constant of the upper confidence bound
+     */
+    static final double EXPLORATION = 1.4;
+
+    /**
+     * The number of plies after which a playout is stopped as a draw
+     */
+    static final int MAX_PLAYOUT_PLIES = 200;
+
+    /**
+     * The number of visits a leaf needs before its children are added, which keeps the tree to the nodes worth
+     * storing statistics for
+     */
+    static final int EXPANSION_VISITS = 4;
+
+    private static final int UNEXPANDED = -1;
+    private static final int EXPANDING = -2;
+
+    // The tree, one entry per node with the children of a node stored next to each other
+    private final int[] moves; // the move leading to the node
+    private final int[] childCounts;
+    private final AtomicIntegerArray firstChild; // UNEXPANDED, EXPANDING or the index of the first child
+    private final AtomicIntegerArray visits;
+    private final AtomicIntegerArray points; // points scored by the player who made the move, times two
+    private final AtomicInteger nodeCount = new AtomicInteger();
+
+    private final Worker[] workers;
+    private final ExecutorService helperPool;
+    private final AtomicLong playouts = new AtomicLong();
+    private volatile boolean stopped;
+    private long elapsedNanos;
+
+    /**
+     * Create a search
+     * @param threads the number of threads to search with, including the calling thread
+     * @param maxNodes the number of nodes the tree can hold
+     */
+    public MonteCarloSearch(int threads, int maxNodes) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one search thread is required");
+        }
+        if (maxNodes < 1 + Board.MAX_MOVES) {
+            throw new IllegalArgumentException("The tree must hold at least " + (1 + Board.MAX_MOVES) + " nodes");
+        }
+        this.moves = new int[maxNodes];
+        this.childCounts = new int[maxNodes];
+        this.firstChild = new AtomicIntegerArray(maxNodes);
+        this.visits = new AtomicIntegerArray(maxNodes);
+        this.points = new AtomicIntegerArray(maxNodes);
+        this.workers = new Worker[threads];
+        for (int i = 0; i < threads; i++) {
+            workers[i] = new Worker(i);
+        }
+        this.helperPool = threads > 1 ? Executors.newFixedThreadPool(threads - 1, runnable -> {
+            Thread thread = new Thread(runnable, "mcts-helper");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Search the current position for the best move for the player to move, stopping when either limit is reached
+     * @param board the board to search, which must have at least one legal move
+     * @param timeLimitMillis the time to stop searching after, in milliseconds
+     * @param maxPlayouts the number of playouts to stop after, or 0 for no limit
+     * @return the encoded move whose node was visited most
+     */
+    public int search(Board board, long timeLimitMillis, long maxPlayouts) {
+        long start = System.nanoTime();
+        long deadline = start + timeLimitMillis * 1000000L;
+        nodeCount.set(1);
+        resetNode(0, Move.encode(Move.NO_POINT, Move.NO_POINT));
+        playouts.set(0);
+        stopped = false;
+
+        List<Future<?>> helpers = new ArrayList<>();
+        for (int i = 1; i < workers.length; i++) {
+            Worker helper = workers[i];
+            Board copy = new Board(board);
+            helpers.add(helperPool.submit(() -> helper.run(copy, deadline, maxPlayouts)));
+        }
+        workers[0].run(new Board(board), deadline, maxPlayouts);
+
+        stopped = true;
+        for (Future<?> helper : helpers) {
+            try {
+                helper.get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException(ex.getCause());
+            }
+        }
+        elapsedNanos = System.nanoTime() - start;
+        return getBestMove();
+    }
+
+    /**
+     * Get the move of the most visited child of the root
+     */
+    private int getBestMove() {
+        int first = firstChild.get(0);
+        if (first < 0) {
+            throw new IllegalStateException("The root has no moves");
+        }
+        int best = first;
+        for (int child = first + 1; child < first + childCounts[0]; child++) {
+            if (visits.get(child) > visits.get(best)) { best = child; }
+        }
+        return moves[best];
+    }
+
+    private void resetNode(int node, int move) {
+        moves[node] = move;
+        childCounts[node] = 0;
+        visits.set(node, 0);
+        points.set(node, 0);
+        firstChild.set(node, UNEXPANDED);
+    }
+
+    /**
+     * Get the number of playouts made by all threads in the last search
+     * @return the playout count
+     */
+    public long getPlayouts() {
+        return playouts.get();
+    }
+
+    /**
+     * Get the rate of playouts in the last search
+     * @return the playouts per second
+     */
+    public double getPlayoutsPerSecond() {
+        return elapsedNanos == 0 ? 0 : playouts.get() * 1e9 / elapsedNanos;
+    }
+
+    /**
+     * Get the number of nodes in the tree built by the last search
+     * @return the node count
+     */
+    public int getNodeCount() {
+        return Math.min(nodeCount.get(), moves.length);
+    }
+
+    /**
+     * Get the number of search threads
+     * @return the thread count
+     */
+    public int getThreadCount() {
+        return workers.length;
+    }
+
+    /**
+     * Stop the helper threads, the search can't be used afterwards
+     */
+    public void shutdown() {
+        if (helperPool != null) {
+            helperPool.shutdownNow();
+        }
+    }
+
+    /**
+     * The state of one search thread
+     */
+    private class Worker {
+        private final Random random;
+        private final int[] path = new int[2 * MAX_PLAYOUT_PLIES];
+        private final int[] movers = new int[2 * MAX_PLAYOUT_PLIES]; // the side which made the move into each node
+        private final int[] legalMoves = new int[Board.MAX_MOVES];
+        private final int[] millMoves = new int[Board.MAX_MOVES];
+
+        Worker(int seed) {
+            this.random = new Random(seed);
+        }
+
+        void run(Board board, long deadline, long maxPlayouts) {
+            while (!stopped) {
+                iterate(board);
+                long count = playouts.incrementAndGet();
+                if ((maxPlayouts > 0 && count >= maxPlayouts) || System.nanoTime() >= deadline) {
+                    stopped = true;
+                }
+            }
+        }
+
+        /**
+         * Make one pass from the root to a leaf, play out the game from there and back up the result
+         */
+        private void iterate(Board board) {
+            int node = 0;
+            int depth = 0;
+            int plies = 0;
+            visits.incrementAndGet(0);
+
+            // Selection
+            int first;
+            while ((first = firstChild.get(node)) >= 0 && depth < path.length) {
+                node = selectChild(node, first);
+                movers[depth] = board.getSideToMove();
+                path[depth++] = node;
+                visits.incrementAndGet(node); // virtual loss until the result is added
+                board.makeMove(moves[node]);
+                plies++;
+            }
+
+            // Expansion, by whichever thread claims the leaf first
+            if (first == UNEXPANDED && (node == 0 || visits.get(node) >= EXPANSION_VISITS)
+                    && depth < path.length && !board.isGameOver()
+                    && firstChild.compareAndSet(node, UNEXPANDED, EXPANDING)) {
+                first = expand(board, node);
+                if (first >= 0) {
+                    node = selectChild(node, first);
+                    movers[depth] = board.getSideToMove();
+                    path[depth++] = node;
+                    visits.incrementAndGet(node);
+                    board.makeMove(moves[node]);
+                    plies++;
+                }
+            }
+
+            // Playout
+            int winner = playout(board);
+            for (int i = 0; i < depth; i++) {
+                int mover = movers[i];
+                points.addAndGet(path[i], winner == GameResult.DRAW ? 1 : winner == mover ? 2 : 0);
+            }
+            while (plies-- > 0) {
+                board.unmakeMove();
+            }
+        }
+
+        /**
+         * Choose the child with the highest upper confidence bound, taking unvisited children first
+         */
+        private int selectChild(int node, int first) {
+            double logVisits = Math.log(Math.max(1, visits.get(node)));
+            int best = first;
+            double bestValue = Double.NEGATIVE_INFINITY;
+            for (int child = first; child < first + childCounts[node]; child++) {
+                int childVisits = visits.get(child);
+                if (childVisits == 0) { return child; }
+                double value = points.get(child) / (2.0 * childVisits)
+                        + EXPLORATION * Math.sqrt(logVisits / childVisits);
+                if (value > bestValue) {
+                    bestValue = value;
+                    best = child;
+                }
+            }
+            return best;
+        }
+
+        /**
+         * Add the children of a node claimed for expansion
+         * @return the index of the first child, or UNEXPANDED if the tree is full or the node has no moves
+         */
+        private int expand(Board board, int node) {
+            int count = board.generateMoves(legalMoves);
+            if (count == 0 || nodeCount.get() + count > moves.length) {
+                firstChild.set(node, UNEXPANDED);
+                return UNEXPANDED;
+            }
+            int first = nodeCount.getAndAdd(count);
+            if (first + count > moves.length) {
+                firstChild.set(node, UNEXPANDED); // another thread took the last of the nodes
+                return UNEXPANDED;
+            }
+            for (int i = 0; i < count; i++) {
+                resetNode(first + i, legalMoves[i]);
+            }
+            childCounts[node] = count;
+            firstChild.set(node, first); // publishes the children to the other threads
+            return first;
+        }
+
+        /**
+         * Play random moves to the end of the game, always taking a move which closes a mill when there is one
+         * @return the index of the winning player, or GameResult.DRAW if the ply limit is reached
+         */
+        private int playout(Board board) {
+            int plies = 0;
+            int winner = GameResult.DRAW;
+            while (plies < MAX_PLAYOUT_PLIES) {
+                int side = board.getSideToMove();
+                if (board.isGameOver()) {
+                    winner = board.getStage(side) == GameStage.GAME_OVER ? side ^ 1 : side;
+                    break;
+                }
+                int count = board.generateMoves(legalMoves);
+                if (count == 0) {
+                    winner = side ^ 1;
+                    break;
+                }
+                int move = legalMoves[random.nextInt(count)];
+                if (!board.isRemovalPending()) {
+                    int mills = 0;
+                    for (int i = 0; i < count; i++) {
+                        if (closesMill(board, side, legalMoves[i])) { millMoves[mills++] = legalMoves[i]; }
+                    }
+                    if (mills > 0) { move = millMoves[random.nextInt(mills)]; }
+                }
+                board.makeMove(move);
+                plies++;
+            }
+            while (plies-- > 0) {
+                board.unmakeMove();
+            }
+            return winner;
+        }
+    }
+
+    /**
+     * Check if a placement or a slide would close a mill for the player making it
+     */
+    static boolean closesMill(Board board, int side, int move) {
+        int to = Move.getTo(move);
+        int from = Move.getFrom(move);
+        int pieces = board.getPieces(side) & ~(from == Move.NO_POINT ? 0 : 1 << from);
+        for (int mill : Board.POINT_MILLS[to]) {
+            int others = mill & ~(1 << to);
+            if ((pieces & others) == others) { return true; }
+        }
+        return false;
+    }
+}
@@ -1,27 +1,141 @@
 package com.github.adammw.ninemanmorris;
 
 /**
- * This data-holding class represents a possible move of the game
+ * This data-holding class represents a possible move of the game.
+ * A move is a thin wrapper around its primitive encoding (see encode), which fits in a short. There is one
+ * shared instance for every encoding, returned by of and decode, so converting between the two forms never
+ * allocates. Moves are immutable and can be compared with equals or used as map keys.
  */
-public class Move {
-    private BoardLocation previousPieceLocation;
-    private BoardLocation newPieceLocation;
+public final class Move {
+    /**
+     * Value returned when decoding an encoded move where the location is not set
+     */
+    public static final int NO_POINT = -1;
+
+    private static final int POINT_BITS = 5;
+    private static final int POINT_MASK = (1 << POINT_BITS) - 1;
+
+    /**
+     * The shared move for each encoding, null where the encoding doesn't name points on the board
+     */
+    private static final Move[] MOVES = new Move[1 << (2 * POINT_BITS)];
+
+    static {
+        for (int from = NO_POINT; from < Board.NUM_POINTS; from++) {
+            for (int to = NO_POINT; to < Board.NUM_POINTS; to++) {
+                if (from != NO_POINT || to != NO_POINT) {
+                    MOVES[encode(from, to)] = new Move(encode(from, to));
+                }
+            }
+        }
+    }
+
+    private final int code;
 
     public Move(BoardLocation previousPieceLocation, BoardLocation newPieceLocation) {
-        this.previousPieceLocation = previousPieceLocation;
-        this.newPieceLocation = newPieceLocation;
+        this(encode(previousPieceLocation != null ? previousPieceLocation.getPoint() : NO_POINT,
+                newPieceLocation != null ? newPieceLocation.getPoint() : NO_POINT));
     }
 
     public Move(String previousLocation, String newLocation) throws BoardLocation.InvalidLocationException {
-        this.previousPieceLocation = previousLocation != null ? new BoardLocation(previousLocation) : null;
-        this.newPieceLocation = newLocation != null ? new BoardLocation(newLocation) : null;
+        this(previousLocation != null ? BoardLocation.valueOf(previousLocation) : null,
+                newLocation != null ? BoardLocation.valueOf(newLocation) : null);
+    }
+
+    private Move(int code) {
+        this.code = code;
     }
 
     public BoardLocation getPreviousPieceLocation() {
-        return previousPieceLocation;
+        int from = getFrom(code);
+        return from != NO_POINT ? BoardLocation.of(from) : null;
     }
 
     public BoardLocation getNewPieceLocation() {
-        return newPieceLocation;
+        int to = getTo(code);
+        return to != NO_POINT ? BoardLocation.of(to) : null;
+    }
+
+    /**
+     * Get the primitive encoding of the move
+     * @return the encoded move, as returned by encode
+     */
+    public int getCode() {
+        return code;
+    }
+
+    /**
+     * Get the shared move between two points
+     * @param from the point index the piece is moved or removed from, or NO_POINT when placing
+     * @param to the point index the piece is moved or placed to, or NO_POINT when removing
+     * @return the move
+     */
+    public static Move of(int from, int to) {
+        return decode(encode(from, to));
+    }
+
+    /**
+     * Encode a move as a primitive int, as used by the move generator in Board
+     * @param from the point index the piece is moved or removed from, or NO_POINT when placing
+     * @param to the point index the piece is moved or placed to, or NO_POINT when removing
+     * @return the encoded move
+     */
+    public static int encode(int from, int to) {
+        return (from & POINT_MASK) | ((to & POINT_MASK) << POINT_BITS);
+    }
+
+    /**
+     * Get the point a piece is moved or removed from in an encoded move
+     * @param move the encoded move
+     * @return the point index, or NO_POINT when placing a piece
+     */
+    public static int getFrom(int move) {
+        int point = move & POINT_MASK;
+        return point == POINT_MASK ? NO_POINT : point;
+    }
+
+    /**
+     * Get the point a piece is moved or placed to in an encoded move
+     * @param move the encoded move
+     * @return the point index, or NO_POINT when removing a piece
+     */
+    public static int getTo(int move) {
+        int point = (move >>> POINT_BITS) & POINT_MASK;
+        return point == POINT_MASK ? NO_POINT : point;
+    }
+
+    /**
+     * Convert an encoded move back into a Move object
+     * @param move the encoded move
+     * @return the shared Move object for the encoding
+     * @throws IllegalArgumentException if the encoding doesn't name points on the board
+     */
+    public static Move decode(int move) {
+        Move decoded = (move & ~(MOVES.length - 1)) == 0 ? MOVES[move] : null;
+        if (decoded == null) {
+            throw new IllegalArgumentException("Invalid move encoding " + move);
+        }
+        return decoded;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Move && ((Move) o).code == code;
+    }
+
+    @Override
+    public int hashCode() {
+        return code;
+    }
+
+    /**
+     * Describe the move in the notation used by GameNotation, with a removal written as "xd2"
+     */
+    @Override
+    public String toString() {
+        int from = getFrom(code);
+        BoardLocation to = getNewPieceLocation();
+        if (from == NO_POINT) { return to.toString(); }
+        return to == null ? "x" + BoardLocation.of(from) : BoardLocation.of(from) + "-" + to;
     }
 }
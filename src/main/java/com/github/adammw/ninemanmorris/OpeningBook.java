@@ -0,0 +1,221 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * A book of the moves to play in known opening positions, built by OpeningBookBuilder.
+ * Positions are keyed by their canonical form under the board's symmetries (see BoardSymmetry), packed into a
+ * long as by Position, so one entry covers every symmetric copy of a position and keys never collide. Entries
+ * are held in an open addressing hash table over two primitive arrays, so a probe costs a symmetry lookup and
+ * a few array reads. A book is not thread safe while it is being added to, but can be probed from any number
+ * of threads once complete.
+ *
+ * The file holds a header (magic number, version and the number of entries) followed by each entry as a
+ * big-endian long key and short move, the move being encoded as by Move.encode in the canonical orientation.
+ */
+public class OpeningBook {
+    static final int MAGIC = 0x4e4d4d42; // "NMMB"
+    static final int VERSION = 1;
+
+    /**
+     * Returned by probe for positions which aren't in the book
+     */
+    public static final int NO_MOVE = -1;
+
+    private static final long EMPTY = -1L; // never a packed position, as the top bits are unused
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private short[] moves;
+    private int size;
+
+    /**
+     * Create an empty book
+     */
+    public OpeningBook() {
+        this(0);
+    }
+
+    /**
+     * Create an empty book with room for a number of entries
+     * @param expectedSize the number of entries expected
+     */
+    OpeningBook(int expectedSize) {
+        int capacity = MIN_CAPACITY;
+        while (capacity < 2 * expectedSize) { capacity <<= 1; }
+        allocate(capacity);
+    }
+
+    /**
+     * Get the move for a position
+     * @param board the position to look up, the player to move may have a removal pending
+     * @return the encoded move in the board's orientation, or NO_MOVE if the position isn't in the book
+     */
+    public int probe(Board board) {
+        if (board.getPlayerCount() != 2 || board.isGameOver()) { return NO_MOVE; }
+        int symmetry = BoardSymmetry.canonicalize(board);
+        int slot = find(getKey(board, symmetry));
+        if (slot < 0) { return NO_MOVE; }
+        return BoardSymmetry.transformMove(moves[slot], BoardSymmetry.inverse(symmetry));
+    }
+
+    /**
+     * Add or replace the move for a position
+     * @param board the position
+     * @param move the encoded move in the board's orientation
+     */
+    public void put(Board board, int move) {
+        int symmetry = BoardSymmetry.canonicalize(board);
+        put(getKey(board, symmetry), BoardSymmetry.transformMove(move, symmetry));
+    }
+
+    /**
+     * Add or replace the move for a canonical position
+     * @param key the canonical key, see getKey
+     * @param move the encoded move in the canonical orientation
+     */
+    void put(long key, int move) {
+        int slot = find(key);
+        if (slot < 0) {
+            if (2 * (size + 1) > keys.length) {
+                long[] oldKeys = keys;
+                short[] oldMoves = moves;
+                allocate(2 * keys.length);
+                for (int i = 0; i < oldKeys.length; i++) {
+                    if (oldKeys[i] != EMPTY) { insert(oldKeys[i], oldMoves[i]); }
+                }
+            }
+            insert(key, move);
+            size++;
+        } else {
+            moves[slot] = (short) move;
+        }
+    }
+
+    /**
+     * Get the number of positions in the book
+     * @return the number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get the key of a position in its canonical orientation
+     * @param board the position
+     * @param symmetry the symmetry which maps the position to its canonical orientation
+     * @return the packed canonical position
+     */
+    static long getKey(Board board, int symmetry) {
+        return Position.pack(BoardSymmetry.transform(board.getPieces(0), symmetry),
+                BoardSymmetry.transform(board.getPieces(1), symmetry),
+                board.getPiecesInHand(0), board.getPiecesInHand(1),
+                board.getStage(0).ordinal(), board.getStage(1).ordinal(),
+                board.getSideToMove(), board.isRemovalPending());
+    }
+
+    /**
+     * Write the book
+     * @param out the stream to write to, which is flushed but not closed
+     * @throws IOException if the book can't be written
+     */
+    public void write(OutputStream out) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.writeInt(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(size);
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != EMPTY) {
+                data.writeLong(keys[i]);
+                data.writeShort(moves[i]);
+            }
+        }
+        data.flush();
+    }
+
+    /**
+     * Write the book to a file
+     * @param file the file to write
+     * @throws IOException if the file can't be written
+     */
+    public void write(File file) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            write(out);
+        }
+    }
+
+    /**
+     * Read a book written by write
+     * @param in the stream to read from
+     * @return the book
+     * @throws IOException if the stream can't be read or isn't an opening book
+     */
+    public static OpeningBook read(InputStream in) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        if (data.readInt() != MAGIC || data.readInt() != VERSION) {
+            throw new IOException("Not an opening book");
+        }
+        int size = data.readInt();
+        if (size < 0) { throw new IOException("Invalid opening book size"); }
+        OpeningBook book = new OpeningBook(size);
+        for (int i = 0; i < size; i++) {
+            long key = data.readLong();
+            int move = data.readShort();
+            if (key == EMPTY) { throw new IOException("Invalid opening book entry"); }
+            book.put(key, move);
+        }
+        return book;
+    }
+
+    /**
+     * Read a book from a file
+     * @param file the file to read
+     * @return the book
+     * @throws IOException if the file can't be read or isn't an opening book
+     */
+    public static OpeningBook read(File file) throws IOException {
+        try (InputStream in = new FileInputStream(file)) {
+            return read(in);
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        moves = new short[capacity];
+        Arrays.fill(keys, EMPTY);
+    }
+
+    /**
+     * Find the slot holding a key
+     * @return the slot, or -1 if the key isn't in the table
+     */
+    private int find(long key) {
+        int mask = keys.length - 1;
+        for (int slot = slotOf(key); ; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) { return slot; }
+            if (keys[slot] == EMPTY) { return -1; }
+        }
+    }
+
+    private void insert(long key, int move) {
+        int mask = keys.length - 1;
+        int slot = slotOf(key);
+        while (keys[slot] != EMPTY) { slot = (slot + 1) & mask; }
+        keys[slot] = key;
+        moves[slot] = (short) move;
+    }
+
+    private int slotOf(long key) {
+        return (int) ((key * 0x9e3779b97f4a7c15L) >>> 32) & (keys.length - 1);
+    }
+}
@@ -0,0 +1,180 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Builds an OpeningBook from the first moves of recorded games, from searching every position near the start of
+ * the game, or both. For games, each move played is scored by the result of the game for the player who made
+ * it, and the book keeps the best scoring move of each position seen often enough. For searches, every
+ * position reachable within a number of plies is searched and the book keeps the move found, replacing any
+ * move learnt from games. Moves are counted in plies as made by Board.makeMove, so a removal is a ply.
+ *
+ * Usage: OpeningBookBuilder [book file] [plies] games [min games] [game record file...]
+ *    or: OpeningBookBuilder [book file] [plies] search [depth] [time per position ms] [threads]
+ */
+public class OpeningBookBuilder {
+    private final int maxPlies;
+    private final Board board;
+    private final Map<Long, Map<Integer, int[]>> gameStats = new HashMap<>(); // key -> move -> {games, points * 2}
+    private final Map<Long, Integer> searchMoves = new HashMap<>();
+
+    /**
+     * Create a builder
+     * @param maxPlies the number of plies from the start of the game to cover
+     */
+    public OpeningBookBuilder(int maxPlies) {
+        this.maxPlies = maxPlies;
+        this.board = new Board(new Player[] {
+                new HumanPlayer(null, "PLAYER 1"),
+                new HumanPlayer(null, "PLAYER 2")
+        });
+    }
+
+    /**
+     * Add the opening moves of a game
+     * @param moves the moves of the game, encoded as by Move.encode with removals as separate moves
+     * @param count the number of moves
+     * @param winner the index of the winning player, or GameResult.DRAW
+     */
+    public void addGame(int[] moves, int count, int winner) {
+        int plies = Math.min(count, maxPlies);
+        for (int i = 0; i < plies; i++) {
+            int symmetry = BoardSymmetry.canonicalize(board);
+            long key = OpeningBook.getKey(board, symmetry);
+            int move = BoardSymmetry.canonicalizeMove(board, symmetry, moves[i]);
+            int[] stats = gameStats.computeIfAbsent(key, k -> new HashMap<>()).computeIfAbsent(move, m -> new int[2]);
+            stats[0]++;
+            stats[1] += winner == GameResult.DRAW ? 1 : winner == board.getSideToMove() ? 2 : 0;
+            board.makeMove(moves[i]);
+        }
+        for (int i = 0; i < plies; i++) {
+            board.unmakeMove();
+        }
+    }
+
+    /**
+     * Search every position within maxPlies of the start of the game, symmetric copies only once
+     * @param depth the depth to search each position to, in turns
+     * @param timeLimitMillis the time limit for each position, in milliseconds
+     * @param threads the number of threads to search with
+     * @return the number of positions searched
+     */
+    public int addSearchResults(int depth, long timeLimitMillis, int threads) {
+        LazySMPSearch search = new LazySMPSearch(threads, new TranspositionTable(TranspositionTable.DEFAULT_SIZE_MB));
+        int[] moves = new int[Board.MAX_MOVES];
+        Set<Long> seen = new HashSet<>();
+        List<Position> level = new ArrayList<>();
+        level.add(board.snapshot());
+        seen.add(OpeningBook.getKey(board, BoardSymmetry.canonicalize(board)));
+        int searched = 0;
+        Position start = board.snapshot();
+
+        try {
+            for (int ply = 0; ply < maxPlies && !level.isEmpty(); ply++) {
+                List<Position> next = new ArrayList<>();
+                for (Position position : level) {
+                    board.restore(position);
+                    int count = board.generateMoves(moves);
+                    if (count == 0) { continue; }
+
+                    int symmetry = BoardSymmetry.canonicalize(board);
+                    int best = search.search(board, depth, timeLimitMillis);
+                    searchMoves.put(OpeningBook.getKey(board, symmetry),
+                            BoardSymmetry.canonicalizeMove(board, symmetry, best));
+                    searched++;
+
+                    if (ply + 1 < maxPlies) {
+                        for (int i = 0; i < count; i++) {
+                            board.makeMove(moves[i]);
+                            if (seen.add(OpeningBook.getKey(board, BoardSymmetry.canonicalize(board)))) {
+                                next.add(board.snapshot());
+                            }
+                            board.unmakeMove();
+                        }
+                    }
+                }
+                level = next;
+            }
+        } finally {
+            search.shutdown();
+            board.restore(start);
+        }
+        return searched;
+    }
+
+    /**
+     * Build the book
+     * @param minGames the number of games a move must have been played in to be used
+     * @return the book
+     */
+    public OpeningBook build(int minGames) {
+        OpeningBook book = new OpeningBook(gameStats.size() + searchMoves.size());
+        for (Map.Entry<Long, Map<Integer, int[]>> position : gameStats.entrySet()) {
+            int bestMove = OpeningBook.NO_MOVE;
+            int[] best = null;
+            for (Map.Entry<Integer, int[]> move : position.getValue().entrySet()) {
+                int[] stats = move.getValue();
+                if (stats[0] < minGames) { continue; }
+                // Compare average scores, preferring the move played more often on a tie
+                long difference = best == null ? 1 : (long) stats[1] * best[0] - (long) best[1] * stats[0];
+                if (difference > 0 || (difference == 0 && stats[0] > best[0])) {
+                    best = stats;
+                    bestMove = move.getKey();
+                }
+            }
+            if (bestMove != OpeningBook.NO_MOVE) {
+                book.put(position.getKey(), bestMove);
+            }
+        }
+        for (Map.Entry<Long, Integer> position : searchMoves.entrySet()) {
+            book.put(position.getKey(), position.getValue());
+        }
+        return book;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 3) {
+            System.err.println("Usage: OpeningBookBuilder [book file] [plies] games [min games] [game record file...]");
+            System.err.println("   or: OpeningBookBuilder [book file] [plies] search [depth] [time per position ms] [threads]");
+            System.exit(1);
+        }
+        File output = new File(args[0]);
+        OpeningBookBuilder builder = new OpeningBookBuilder(Integer.parseInt(args[1]));
+        long start = System.nanoTime();
+        int minGames = 1;
+
+        if (args[2].equals("games")) {
+            minGames = args.length > 3 ? Integer.parseInt(args[3]) : 1;
+            int games = 0;
+            for (int i = 4; i < args.length; i++) {
+                try (GameRecordReader reader = new GameRecordReader(new FileInputStream(args[i]))) {
+                    while (reader.next()) {
+                        builder.addGame(reader.getMoves(), reader.getMoveCount(), reader.getWinner());
+                        games++;
+                    }
+                }
+            }
+            System.out.println("Read " + games + " games");
+        } else if (args[2].equals("search")) {
+            int depth = args.length > 3 ? Integer.parseInt(args[3]) : 8;
+            long millis = args.length > 4 ? Long.parseLong(args[4]) : 1000;
+            int threads = args.length > 5 ? Integer.parseInt(args[5]) : Runtime.getRuntime().availableProcessors();
+            System.out.println("Searched " + builder.addSearchResults(depth, millis, threads) + " positions");
+        } else {
+            System.err.println("Unknown source: " + args[2]);
+            System.exit(1);
+        }
+
+        OpeningBook book = builder.build(minGames);
+        book.write(output);
+        System.out.printf("Wrote %d positions to %s in %.1fs%n", book.size(), output, (System.nanoTime() - start) / 1e9);
+    }
+}
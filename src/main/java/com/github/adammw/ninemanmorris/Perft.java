@@ -0,0 +1,256 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Counts the move paths ("perft") to a fixed depth from a position, to check the move generator and the rules in
+ * Board against known totals and to measure how fast moves can be generated, made and unmade.
+ * Each ply is one move as generated by Board.generateMoves, so a move forming a mill and the removal that
+ * follows it are separate plies. The leaf moves are split by kind: placements, slides, flights and captures
+ * (removals).
+ *
+ * Usage: Perft [depth] [threads] [moves...]
+ * where the moves lead from the start of the game to the position to count from, written as "d2" to place a
+ * piece, "d2-d3" to move one and "xd3" to remove one.
+ */
+public class Perft {
+    /**
+     * Totals of the leaf moves counted by a perft run
+     */
+    public static class Counts {
+        private long placements;
+        private long slides;
+        private long flights;
+        private long captures;
+
+        public long getNodes() {
+            return placements + slides + flights + captures;
+        }
+
+        public long getPlacements() {
+            return placements;
+        }
+
+        public long getSlides() {
+            return slides;
+        }
+
+        public long getFlights() {
+            return flights;
+        }
+
+        public long getCaptures() {
+            return captures;
+        }
+
+        void add(Counts other) {
+            placements += other.placements;
+            slides += other.slides;
+            flights += other.flights;
+            captures += other.captures;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d nodes (%d placements, %d slides, %d flights, %d captures)",
+                    getNodes(), placements, slides, flights, captures);
+        }
+    }
+
+    private final int[] moves;
+    private final Board board;
+
+    private Perft(Board board, int depth) {
+        this.board = board;
+        this.moves = new int[Math.max(depth, 1) * Board.MAX_MOVES];
+    }
+
+    /**
+     * Count the leaf moves to a depth on the calling thread
+     * @param board the position to count from, which is restored before returning
+     * @param depth the number of plies to count to, at least 1
+     * @return the counts
+     */
+    public static Counts count(Board board, int depth) {
+        Counts counts = new Counts();
+        new Perft(board, depth).count(depth, 0, counts);
+        return counts;
+    }
+
+    /**
+     * Count the leaf moves to a depth, counting below each root move on its own copy of the board in parallel
+     * @param board the position to count from, which is not changed
+     * @param depth the number of plies to count to, at least 1
+     * @param threads the number of threads to count with
+     * @return the counts
+     */
+    public static Counts count(Board board, int depth, int threads) {
+        List<Counts> results = divide(board, depth, threads);
+        Counts counts = new Counts();
+        for (Counts result : results) {
+            counts.add(result);
+        }
+        return counts;
+    }
+
+    /**
+     * Count the leaf moves below each root move separately, in parallel
+     * @param board the position to count from, which is not changed
+     * @param depth the number of plies to count to, at least 1
+     * @param threads the number of threads to count with
+     * @return the counts for each root move, in the order of Board.generateMoves
+     */
+    public static List<Counts> divide(Board board, int depth, int threads) {
+        int[] rootMoves = new int[Board.MAX_MOVES];
+        int count = board.generateMoves(rootMoves);
+        List<RootMoveTask> tasks = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            tasks.add(new RootMoveTask(board, rootMoves[i], depth));
+        }
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            List<Counts> results = new ArrayList<>();
+            for (RootMoveTask task : tasks) {
+                pool.execute(task);
+            }
+            for (RootMoveTask task : tasks) {
+                results.add(task.join());
+            }
+            return results;
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Counts the leaf moves below one root move
+     */
+    private static class RootMoveTask extends RecursiveTask<Counts> {
+        private static final long serialVersionUID = 1L;
+
+        private final Board board;
+        private final int move;
+        private final int depth;
+
+        RootMoveTask(Board board, int move, int depth) {
+            this.board = new Board(board);
+            this.move = move;
+            this.depth = depth;
+        }
+
+        @Override
+        protected Counts compute() {
+            Counts counts = new Counts();
+            Perft perft = new Perft(board, depth);
+            if (depth == 1) {
+                perft.countMoves(new int[] { move }, 0, 1, counts);
+            } else {
+                board.makeMove(move);
+                perft.count(depth - 1, 0, counts);
+                board.unmakeMove();
+            }
+            return counts;
+        }
+    }
+
+    private void count(int depth, int ply, Counts counts) {
+        int offset = ply * Board.MAX_MOVES;
+        int count = board.generateMoves(moves, offset);
+        if (depth == 1) {
+            countMoves(moves, offset, count, counts);
+            return;
+        }
+        for (int i = offset; i < offset + count; i++) {
+            board.makeMove(moves[i]);
+            count(depth - 1, ply + 1, counts);
+            board.unmakeMove();
+        }
+    }
+
+    /**
+     * Add leaf moves to the counts by kind, without making them
+     */
+    private void countMoves(int[] leafMoves, int offset, int count, Counts counts) {
+        if (board.isRemovalPending()) {
+            counts.captures += count;
+            return;
+        }
+        for (int i = offset; i < offset + count; i++) {
+            if (Move.getFrom(leafMoves[i]) == Move.NO_POINT) {
+                counts.placements++;
+            } else if (board.getStage(board.getSideToMove()) == GameStage.FLYING) {
+                counts.flights++;
+            } else {
+                counts.slides++;
+            }
+        }
+    }
+
+    /**
+     * Apply moves written as "d2", "d2-d3" or "xd3" to a board, checking each is legal
+     * @param board the board to apply the moves to
+     * @param moveList the moves separated by spaces
+     * @return the encoded moves applied
+     * @throws IllegalArgumentException if a move is malformed or not legal
+     */
+    static int[] applyMoves(Board board, String moveList) {
+        int[] legal = new int[Board.MAX_MOVES];
+        List<Integer> applied = new ArrayList<>();
+        for (String token : moveList.trim().split("\\s+")) {
+            if (token.isEmpty()) { continue; }
+            int move;
+            if (token.startsWith("x")) {
+                move = Move.encode(parsePoint(token.substring(1)), Move.NO_POINT);
+            } else if (token.contains("-")) {
+                String[] points = token.split("-", 2);
+                move = Move.encode(parsePoint(points[0]), parsePoint(points[1]));
+            } else {
+                move = Move.encode(Move.NO_POINT, parsePoint(token));
+            }
+            int count = board.generateMoves(legal);
+            boolean found = false;
+            for (int i = 0; i < count && !found; i++) {
+                found = legal[i] == move;
+            }
+            if (!found) {
+                throw new IllegalArgumentException("Illegal move: " + token);
+            }
+            board.makeMove(move);
+            applied.add(move);
+        }
+        return applied.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static int parsePoint(String name) {
+        int point = BoardLocation.parsePoint(name);
+        if (point < 0) {
+            throw new IllegalArgumentException("Invalid location: " + name);
+        }
+        return point;
+    }
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 6;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        StringBuilder moveList = new StringBuilder();
+        for (int i = 2; i < args.length; i++) {
+            moveList.append(args[i]).append(' ');
+        }
+
+        Board board = new Board(new Player[] {
+                new HumanPlayer(null, "PLAYER 1"),
+                new HumanPlayer(null, "PLAYER 2")
+        });
+        applyMoves(board, moveList.toString());
+
+        for (int d = 1; d <= depth; d++) {
+            long start = System.nanoTime();
+            Counts counts = count(board, d, threads);
+            double seconds = (System.nanoTime() - start) / 1e9;
+            System.out.printf("depth %2d: %s in %.3fs, %.0f nodes/s%n", d, counts, seconds, counts.getNodes() / seconds);
+        }
+    }
+}
@@ -23,4 +23,31 @@ public abstract class Player {
     abstract Move getMove(Board board);
 
     abstract Move getPieceToRemove(Board board);
+
+    /**
+     * Start thinking in the background while another player chooses their move. Players which can't think
+     * ahead ignore this.
+     * @param board the current board state, which is copied before returning
+     */
+    void startPondering(Board board) {
+    }
+
+    /**
+     * Stop thinking in the background, keeping what was learnt for the player's next move
+     */
+    void stopPondering() {
+    }
+
+    /**
+     * Prepare for a new game, forgetting anything learnt in the last one. Players which keep nothing between
+     * moves ignore this.
+     */
+    void newGame() {
+    }
+
+    /**
+     * Stop any threads the player searches with, it can't be used afterwards
+     */
+    void shutdown() {
+    }
 }
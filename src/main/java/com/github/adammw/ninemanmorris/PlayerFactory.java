@@ -1,15 +1,113 @@
 package com.github.adammw.ninemanmorris;
 
+import java.io.File;
+import java.io.IOException;
+
 /**
  * Factory class for building various player types
  */
 public class PlayerFactory {
+    /**
+     * System property naming the directory of the endgame database used by the hard computer player
+     */
+    public static final String ENDGAME_DATABASE_PROPERTY = "ninemanmorris.endgame";
+
+    /**
+     * System property naming the opening book file used by the hard computer player
+     */
+    public static final String OPENING_BOOK_PROPERTY = "ninemanmorris.book";
+
+    /**
+     * System property naming the file of evaluation weights used by the hard computer player, see Evaluator
+     */
+    public static final String EVALUATION_WEIGHTS_PROPERTY = "ninemanmorris.weights";
+
+    /**
+     * System property giving the time budget for each move of the Monte Carlo computer player, in milliseconds
+     */
+    public static final String MCTS_TIME_PROPERTY = "ninemanmorris.mcts.millis";
+
+    /**
+     * System property giving the playout budget for each move of the Monte Carlo computer player, with 0 (the
+     * default) leaving only the time budget
+     */
+    public static final String MCTS_PLAYOUTS_PROPERTY = "ninemanmorris.mcts.playouts";
+
     public static Player build(GameController controller, PlayerType type, String name) {
+        return build(controller, type, name, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Build a player, limiting the number of threads a computer player searches with
+     * @param controller the game controller
+     * @param type the type of player
+     * @param name the player name
+     * @param searchThreads the most threads a computer player may search with
+     * @return the player
+     */
+    public static Player build(GameController controller, PlayerType type, String name, int searchThreads) {
         switch (type) {
             case HUMAN_PLAYER:
                 return new HumanPlayer(controller, name);
+            case EASY_AI_PLAYER:
+                return new AlphaBetaPlayer(controller, name, 2, 250, 1, 1);
+            case HARD_AI_PLAYER:
+                AlphaBetaPlayer player = new AlphaBetaPlayer(controller, name, AlphaBetaSearch.MAX_DEPTH, 2000, 64,
+                        searchThreads);
+                player.setEndgameDatabase(openEndgameDatabase());
+                player.setOpeningBook(openOpeningBook());
+                player.setEvaluator(readEvaluator());
+                return player;
+            case MCTS_AI_PLAYER:
+                return new MonteCarloPlayer(controller, name, Long.getLong(MCTS_TIME_PROPERTY, 2000),
+                        Long.getLong(MCTS_PLAYOUTS_PROPERTY, 0), searchThreads);
             default:
                 return null;
         }
     }
+
+    /**
+     * Open the endgame database named by the ENDGAME_DATABASE_PROPERTY system property
+     * @return the database, or null if the property isn't set or the database can't be opened
+     */
+    private static EndgameDatabase openEndgameDatabase() {
+        String directory = System.getProperty(ENDGAME_DATABASE_PROPERTY);
+        if (directory == null) { return null; }
+        try {
+            return new EndgameDatabase(new File(directory));
+        } catch (IOException ex) {
+            System.err.println("Can't open endgame database: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read the opening book named by the OPENING_BOOK_PROPERTY system property
+     * @return the book, or null if the property isn't set or the book can't be read
+     */
+    private static OpeningBook openOpeningBook() {
+        String file = System.getProperty(OPENING_BOOK_PROPERTY);
+        if (file == null) { return null; }
+        try {
+            return OpeningBook.read(new File(file));
+        } catch (IOException ex) {
+            System.err.println("Can't read opening book: " + ex.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Read the evaluation weights named by the EVALUATION_WEIGHTS_PROPERTY system property
+     * @return the evaluator, which uses the default weights if the property isn't set or the file can't be read
+     */
+    private static Evaluator readEvaluator() {
+        String file = System.getProperty(EVALUATION_WEIGHTS_PROPERTY);
+        if (file == null) { return new Evaluator(); }
+        try {
+            return Evaluator.read(new File(file));
+        } catch (IOException ex) {
+            System.err.println("Can't read evaluation weights: " + ex.getMessage());
+            return new Evaluator();
+        }
+    }
 }
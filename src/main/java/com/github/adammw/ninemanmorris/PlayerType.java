@@ -5,6 +5,7 @@ package com.github.adammw.ninemanmorris;
  */
 public enum PlayerType {
     HUMAN_PLAYER,
-//    EASY_AI_PLAYER,
-//    HARD_AI_PLAYER
+    EASY_AI_PLAYER,
+    HARD_AI_PLAYER,
+    MCTS_AI_PLAYER
 }
@@ -0,0 +1,142 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * An immutable snapshot of the state of a two player game, packed into a single long.
+ * A position holds everything needed to continue the game from it: the pieces on the board, the pieces left to
+ * place and the stage of each player, the player to move and whether a removal is pending. It can be taken with
+ * Board.snapshot, applied to any board with Board.restore, and passed between threads or stored as a long.
+ */
+public final class Position {
+    // Layout of the packed long
+    private static final int SECOND_PIECES_SHIFT = Board.NUM_POINTS;
+    private static final int IN_HAND_SHIFT = 2 * Board.NUM_POINTS;
+    private static final int IN_HAND_BITS = 4;
+    private static final int STAGE_SHIFT = IN_HAND_SHIFT + 2 * IN_HAND_BITS;
+    private static final int STAGE_BITS = 2;
+    private static final int SIDE_SHIFT = STAGE_SHIFT + 2 * STAGE_BITS;
+    private static final int REMOVAL_SHIFT = SIDE_SHIFT + 1;
+
+    private static final GameStage[] STAGES = GameStage.values();
+
+    private final long packed;
+
+    private Position(long packed) {
+        this.packed = packed;
+    }
+
+    /**
+     * Create a position
+     * @param pieces bitmask of the points occupied by each player
+     * @param piecesInHand the number of pieces each player has left to place
+     * @param stages the stage of each player
+     * @param sideToMove the index of the player to move
+     * @param removalPending if the player to move must remove one of the opponent's pieces
+     * @return the position
+     */
+    public static Position of(int[] pieces, int[] piecesInHand, GameStage[] stages, int sideToMove,
+                              boolean removalPending) {
+        if ((pieces[0] & pieces[1]) != 0 || ((pieces[0] | pieces[1]) & ~Board.ALL_POINTS) != 0) {
+            throw new IllegalArgumentException("Invalid pieces");
+        }
+        if (piecesInHand[0] < 0 || piecesInHand[0] > Board.PIECES_PER_PLAYER
+                || piecesInHand[1] < 0 || piecesInHand[1] > Board.PIECES_PER_PLAYER) {
+            throw new IllegalArgumentException("Invalid number of pieces in hand");
+        }
+        return new Position(pack(pieces[0], pieces[1], piecesInHand[0], piecesInHand[1], stages[0].ordinal(),
+                stages[1].ordinal(), sideToMove, removalPending));
+    }
+
+    /**
+     * Pack the parts of a position into a long without validating them
+     * @return the packed position, as returned by toLong
+     */
+    static long pack(int firstPieces, int secondPieces, int firstInHand, int secondInHand, int firstStage,
+                     int secondStage, int sideToMove, boolean removalPending) {
+        return (firstPieces & 0xffffffL)
+                | ((long) secondPieces << SECOND_PIECES_SHIFT)
+                | ((long) firstInHand << IN_HAND_SHIFT)
+                | ((long) secondInHand << (IN_HAND_SHIFT + IN_HAND_BITS))
+                | ((long) firstStage << STAGE_SHIFT)
+                | ((long) secondStage << (STAGE_SHIFT + STAGE_BITS))
+                | ((long) (sideToMove & 1) << SIDE_SHIFT)
+                | (removalPending ? 1L << REMOVAL_SHIFT : 0);
+    }
+
+    /**
+     * Unpack a position stored with toLong
+     * @param packed the packed position
+     * @return the position
+     */
+    public static Position fromLong(long packed) {
+        if (packed >>> (REMOVAL_SHIFT + 1) != 0) {
+            throw new IllegalArgumentException("Invalid packed position");
+        }
+        Position position = new Position(packed);
+        if ((position.getPieces(0) & position.getPieces(1)) != 0
+                || position.getPiecesInHand(0) > Board.PIECES_PER_PLAYER
+                || position.getPiecesInHand(1) > Board.PIECES_PER_PLAYER) {
+            throw new IllegalArgumentException("Invalid packed position");
+        }
+        return position;
+    }
+
+    /**
+     * Get the position packed into a long, which can be unpacked with fromLong
+     * @return the packed position
+     */
+    public long toLong() {
+        return packed;
+    }
+
+    /**
+     * Get the pieces on the board for a player
+     * @param side the index of the player
+     * @return a bitmask of the points occupied by the player's pieces
+     */
+    public int getPieces(int side) {
+        return (int) (packed >>> (side * SECOND_PIECES_SHIFT)) & Board.ALL_POINTS;
+    }
+
+    /**
+     * Get the number of pieces a player has left to place
+     * @param side the index of the player
+     * @return the number of pieces in hand
+     */
+    public int getPiecesInHand(int side) {
+        return (int) (packed >>> (IN_HAND_SHIFT + side * IN_HAND_BITS)) & ((1 << IN_HAND_BITS) - 1);
+    }
+
+    /**
+     * Get the stage of a player
+     * @param side the index of the player
+     * @return the player's stage
+     */
+    public GameStage getStage(int side) {
+        return STAGES[(int) (packed >>> (STAGE_SHIFT + side * STAGE_BITS)) & ((1 << STAGE_BITS) - 1)];
+    }
+
+    public int getSideToMove() {
+        return (int) (packed >>> SIDE_SHIFT) & 1;
+    }
+
+    public boolean isRemovalPending() {
+        return (packed >>> REMOVAL_SHIFT & 1) != 0;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Position && ((Position) o).packed == packed;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(packed);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("Position[%06x %06x in hand %d/%d %s/%s side %d%s]",
+                getPieces(0), getPieces(1), getPiecesInHand(0), getPiecesInHand(1), getStage(0), getStage(1),
+                getSideToMove(), isRemovalPending() ? " removal" : "");
+    }
+}
@@ -0,0 +1,91 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how the parallel search scales with the number of threads.
+ * Each fixed test position is searched to a fixed depth with 1, 2, 4, ... up to N threads and the time taken
+ * to reach the depth and the nodes searched per second are reported.
+ *
+ * Usage: SearchBenchmark [depth] [max threads] [hash size MB]
+ */
+public class SearchBenchmark {
+    /**
+     * Number of random plies played from the start to reach each test position, and the seed used to choose them
+     */
+    private static final int[][] POSITIONS = {
+            {4, 1},
+            {10, 2},
+            {16, 3},
+            {24, 4},
+            {40, 5}
+    };
+
+    public static void main(String[] args) {
+        int depth = args.length > 0 ? Integer.parseInt(args[0]) : 8;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int hashSizeMB = args.length > 2 ? Integer.parseInt(args[2]) : 256;
+
+        Board[] boards = new Board[POSITIONS.length];
+        for (int i = 0; i < POSITIONS.length; i++) {
+            boards[i] = createPosition(POSITIONS[i][0], POSITIONS[i][1]);
+        }
+
+        System.out.println("Search to depth " + depth + " with a " + hashSizeMB + "MB transposition table");
+        System.out.printf("%8s %12s %14s %12s %10s%n", "threads", "time (ms)", "nodes", "knodes/s", "speedup");
+        TranspositionTable table = new TranspositionTable(hashSizeMB);
+
+        // Warm up the JIT compiler before timing anything
+        AlphaBetaSearch warmUp = new AlphaBetaSearch(table);
+        for (Board board : boards) {
+            warmUp.search(board, depth, TimeUnit.DAYS.toMillis(1));
+        }
+
+        double baseTime = 0;
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            LazySMPSearch search = new LazySMPSearch(threads, table);
+            long totalNanos = 0;
+            long totalNodes = 0;
+            for (Board board : boards) {
+                table.clear();
+                long start = System.nanoTime();
+                search.search(board, depth, TimeUnit.DAYS.toMillis(1));
+                totalNanos += System.nanoTime() - start;
+                totalNodes += search.getNodes();
+            }
+            search.shutdown();
+
+            double millis = totalNanos / 1e6;
+            if (threads == 1) { baseTime = millis; }
+            System.out.printf("%8d %12.1f %14d %12.1f %10.2f%n",
+                    threads, millis, totalNodes, totalNodes / millis, baseTime / millis);
+        }
+    }
+
+    /**
+     * Create a test position by playing random legal moves from the start of the game
+     * @param plies the number of moves to play
+     * @param seed the seed for choosing the moves
+     * @return the board with the moves played
+     */
+    static Board createPosition(int plies, long seed) {
+        Player[] players = {
+                new HumanPlayer(null, "PLAYER 1"),
+                new HumanPlayer(null, "PLAYER 2")
+        };
+        Board board = new Board(players);
+        Random random = new Random(seed);
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int i = 0; i < plies && !board.isGameOver(); i++) {
+            int count = board.generateMoves(moves);
+            if (count == 0) { break; }
+            board.makeMove(moves[random.nextInt(count)]);
+        }
+        return board;
+    }
+
+    private static int nextThreadCount(int threads, int maxThreads) {
+        return threads < maxThreads && threads * 2 > maxThreads ? maxThreads : threads * 2;
+    }
+}
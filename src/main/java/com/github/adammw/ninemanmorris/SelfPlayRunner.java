@@ -0,0 +1,201 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Plays many games between two computer players in parallel, without any user interface, and writes the result
+ * of each game to a file as soon as it finishes (see GameResult for the format). Used to measure the strength
+ * and speed of the engine at scale.
+ *
+ * Usage: SelfPlayRunner [output file] [games] [threads] [first player type] [second player type]
+ *                       [random plies] [max plies] [game record file]
+ * where the moves of every game are added to the game record file, if given (see GameRecord).
+ */
+public class SelfPlayRunner {
+    private final Function<String, Player> firstPlayer;
+    private final Function<String, Player> secondPlayer;
+    private final int threads;
+    private int maxPlies = HeadlessGame.DEFAULT_MAX_PLIES;
+    private int randomPlies = 4;
+    private long seed = 1;
+    private GameRecordWriter recordWriter;
+
+    /**
+     * Create a runner
+     * @param firstPlayer creates the player moving first in the games of each thread, given its name
+     * @param secondPlayer creates the player moving second in the games of each thread, given its name
+     * @param threads the number of games to play at the same time
+     */
+    public SelfPlayRunner(Function<String, Player> firstPlayer, Function<String, Player> secondPlayer, int threads) {
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.firstPlayer = firstPlayer;
+        this.secondPlayer = secondPlayer;
+        this.threads = threads;
+    }
+
+    /**
+     * Set the number of plies after which a game is a draw
+     */
+    public void setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Set the number of plies chosen at random at the start of each game
+     */
+    public void setRandomPlies(int randomPlies) {
+        this.randomPlies = randomPlies;
+    }
+
+    /**
+     * Set the seed the random plies of each game are derived from
+     */
+    public void setSeed(long seed) {
+        this.seed = seed;
+    }
+
+    /**
+     * Save the moves of every game as it finishes
+     * @param recordWriter where to write the games, or null to not save them
+     */
+    public void setRecordWriter(GameRecordWriter recordWriter) {
+        this.recordWriter = recordWriter;
+    }
+
+    /**
+     * Play a number of games, writing each result as a line to the output as it finishes. Each thread creates
+     * its players once and reuses them for every game it plays, as a computer player can take a lot of memory.
+     * @param games the number of games to play
+     * @param out where to write the results, in the order the games finish
+     * @return the results, in game order
+     * @throws IOException if the results can't be written
+     */
+    public List<GameResult> run(int games, Writer out) throws IOException {
+        int workers = Math.max(1, Math.min(threads, games));
+        ExecutorService pool = Executors.newFixedThreadPool(workers);
+        CompletionService<Void> completed = new ExecutorCompletionService<>(pool);
+        GameResult[] results = new GameResult[games];
+        AtomicInteger nextGame = new AtomicInteger();
+        try {
+            for (int i = 0; i < workers; i++) {
+                completed.submit(() -> {
+                    playGames(games, nextGame, results, out);
+                    return null;
+                });
+            }
+            for (int i = 0; i < workers; i++) {
+                completed.take().get();
+            }
+            out.flush();
+            if (recordWriter != null) { recordWriter.flush(); }
+            return new ArrayList<>(Arrays.asList(results));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while playing games", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) ex.getCause()).getCause();
+            }
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Play games on the calling thread with one pair of players until none are left
+     */
+    private void playGames(int games, AtomicInteger nextGame, GameResult[] results, Writer out)
+            throws IOException {
+        Player[] players = { firstPlayer.apply("PLAYER 1"), secondPlayer.apply("PLAYER 2") };
+        try {
+            for (int game = nextGame.getAndIncrement(); game < games; game = nextGame.getAndIncrement()) {
+                for (Player player : players) {
+                    player.newGame();
+                }
+                HeadlessGame headlessGame = new HeadlessGame(players, maxPlies, randomPlies, seed * 31 + game);
+                GameResult result = headlessGame.play(game);
+                results[game] = result;
+                synchronized (out) {
+                    out.write(result.toString());
+                    out.write('\n');
+                }
+                if (recordWriter != null) {
+                    int[] moves = headlessGame.getMoves();
+                    synchronized (recordWriter) {
+                        recordWriter.writeGame(result.getWinner(), moves, moves.length);
+                    }
+                }
+            }
+        } finally {
+            for (Player player : players) {
+                player.shutdown();
+            }
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        String output = args.length > 0 ? args[0] : "selfplay.txt";
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime.getRuntime().availableProcessors();
+        PlayerType first = args.length > 3 ? PlayerType.valueOf(args[3]) : PlayerType.EASY_AI_PLAYER;
+        PlayerType second = args.length > 4 ? PlayerType.valueOf(args[4]) : first;
+        if (first == PlayerType.HUMAN_PLAYER || second == PlayerType.HUMAN_PLAYER) {
+            throw new IllegalArgumentException("Self play needs computer players");
+        }
+
+        // Each thread plays one game at a time, so the players search single threaded
+        SelfPlayRunner runner = new SelfPlayRunner(name -> PlayerFactory.build(null, first, name, 1),
+                name -> PlayerFactory.build(null, second, name, 1), threads);
+        if (args.length > 5) { runner.setRandomPlies(Integer.parseInt(args[5])); }
+        if (args.length > 6) { runner.setMaxPlies(Integer.parseInt(args[6])); }
+
+        GameRecordWriter recordWriter = args.length > 7 ? GameRecordWriter.append(new File(args[7])) : null;
+        runner.setRecordWriter(recordWriter);
+
+        long start = System.nanoTime();
+        List<GameResult> results;
+        try (Writer out = new BufferedWriter(new FileWriter(output))) {
+            results = runner.run(games, out);
+        } finally {
+            if (recordWriter != null) { recordWriter.close(); }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        int[] wins = new int[2];
+        int draws = 0;
+        long plies = 0;
+        for (GameResult result : results) {
+            if (result.getWinner() == GameResult.DRAW) {
+                draws++;
+            } else {
+                wins[result.getWinner()]++;
+            }
+            plies += result.getPlies();
+        }
+        System.out.printf("%d games in %.1fs (%.2f games/s, %.0f plies/s)%n",
+                games, seconds, games / seconds, plies / seconds);
+        System.out.printf("%s wins %d, %s wins %d, draws %d, average %.1f plies%n",
+                first, wins[0], second, wins[1], draws, (double) plies / games);
+    }
+}
@@ -0,0 +1,73 @@
+package com.github.adammw.ninemanmorris;
+
+/**
+ * Sequential probability ratio test deciding between two hypotheses about the Elo difference between two
+ * players, so a match can be stopped as soon as the games played are enough to tell them apart with the
+ * requested error rates.
+ */
+public class Sprt {
+    /**
+     * The state of the test
+     */
+    public enum Status {
+        CONTINUE,
+        ACCEPT_H0,
+        ACCEPT_H1
+    }
+
+    private final double elo0;
+    private final double elo1;
+    private final double lowerBound;
+    private final double upperBound;
+
+    /**
+     * Create a test
+     * @param elo0 the Elo difference under the null hypothesis, e.g. 0 for "no improvement"
+     * @param elo1 the Elo difference under the alternative hypothesis, greater than elo0
+     * @param alpha the probability of accepting H1 when H0 is true
+     * @param beta the probability of accepting H0 when H1 is true
+     */
+    public Sprt(double elo0, double elo1, double alpha, double beta) {
+        if (elo1 <= elo0) {
+            throw new IllegalArgumentException("elo1 must be greater than elo0");
+        }
+        this.elo0 = elo0;
+        this.elo1 = elo1;
+        this.lowerBound = Math.log(beta / (1 - alpha));
+        this.upperBound = Math.log((1 - beta) / alpha);
+    }
+
+    public double getLowerBound() {
+        return lowerBound;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Get the log-likelihood ratio for a score
+     * @param score the match score so far
+     * @return the log-likelihood ratio
+     */
+    public double getLogLikelihoodRatio(MatchScore score) {
+        return score.getLogLikelihoodRatio(elo0, elo1);
+    }
+
+    /**
+     * Check if a score is enough to decide the test
+     * @param score the match score so far
+     * @return the state of the test
+     */
+    public Status check(MatchScore score) {
+        double llr = getLogLikelihoodRatio(score);
+        if (llr >= upperBound) { return Status.ACCEPT_H1; }
+        if (llr <= lowerBound) { return Status.ACCEPT_H0; }
+        return Status.CONTINUE;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("SPRT elo0=%.1f elo1=%.1f bounds [%.2f, %.2f]", elo0, elo1, lowerBound, upperBound);
+    }
+}
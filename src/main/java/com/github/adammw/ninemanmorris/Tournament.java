@@ -0,0 +1,320 @@
+package com.github.adammw.ninemanmorris;
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Plays a match between two computer player configurations to measure the difference in their strength.
+ * Games are played in pairs from each opening in a suite, with the players swapping sides for the second game
+ * of the pair, so neither player benefits from a lopsided opening. Games run concurrently on a thread pool,
+ * and when a sequential probability ratio test is set the match stops as soon as it reaches a decision. The
+ * score and the test only count pairs whose games have both finished.
+ *
+ * Usage: Tournament [pairs] [threads] [player A] [player B] [elo0] [elo1] [openings file]
+ * where a player is a PlayerType or "depth:millis" for an alpha-beta player with that search limit, and the
+ * openings file has one opening per line written as accepted by Perft.
+ */
+public class Tournament {
+    private final Function<String, Player> playerA;
+    private final Function<String, Player> playerB;
+    private final List<int[]> openings;
+    private final int threads;
+    private int maxPlies = HeadlessGame.DEFAULT_MAX_PLIES;
+    private Sprt sprt;
+    private Sprt.Status status = Sprt.Status.CONTINUE;
+    private Writer resultLog;
+
+    /**
+     * Create a match
+     * @param playerA creates the player being measured, given its name
+     * @param playerB creates the opponent, given its name
+     * @param openings the encoded moves of each opening to play a pair of games from
+     * @param threads the number of games to play at the same time
+     */
+    public Tournament(Function<String, Player> playerA, Function<String, Player> playerB, List<int[]> openings,
+                      int threads) {
+        if (openings.isEmpty()) {
+            throw new IllegalArgumentException("At least one opening is required");
+        }
+        if (threads < 1) {
+            throw new IllegalArgumentException("At least one thread is required");
+        }
+        this.playerA = playerA;
+        this.playerB = playerB;
+        this.openings = openings;
+        this.threads = threads;
+    }
+
+    /**
+     * Set the number of plies after which a game is a draw
+     */
+    public void setMaxPlies(int maxPlies) {
+        this.maxPlies = maxPlies;
+    }
+
+    /**
+     * Stop the match once a test reaches a decision
+     * @param sprt the test, or null to play every game
+     */
+    public void setSprt(Sprt sprt) {
+        this.sprt = sprt;
+    }
+
+    /**
+     * Write the result of every game as it finishes (see GameResult), numbered 2 * pair + (0 if player A moved
+     * first, otherwise 1)
+     * @param resultLog where to write the results, or null to not write them
+     */
+    public void setResultLog(Writer resultLog) {
+        this.resultLog = resultLog;
+    }
+
+    /**
+     * Get the outcome of the test after the last run
+     * @return the test status, CONTINUE if no test was set or it didn't reach a decision
+     */
+    public Sprt.Status getStatus() {
+        return status;
+    }
+
+    /**
+     * Play the match
+     * @param pairs the most pairs of games to play, cycling through the openings
+     * @return the score of player A against player B, over the pairs of games played in full
+     * @throws IOException if the results can't be written
+     */
+    public MatchScore run(int pairs) throws IOException {
+        MatchScore score = new MatchScore();
+        status = Sprt.Status.CONTINUE;
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CompletionService<GameOutcome> completed = new ExecutorCompletionService<>(pool);
+
+        // Each thread creates its players once and reuses them for every game it plays, as a computer player
+        // can take a lot of memory
+        List<Player> created = Collections.synchronizedList(new ArrayList<>());
+        ThreadLocal<Player[]> workerPlayers = ThreadLocal.withInitial(() -> {
+            Player[] players = { playerA.apply("PLAYER A"), playerB.apply("PLAYER B") };
+            created.addAll(Arrays.asList(players));
+            return players;
+        });
+        try {
+            // Keep a few games queued for each thread rather than submitting the whole match up front, so
+            // little work is wasted when the test stops the match early
+            int games = 2 * pairs;
+            int submitted = 0;
+            int finished = 0;
+            double[] firstScores = new double[pairs]; // player A's score in the game of each pair finished first
+            boolean[] halfPlayed = new boolean[pairs];
+            while (finished < games && status == Sprt.Status.CONTINUE) {
+                while (submitted < games && submitted - finished < 2 * threads) {
+                    int game = submitted++;
+                    completed.submit(() -> new GameOutcome(game, play(game, workerPlayers.get())));
+                }
+                GameOutcome outcome = completed.take().get();
+                finished++;
+
+                // Only score whole pairs, so the match never stops with one side of an opening played
+                int pair = outcome.game / 2;
+                if (!halfPlayed[pair]) {
+                    halfPlayed[pair] = true;
+                    firstScores[pair] = outcome.score;
+                    continue;
+                }
+                score.add(firstScores[pair]);
+                score.add(outcome.score);
+                if (sprt != null) {
+                    status = sprt.check(score);
+                }
+            }
+            if (resultLog != null) { resultLog.flush(); }
+            return score;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while playing games", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof IOException) {
+                throw (IOException) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        } finally {
+            pool.shutdownNow();
+            shutdown(pool, created);
+        }
+    }
+
+    /**
+     * Wait for the games still running to stop, then shut down every player
+     */
+    private static void shutdown(ExecutorService pool, List<Player> players) {
+        try {
+            pool.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (players) {
+            for (Player player : players) {
+                player.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Play one game of the match
+     * @param workerPlayers player A and player B, reused from the thread's previous game
+     * @return player A's score
+     */
+    private double play(int game, Player[] workerPlayers) throws IOException {
+        int sideA = game % 2;
+        Player[] players = new Player[2];
+        players[sideA] = workerPlayers[0];
+        players[1 - sideA] = workerPlayers[1];
+        for (Player player : players) {
+            player.newGame();
+        }
+        HeadlessGame headlessGame = new HeadlessGame(players, maxPlies, 0, game);
+        headlessGame.setOpening(openings.get((game / 2) % openings.size()));
+        GameResult result = headlessGame.play(game);
+        if (resultLog != null) {
+            synchronized (resultLog) {
+                resultLog.write(result.toString());
+                resultLog.write('\n');
+            }
+        }
+        if (result.getWinner() == GameResult.DRAW) { return 0.5; }
+        return result.getWinner() == sideA ? 1 : 0;
+    }
+
+    /**
+     * Player A's score in one game of the match
+     */
+    private static class GameOutcome {
+        final int game;
+        final double score;
+
+        GameOutcome(int game, double score) {
+            this.game = game;
+            this.score = score;
+        }
+    }
+
+    /**
+     * Create a suite of distinct openings by playing random moves from the start of the game. Openings which are
+     * symmetric copies of one already chosen, which end with a removal pending, or in which the game ends, are
+     * skipped.
+     * @param count the number of openings
+     * @param plies the number of plies in each opening
+     * @param seed the seed for choosing the moves
+     * @return the encoded moves of each opening
+     */
+    public static List<int[]> randomOpenings(int count, int plies, long seed) {
+        Random random = new Random(seed);
+        Set<Long> seen = new HashSet<>();
+        List<int[]> openings = new ArrayList<>();
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int attempt = 0; openings.size() < count && attempt < 100 * count; attempt++) {
+            Board board = createBoard();
+            int[] opening = new int[plies];
+            boolean complete = true;
+            for (int ply = 0; ply < plies; ply++) {
+                int moveCount = board.isGameOver() ? 0 : board.generateMoves(moves);
+                if (moveCount == 0) {
+                    complete = false; // the game ended before the opening did
+                    break;
+                }
+                opening[ply] = moves[random.nextInt(moveCount)];
+                board.makeMove(opening[ply]);
+            }
+            if (!complete || board.isRemovalPending() || board.isGameOver()) { continue; }
+            int symmetry = BoardSymmetry.canonicalize(board);
+            long key = ((long) BoardSymmetry.transform(board.getPieces(0), symmetry) << 24) |
+                    BoardSymmetry.transform(board.getPieces(1), symmetry);
+            if (seen.add(key)) {
+                openings.add(opening);
+            }
+        }
+        return openings;
+    }
+
+    /**
+     * Read a suite of openings from a file with one opening per line, written as accepted by Perft
+     * @param file the file name
+     * @return the encoded moves of each opening
+     * @throws IOException if the file can't be read
+     * @throws IllegalArgumentException if an opening contains an illegal move
+     */
+    public static List<int[]> readOpenings(String file) throws IOException {
+        List<int[]> openings = new ArrayList<>();
+        try (BufferedReader in = new BufferedReader(new FileReader(file))) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (line.trim().isEmpty() || line.startsWith("#")) { continue; }
+                openings.add(Perft.applyMoves(createBoard(), line));
+            }
+        }
+        return openings;
+    }
+
+    /**
+     * Create the players for a configuration
+     * @param spec a PlayerType name, or "depth:millis" for an alpha-beta player with that search limit
+     * @return creates a player given its name
+     */
+    public static Function<String, Player> parsePlayer(String spec) {
+        int colon = spec.indexOf(':');
+        if (colon < 0) {
+            PlayerType type = PlayerType.valueOf(spec);
+            if (type == PlayerType.HUMAN_PLAYER) {
+                throw new IllegalArgumentException("A tournament needs computer players");
+            }
+            return name -> PlayerFactory.build(null, type, name, 1);
+        }
+        int depth = Integer.parseInt(spec.substring(0, colon));
+        long millis = Long.parseLong(spec.substring(colon + 1));
+        return name -> new AlphaBetaPlayer(null, name, depth, millis);
+    }
+
+    private static Board createBoard() {
+        return new Board(new Player[] {
+                new HumanPlayer(null, "PLAYER 1"),
+                new HumanPlayer(null, "PLAYER 2")
+        });
+    }
+
+    public static void main(String[] args) throws IOException {
+        int pairs = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String specA = args.length > 2 ? args[2] : "4:100";
+        String specB = args.length > 3 ? args[3] : "3:100";
+        double elo0 = args.length > 4 ? Double.parseDouble(args[4]) : 0;
+        double elo1 = args.length > 5 ? Double.parseDouble(args[5]) : 10;
+        List<int[]> openings = args.length > 6 ? readOpenings(args[6]) : randomOpenings(200, 4, 1);
+
+        Tournament tournament = new Tournament(parsePlayer(specA), parsePlayer(specB), openings, threads);
+        Sprt sprt = new Sprt(elo0, elo1, 0.05, 0.05);
+        tournament.setSprt(sprt);
+
+        long start = System.nanoTime();
+        MatchScore score = tournament.run(pairs);
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("%s vs %s: %d games in %.1fs%n", specA, specB, score.getGames(), seconds);
+        System.out.println(score);
+        System.out.printf("%s: LLR %.2f, %s%n", sprt, sprt.getLogLikelihoodRatio(score), tournament.getStatus());
+    }
+}
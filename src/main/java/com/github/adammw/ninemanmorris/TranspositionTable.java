@@ -0,0 +1,223 @@
+package com.github.adammw.ninemanmorris;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A fixed-size hash table of search results keyed by Board.getHash.
+ * Entries are held in two preallocated primitive arrays, with each key stored xor'ed with its data so that
+ * readers can detect an entry torn by a concurrent write without any locking.
+ * Each bucket holds two entries: the first is replaced only by a result at least as deep or when it is from an
+ * older search, moving down to the second, and the second takes every result the first turns away.
+ */
+public class TranspositionTable {
+    /**
+     * Table size used when none is specified, in megabytes
+     */
+    public static final int DEFAULT_SIZE_MB = 16;
+
+    /**
+     * Bound types of a stored score
+     */
+    public static final int BOUND_EXACT = 1;
+    public static final int BOUND_LOWER = 2;
+    public static final int BOUND_UPPER = 3;
+
+    private static final int BYTES_PER_ENTRY = 16;
+    private static final int FILL_SAMPLE_SIZE = 1000;
+
+    // Layout of the packed entry data
+    private static final int MOVE_BITS = 16;
+    private static final int SCORE_SHIFT = MOVE_BITS;
+    private static final int DEPTH_SHIFT = SCORE_SHIFT + 32;
+    private static final int BOUND_SHIFT = DEPTH_SHIFT + 8;
+    private static final int GENERATION_SHIFT = BOUND_SHIFT + 2;
+    private static final int GENERATION_MASK = (1 << 6) - 1;
+
+    private final long[] keys;
+    private final long[] data;
+    private final int bucketMask;
+    private int generation = 0;
+
+    private final LongAdder probes = new LongAdder();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder stores = new LongAdder();
+
+    /**
+     * Create a table using the default size
+     */
+    public TranspositionTable() {
+        this(DEFAULT_SIZE_MB);
+    }
+
+    /**
+     * Create a table
+     * @param sizeMB the memory to use in megabytes, rounded down to a power of two number of entries
+     */
+    public TranspositionTable(int sizeMB) {
+        long entries = Math.max(2, ((long) sizeMB << 20) / BYTES_PER_ENTRY);
+        entries = Long.highestOneBit(Math.min(entries, 1 << 30));
+        keys = new long[(int) entries];
+        data = new long[(int) entries];
+        bucketMask = (int) (entries / 2) - 1;
+    }
+
+    /**
+     * Start a new search, so that entries from previous searches are replaced before those from this one
+     */
+    public void newSearch() {
+        generation = (generation + 1) & GENERATION_MASK;
+    }
+
+    /**
+     * Empty the table and reset the counters
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        Arrays.fill(data, 0);
+        probes.reset();
+        hits.reset();
+        stores.reset();
+    }
+
+    /**
+     * Look up a position
+     * @param key the hash of the position
+     * @return the packed entry data, or 0 if the position is not in the table
+     */
+    public long probe(long key) {
+        probes.increment();
+        int idx = bucketIndex(key);
+        for (int i = idx; i < idx + 2; i++) {
+            long entry = data[i];
+            if ((keys[i] ^ entry) == key && entry != 0) {
+                hits.increment();
+                return entry;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Store the result of searching a position
+     * @param key the hash of the position
+     * @param move the best move found, or 0 if none
+     * @param score the score of the position
+     * @param depth the depth searched to
+     * @param bound one of BOUND_EXACT, BOUND_LOWER or BOUND_UPPER
+     */
+    public void store(long key, int move, int score, int depth, int bound) {
+        int idx = bucketIndex(key);
+
+        // The first entry of the bucket keeps the deepest result of this search, anything it turns away goes in
+        // the second, which is always replaced so shallow results near the leaves are still kept
+        int victim = idx;
+        long primary = data[idx];
+        boolean samePosition = (keys[idx] ^ primary) == key;
+        if (primary != 0 && getGeneration(primary) == generation && getDepth(primary) > depth) {
+            if (samePosition) {
+                return; // keep the deeper result for this position
+            }
+            victim = idx + 1;
+        } else if (primary != 0 && !samePosition) {
+            // The replaced result moves down to the second entry rather than being lost
+            keys[idx + 1] = keys[idx];
+            data[idx + 1] = primary;
+        }
+
+        long entry = (move & ((1L << MOVE_BITS) - 1)) |
+                ((score & 0xffffffffL) << SCORE_SHIFT) |
+                ((long) Math.min(Math.max(depth, 0), 255) << DEPTH_SHIFT) |
+                ((long) bound << BOUND_SHIFT) |
+                ((long) generation << GENERATION_SHIFT);
+        data[victim] = entry;
+        keys[victim] = key ^ entry;
+        stores.increment();
+    }
+
+    /**
+     * Get the best move from packed entry data
+     */
+    public static int getMove(long entry) {
+        return (int) (entry & ((1L << MOVE_BITS) - 1));
+    }
+
+    /**
+     * Get the score from packed entry data
+     */
+    public static int getScore(long entry) {
+        return (int) (entry >>> SCORE_SHIFT);
+    }
+
+    /**
+     * Get the search depth from packed entry data
+     */
+    public static int getDepth(long entry) {
+        return (int) ((entry >>> DEPTH_SHIFT) & 0xff);
+    }
+
+    /**
+     * Get the bound type from packed entry data
+     */
+    public static int getBound(long entry) {
+        return (int) ((entry >>> BOUND_SHIFT) & 3);
+    }
+
+    private static int getGeneration(long entry) {
+        return (int) ((entry >>> GENERATION_SHIFT) & GENERATION_MASK);
+    }
+
+    /**
+     * Get the number of entries the table can hold
+     */
+    public int getCapacity() {
+        return data.length;
+    }
+
+    /**
+     * Get the number of lookups made since the table was created or cleared
+     */
+    public long getProbes() {
+        return probes.sum();
+    }
+
+    /**
+     * Get the number of lookups which found the position
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * Get the number of results stored
+     */
+    public long getStores() {
+        return stores.sum();
+    }
+
+    /**
+     * Get the fraction of lookups which found the position
+     * @return the hit rate between 0 and 1
+     */
+    public double getHitRate() {
+        long probeCount = probes.sum();
+        return probeCount == 0 ? 0 : (double) hits.sum() / probeCount;
+    }
+
+    /**
+     * Estimate how full the table is from a sample of its entries
+     * @return the fraction of entries in use between 0 and 1
+     */
+    public double getFill() {
+        int sample = Math.min(FILL_SAMPLE_SIZE, data.length);
+        int used = 0;
+        for (int i = 0; i < sample; i++) {
+            if (data[i] != 0) { used++; }
+        }
+        return (double) used / sample;
+    }
+
+    private int bucketIndex(long key) {
+        return (int) ((key ^ (key >>> 32)) & bucketMask) << 1;
+    }
+}
@@ -0,0 +1,148 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the AlphaBetaPlayer class
+ */
+public class AlphaBetaPlayerTest {
+    private static boolean isLegal(Board board, Move move) {
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move.getCode()) { return true; }
+        }
+        return false;
+    }
+
+    @Test
+    public void testPonderThenMove() throws Exception {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(null, "PLAYER 2", AlphaBetaSearch.MAX_DEPTH, 400);
+        Board board = SearchBenchmark.createPosition(10, 1);
+        Position before = board.snapshot();
+
+        player.startPondering(board);
+        assertTrue(player.isPondering());
+        Thread.sleep(300);
+        player.stopPondering();
+        assertFalse(player.isPondering());
+        assertEquals(before, board.snapshot()); // pondered on a copy
+
+        int[] moves = new int[Board.MAX_MOVES];
+        board.generateMoves(moves);
+        board.makeMove(moves[0]);
+        while (board.isRemovalPending()) {
+            board.generateMoves(moves);
+            board.makeMove(moves[0]);
+        }
+        long start = System.nanoTime();
+        Move move = player.getMove(board);
+        long millis = (System.nanoTime() - start) / 1000000L;
+        assertTrue(isLegal(board, move));
+        assertTrue("Searched for " + millis + "ms", millis < 400 - 100); // less time after pondering
+    }
+
+    @Test
+    public void testSearchContinuesFromPonderedDepth() throws Exception {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(null, "PLAYER 2", 4, 60000);
+        Board board = SearchBenchmark.createPosition(10, 1);
+
+        // Pondering to the maximum depth finishes on its own
+        player.startPondering(board);
+        Thread.sleep(200);
+        player.stopPondering();
+        assertEquals(4, player.getSearch().getCompletedDepth());
+
+        int[] moves = new int[Board.MAX_MOVES];
+        board.generateMoves(moves);
+        board.makeMove(moves[0]);
+        while (board.isRemovalPending()) {
+            board.generateMoves(moves);
+            board.makeMove(moves[0]);
+        }
+        assertTrue(isLegal(board, player.getMove(board)));
+        assertEquals(4, player.getSearch().getCompletedDepth());
+        assertTrue(player.getSearch().getNodes() > 0);
+    }
+
+    @Test
+    public void testPonderWhileRemovalPending() {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(null, "PLAYER 2", 3, 1000);
+        Board board = SearchBenchmark.createPosition(0, 0);
+        int[] moves = new int[Board.MAX_MOVES];
+        while (!board.isRemovalPending()) {
+            board.generateMoves(moves);
+            board.makeMove(moves[0]);
+        }
+        player.startPondering(board);
+        assertTrue(player.isPondering());
+        player.stopPondering();
+
+        board.generateMoves(moves);
+        board.makeMove(moves[0]);
+        assertTrue(isLegal(board, player.getMove(board)));
+    }
+
+    @Test
+    public void testShutdownStopsPondering() {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(null, "PLAYER 2", AlphaBetaSearch.MAX_DEPTH, 1000);
+        player.startPondering(SearchBenchmark.createPosition(6, 2));
+        player.shutdown();
+        assertFalse(player.isPondering());
+    }
+
+    @Test
+    public void testStopBeforeSearchStarts() {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(null, "PLAYER 2", AlphaBetaSearch.MAX_DEPTH, 1000);
+        Board board = SearchBenchmark.createPosition(6, 2);
+        for (int i = 0; i < 20; i++) {
+            player.startPondering(board);
+            player.stopPondering();
+            assertFalse(player.isPondering());
+        }
+    }
+
+    @Test
+    public void testMoveStopsPondering() {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(null, "PLAYER 1", 3, 1000);
+        Board board = SearchBenchmark.createPosition(4, 3);
+        player.startPondering(board);
+        player.startPondering(board); // already pondering
+        assertTrue(isLegal(board, player.getMove(board)));
+        assertFalse(player.isPondering());
+        player.stopPondering(); // not pondering
+    }
+
+    @Test
+    public void testNoPonderingWhenGameOver() {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(null, "PLAYER 1", 3, 1000);
+        Board board = SearchBenchmark.createPosition(0, 0);
+        // The second player has been left with two pieces
+        board.restore(Position.of(new int[] { 0x7, 0x300 }, new int[] { 0, 0 },
+                new GameStage[] { GameStage.MOVING, GameStage.GAME_OVER }, 1, false));
+        assertTrue(board.isGameOver());
+        player.startPondering(board);
+        assertFalse(player.isPondering());
+    }
+
+    @Test
+    public void testIllegalBookMoveIsSearched() {
+        AlphaBetaPlayer player = new AlphaBetaPlayer(null, "PLAYER 2", 2, 1000);
+        Board board = SearchBenchmark.createPosition(0, 0);
+        board.makeMove(Move.encode(Move.NO_POINT, 0));
+        OpeningBook book = new OpeningBook();
+        book.put(board, Move.encode(Move.NO_POINT, 0)); // the point is taken
+        player.setOpeningBook(book);
+        assertTrue(isLegal(board, player.getMove(board)));
+    }
+
+    @Test
+    public void testHumanPlayerIgnoresPondering() {
+        Player player = new HumanPlayer(null, "PLAYER 1");
+        Board board = SearchBenchmark.createPosition(4, 3);
+        player.startPondering(board);
+        player.stopPondering();
+    }
+}
@@ -0,0 +1,106 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the AlphaBetaSearch class
+ */
+public class AlphaBetaSearchTest {
+    private Player[] players;
+    private Board board;
+
+    @Before
+    public void setUp() throws Exception {
+        players = new Player[] {
+                PlayerFactory.build(null, PlayerType.EASY_AI_PLAYER, "PLAYER 1"),
+                PlayerFactory.build(null, PlayerType.HARD_AI_PLAYER, "PLAYER 2")
+        };
+        board = new Board(players);
+    }
+
+    @Test
+    public void testFactoryBuildsAIPlayers() throws Exception {
+        assertTrue(players[0] instanceof AlphaBetaPlayer);
+        assertTrue(players[1] instanceof AlphaBetaPlayer);
+    }
+
+    @Test
+    public void testCompletesMill() throws Exception {
+        board.performMove(new Move(null, "a1"), players[0], null);
+        board.performMove(new Move(null, "b2"), players[1], null);
+        board.performMove(new Move(null, "d1"), players[0], null);
+        board.performMove(new Move(null, "f6"), players[1], null);
+
+        AlphaBetaSearch search = new AlphaBetaSearch();
+        int move = search.search(board, 3, 10000);
+        assertEquals(Board.POINT_INDEX[0][6], Move.getTo(move));
+        assertTrue(search.getCompletedDepth() >= 1);
+        assertTrue(search.getNodes() > 0);
+    }
+
+    @Test
+    public void testSearchRestoresBoard() throws Exception {
+        board.performMove(new Move(null, "a1"), players[0], null);
+        int[] before = new int[Board.MAX_MOVES];
+        int count = board.generateMoves(before);
+
+        new AlphaBetaSearch().search(board, 4, 10000);
+
+        int[] after = new int[Board.MAX_MOVES];
+        assertEquals(count, board.generateMoves(after));
+        assertArrayEquals(before, after);
+        assertEquals(1, board.getSideToMove());
+        assertEquals(8, board.getPiecesRemainingToBePlacedForPlayer(players[0]));
+    }
+
+    @Test
+    public void testTimeLimit() throws Exception {
+        AlphaBetaSearch search = new AlphaBetaSearch();
+        long start = System.nanoTime();
+        search.search(board, AlphaBetaSearch.MAX_DEPTH, 100);
+        assertTrue(System.nanoTime() - start < 2000000000L);
+        assertTrue(search.getCompletedDepth() < AlphaBetaSearch.MAX_DEPTH);
+    }
+
+    @Test
+    public void testPlaysLegalGame() throws Exception {
+        Player[] easyPlayers = {
+                new AlphaBetaPlayer(null, "PLAYER 1", 2, 20),
+                new AlphaBetaPlayer(null, "PLAYER 2", 3, 20)
+        };
+        Board game = new Board(easyPlayers);
+        for (int ply = 0; ply < 100 && !game.isGameOver(); ply++) {
+            Player player = game.getCurrentPlayer();
+            game.performMove(player.getMove(game), player, () -> {
+                try {
+                    game.performMove(player.getPieceToRemove(game), player, null);
+                } catch (Board.IllegalMoveException e) {
+                    fail(e.getMessage());
+                }
+            });
+        }
+    }
+
+    @Test
+    public void testStoppedDeeperStartKeepsStoredMove() throws Exception {
+        Board position = SearchBenchmark.createPosition(10, 1);
+        AlphaBetaSearch search = new AlphaBetaSearch();
+
+        // Asked to stop before it starts, the search returns the first move in its own order
+        search.stop();
+        int heuristicMove = search.search(position, 8, 10000, 1);
+        assertEquals(0, search.getCompletedDepth());
+
+        // As pondering leaves it, the table holds a deeper result preferring another move
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = position.generateMoves(moves);
+        int storedMove = moves[0] == heuristicMove ? moves[count - 1] : moves[0];
+        search.getTable().store(position.getHash(), storedMove, 0, 4, TranspositionTable.BOUND_EXACT);
+
+        search.stop();
+        assertEquals(storedMove, search.search(position, 8, 10000, 4));
+    }
+}
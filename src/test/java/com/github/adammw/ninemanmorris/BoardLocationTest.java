@@ -34,4 +34,32 @@ public class BoardLocationTest {
         assertEquals(loc.getX(), 3);
         assertEquals(loc.getY(), 6);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSharedInstances() throws Exception {
+        BoardLocation loc = BoardLocation.valueOf("d7");
+        assertSame(loc, BoardLocation.valueOf("d7"));
+        assertSame(loc, BoardLocation.of(22));
+        assertEquals(22, loc.getPoint());
+        assertEquals("d7", loc.toString());
+    }
+
+    @Test
+    public void testEqualsAndHashCode() throws Exception {
+        BoardLocation parsed = new BoardLocation("b4");
+        Object shared = BoardLocation.valueOf("b4");
+        assertEquals(shared, parsed);
+        assertEquals(shared.hashCode(), parsed.hashCode());
+        assertNotEquals(BoardLocation.valueOf("c4"), parsed);
+        assertNotEquals(parsed, null);
+    }
+
+    @Test
+    public void testEveryPoint() throws Exception {
+        for (int point = 0; point < Board.NUM_POINTS; point++) {
+            BoardLocation loc = BoardLocation.of(point);
+            assertEquals(point, Board.POINT_INDEX[loc.getY()][loc.getX()]);
+            assertSame(loc, BoardLocation.valueOf(loc.toString()));
+        }
+    }
+}
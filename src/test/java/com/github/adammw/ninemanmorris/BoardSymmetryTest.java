@@ -0,0 +1,117 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the BoardSymmetry class
+ */
+public class BoardSymmetryTest {
+    @Test
+    public void testIdentity() throws Exception {
+        for (int point = 0; point < Board.NUM_POINTS; point++) {
+            assertEquals(point, BoardSymmetry.PERMUTATIONS[0][point]);
+        }
+    }
+
+    @Test
+    public void testSymmetriesAreDistinctPermutations() throws Exception {
+        Set<String> seen = new HashSet<>();
+        for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+            assertEquals(Board.ALL_POINTS, BoardSymmetry.transform(Board.ALL_POINTS, symmetry));
+            assertTrue(seen.add(Arrays.toString(BoardSymmetry.PERMUTATIONS[symmetry])));
+        }
+        assertEquals(16, seen.size());
+    }
+
+    @Test
+    public void testSymmetriesPreserveMillsAndAdjacency() throws Exception {
+        Set<Integer> mills = new HashSet<>();
+        for (int mill : Board.MILLS) { mills.add(mill); }
+        for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+            for (int mill : Board.MILLS) {
+                assertTrue(mills.contains(BoardSymmetry.transform(mill, symmetry)));
+            }
+            for (int point = 0; point < Board.NUM_POINTS; point++) {
+                assertEquals(BoardSymmetry.transform(Board.ADJACENT[point], symmetry),
+                        Board.ADJACENT[BoardSymmetry.PERMUTATIONS[symmetry][point]]);
+            }
+        }
+    }
+
+    @Test
+    public void testRingSwap() throws Exception {
+        // Symmetry 8 swaps the outer ring with the inner ring, a1 (0) with c3 (6)
+        assertEquals(6, BoardSymmetry.PERMUTATIONS[8][0]);
+        assertEquals(0, BoardSymmetry.PERMUTATIONS[8][6]);
+        assertEquals(3, BoardSymmetry.PERMUTATIONS[8][3]);
+    }
+
+    @Test
+    public void testTransformMatchesPermutation() throws Exception {
+        Random random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            int mask = random.nextInt() & Board.ALL_POINTS;
+            int symmetry = random.nextInt(BoardSymmetry.COUNT);
+            int expected = 0;
+            for (int point = 0; point < Board.NUM_POINTS; point++) {
+                if ((mask & (1 << point)) != 0) { expected |= 1 << BoardSymmetry.transformPoint(point, symmetry); }
+            }
+            assertEquals(expected, BoardSymmetry.transform(mask, symmetry));
+        }
+    }
+
+    @Test
+    public void testInverse() throws Exception {
+        for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+            int inverse = BoardSymmetry.inverse(symmetry);
+            for (int point = 0; point < Board.NUM_POINTS; point++) {
+                assertEquals(point, BoardSymmetry.transformPoint(BoardSymmetry.transformPoint(point, symmetry), inverse));
+            }
+        }
+    }
+
+    @Test
+    public void testTransformMove() throws Exception {
+        // Symmetry 8 maps a1 (0) to c3 (6) and d1 (1) to d3 (7)
+        assertEquals(Move.encode(6, 7), BoardSymmetry.transformMove(Move.encode(0, 1), 8));
+        assertEquals(Move.encode(Move.NO_POINT, 6), BoardSymmetry.transformMove(Move.encode(Move.NO_POINT, 0), 8));
+        assertEquals(Move.encode(6, Move.NO_POINT), BoardSymmetry.transformMove(Move.encode(0, Move.NO_POINT), 8));
+    }
+
+    @Test
+    public void testCanonicalize() throws Exception {
+        Random random = new Random(2);
+        for (int i = 0; i < 1000; i++) {
+            int first = random.nextInt() & Board.ALL_POINTS;
+            int second = random.nextInt() & Board.ALL_POINTS & ~first;
+            int symmetry = BoardSymmetry.canonicalize(first, second);
+            long canonical = key(BoardSymmetry.transform(first, symmetry), BoardSymmetry.transform(second, symmetry));
+            for (int other = 0; other < BoardSymmetry.COUNT; other++) {
+                long copy = key(BoardSymmetry.transform(first, other), BoardSymmetry.transform(second, other));
+                assertTrue(canonical <= copy);
+                // Every copy of the position has the same canonical copy
+                int copySymmetry = BoardSymmetry.canonicalize((int) (copy >>> 24), (int) copy & Board.ALL_POINTS);
+                assertEquals(canonical, key(BoardSymmetry.transform((int) (copy >>> 24), copySymmetry),
+                        BoardSymmetry.transform((int) copy & Board.ALL_POINTS, copySymmetry)));
+            }
+        }
+    }
+
+    @Test
+    public void testCanonicalizeBoard() throws Exception {
+        Board board = SearchBenchmark.createPosition(12, 3);
+        int symmetry = BoardSymmetry.canonicalize(board);
+        assertEquals(BoardSymmetry.canonicalize(board.getPieces(0), board.getPieces(1)), symmetry);
+    }
+
+    private static long key(int first, int second) {
+        return ((long) first << 24) | second;
+    }
+}
@@ -6,8 +6,9 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
 import java.lang.reflect.Field;
-import java.util.HashMap;
-import java.util.List;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
 
 import static org.mockito.Mockito.*;
 import static org.junit.Assert.*;
@@ -19,9 +20,8 @@ public class BoardTest {
     private GameController controller;
     private Player[] players;
     private Board board;
-    private Piece[][] internalBoard;
-    private HashMap<Player, List<Piece>> playerPieces;
-    private HashMap<Player, GameStage> playerStages;
+    private int[] piecesInHand;
+    private int[] stages;
     private Board.MillFormedCallback callback;
 
     @Rule
@@ -38,15 +38,34 @@ public class BoardTest {
         board = new Board(players);
 
         // Expose private fields with reflection for use in tests
-        Field boardField = Board.class.getDeclaredField("board");
-        boardField.setAccessible(true);
-        internalBoard = (Piece[][]) boardField.get(board);
-        Field playerStagesField = Board.class.getDeclaredField("playerStages");
-        playerStagesField.setAccessible(true);
-        playerStages = (HashMap<Player, GameStage>) playerStagesField.get(board);
-        Field playerPiecesField = Board.class.getDeclaredField("playerPieces");
-        playerPiecesField.setAccessible(true);
-        playerPieces = (HashMap<Player, List<Piece>>) playerPiecesField.get(board);
+        Field stagesField = Board.class.getDeclaredField("stages");
+        stagesField.setAccessible(true);
+        stages = (int[]) stagesField.get(board);
+        Field piecesInHandField = Board.class.getDeclaredField("piecesInHand");
+        piecesInHandField.setAccessible(true);
+        piecesInHand = (int[]) piecesInHandField.get(board);
+    }
+
+    /**
+     * Set a player's stage directly, bypassing the game rules
+     */
+    private void setStage(Player player, GameStage stage) {
+        stages[player == players[0] ? 0 : 1] = stage.ordinal();
+    }
+
+    /**
+     * Put one of the player's remaining pieces directly onto the board, bypassing the game rules
+     */
+    private void placePiece(int x, int y, Player player) {
+        piecesInHand[player == players[0] ? 0 : 1]--;
+        board.addPiece(Board.POINT_INDEX[y][x], player == players[0] ? 0 : 1);
+    }
+
+    /**
+     * Take a piece directly off the board, bypassing the game rules
+     */
+    private void clearPiece(int x, int y) {
+        board.removePiece(Board.POINT_INDEX[y][x]);
     }
 
     @Test
@@ -68,12 +87,12 @@ public class BoardTest {
         Move move = new Move(null, "a1");
         board.performMove(move, players[0], callback);
         verifyZeroInteractions(callback);
-        assertNotNull(internalBoard[0][0]);
+        assertNotNull(board.getPieceAt(0, 0));
     }
 
     @Test
     public void testPlacingOccupiedLocation() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 0, players[0]);
 
         Move move = new Move(null, "a1");
         try {
@@ -89,8 +108,8 @@ public class BoardTest {
 
     @Test
     public void testMillDetectionColumn() throws Exception {
-        internalBoard[2][3] = playerPieces.get(players[0]).remove(0);
-        internalBoard[1][3] = playerPieces.get(players[0]).remove(0);
+        placePiece(3, 2, players[0]);
+        placePiece(3, 1, players[0]);
 
         Move move = new Move(null, "d1");
         board.performMove(move, players[0], callback);
@@ -99,8 +118,8 @@ public class BoardTest {
 
     @Test
     public void testMillDetectionRow() throws Exception {
-        internalBoard[6][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[6][6] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 6, players[0]);
+        placePiece(6, 6, players[0]);
 
         Move move = new Move(null, "d7");
         board.performMove(move, players[0], callback);
@@ -109,8 +128,8 @@ public class BoardTest {
 
     @Test
     public void testOpponentMillNotDetected() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[0][3] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 0, players[0]);
+        placePiece(3, 0, players[0]);
 
         Move move = new Move(null, "g1");
         board.performMove(move, players[1], callback);
@@ -119,10 +138,10 @@ public class BoardTest {
 
     @Test
     public void testAcrossMidpointMillNotDetected() throws Exception {
-        internalBoard[3][1] = playerPieces.get(players[0]).remove(0);
-        internalBoard[3][2] = playerPieces.get(players[0]).remove(0);
-        internalBoard[1][3] = playerPieces.get(players[0]).remove(0);
-        internalBoard[2][3] = playerPieces.get(players[0]).remove(0);
+        placePiece(1, 3, players[0]);
+        placePiece(2, 3, players[0]);
+        placePiece(3, 1, players[0]);
+        placePiece(3, 2, players[0]);
 
         board.performMove(new Move(null, "e4"), players[0], callback);
         verifyZeroInteractions(callback);
@@ -133,8 +152,8 @@ public class BoardTest {
 
     @Test
     public void testCantRemoveNoPiece() throws Exception {
-        internalBoard[6][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[6][6] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 6, players[0]);
+        placePiece(6, 6, players[0]);
 
         Move removeD7 = new Move("d7", null);
         board.performMove(new Move(null, "d1"), players[0], () -> {
@@ -149,8 +168,8 @@ public class BoardTest {
 
     @Test
     public void testCantRemoveOwnPiece() throws Exception {
-        internalBoard[6][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[6][6] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 6, players[0]);
+        placePiece(6, 6, players[0]);
 
         Move addD7 = new Move(null, "d7");
         Move removeD7 = new Move("d7", null);
@@ -171,14 +190,14 @@ public class BoardTest {
         final Move removeD2 = new Move("d2", null);
 
         // Set up the board with the opponent having a mill a1 - g1, and also a piece in d2
-        internalBoard[0][0] = playerPieces.get(players[1]).remove(0);
-        internalBoard[0][3] = playerPieces.get(players[1]).remove(0);
-        internalBoard[0][6] = playerPieces.get(players[1]).remove(0);
-        internalBoard[1][3] = playerPieces.get(players[1]).remove(0);
+        placePiece(0, 0, players[1]);
+        placePiece(3, 0, players[1]);
+        placePiece(6, 0, players[1]);
+        placePiece(3, 1, players[1]);
 
         // Create a mill a7-g7
-        internalBoard[6][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[6][6] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 6, players[0]);
+        placePiece(6, 6, players[0]);
         board.performMove(new Move(null, "d7"), players[0], () -> {
             // Expect removal of a1 to fail (non-mill pieces exist)
             try {
@@ -194,25 +213,25 @@ public class BoardTest {
             } catch(Board.IllegalMoveException exception) {
                 fail(exception.getMessage());
             }
-            assertNull(internalBoard[1][3]);
+            assertNull(board.getPieceAt(3, 1));
         });
 
 
         // Now only a mill remains, expect removal of a1 to succeed
-        internalBoard[6][3] = null;
+        clearPiece(3, 6);
         board.performMove(new Move(null, "d7"), players[0], () -> {
             try {
                 board.performMove(removeA1, players[0], null);
             } catch(Board.IllegalMoveException exception) {
                 fail(exception.getMessage());
             }
-            assertNull(internalBoard[0][0]);
+            assertNull(board.getPieceAt(0, 0));
         });
     }
 
     @Test
     public void testGameStageTransitions() throws Exception {
-        for (int i = 0; i < 5; i++) { playerPieces.get(players[0]).remove(0); } // throw 5 pieces away and place 4
+        piecesInHand[0] -= 5; // throw 5 pieces away and place 4
         board.performMove(new Move(null, "a1"), players[0], callback);
         board.performMove(new Move(null, "d2"), players[0], callback);
         board.performMove(new Move(null, "g4"), players[0], callback);
@@ -221,8 +240,8 @@ public class BoardTest {
         assertEquals(board.getStage(players[0]), GameStage.MOVING);
 
         // form a mill to remove one of player 1's pieces
-        internalBoard[6][0] = playerPieces.get(players[1]).remove(0);
-        internalBoard[6][3] = playerPieces.get(players[1]).remove(0);
+        placePiece(0, 6, players[1]);
+        placePiece(3, 6, players[1]);
         Move removeA4 = new Move("a4", null);
         board.performMove(new Move(null, "g7"), players[1], () -> {
             try {
@@ -235,7 +254,7 @@ public class BoardTest {
         assertEquals(board.getStage(players[0]), GameStage.FLYING);
 
         // form a mill to remove one of player 1's pieces
-        internalBoard[6][6] = null;
+        clearPiece(6, 6);
         Move removeA1 = new Move("a1", null);
         board.performMove(new Move(null, "g7"), players[1], () -> {
             try {
@@ -251,8 +270,8 @@ public class BoardTest {
 
     @Test
     public void testCantMoveOtherPlayer() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[1]).remove(0);
-        playerStages.put(players[0], GameStage.MOVING);
+        placePiece(0, 0, players[1]);
+        setStage(players[0], GameStage.MOVING);
 
         thrown.expect(Board.IllegalMoveException.class);
         thrown.expectMessage("Can't move another player's piece");
@@ -262,9 +281,9 @@ public class BoardTest {
 
     @Test
     public void testCantMoveOccupiedLocation() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[0][3] = playerPieces.get(players[0]).remove(0);
-        playerStages.put(players[0], GameStage.MOVING);
+        placePiece(0, 0, players[0]);
+        placePiece(3, 0, players[0]);
+        setStage(players[0], GameStage.MOVING);
 
         thrown.expect(Board.IllegalMoveException.class);
         thrown.expectMessage("Board location is occupied");
@@ -274,8 +293,8 @@ public class BoardTest {
 
     @Test
     public void testCantMoveWhereNotConnected() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
-        playerStages.put(players[0], GameStage.MOVING);
+        placePiece(0, 0, players[0]);
+        setStage(players[0], GameStage.MOVING);
 
         thrown.expect(Board.IllegalMoveException.class);
         thrown.expectMessage("Flying is not allowed yet");
@@ -285,8 +304,8 @@ public class BoardTest {
 
     @Test
     public void testCantMoveAcrossMidpoint() throws Exception {
-        internalBoard[3][2] = playerPieces.get(players[0]).remove(0);
-        playerStages.put(players[0], GameStage.MOVING);
+        placePiece(2, 3, players[0]);
+        setStage(players[0], GameStage.MOVING);
 
         thrown.expect(Board.IllegalMoveException.class);
         thrown.expectMessage("Flying is not allowed yet");
@@ -296,88 +315,480 @@ public class BoardTest {
 
     @Test
     public void testCanMoveHorizontallyOnMidpointRow() throws Exception {
-        internalBoard[3][0] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 3, players[0]);
 
-        playerStages.put(players[0], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("a4","b4"), players[0], callback);
 
-        playerStages.put(players[0], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("b4","a4"), players[0], callback);
     }
 
     @Test
     public void testCanMoveVerticallyOnMidpointColumn() throws Exception {
-        internalBoard[0][3] = playerPieces.get(players[0]).remove(0);
+        placePiece(3, 0, players[0]);
 
-        playerStages.put(players[0], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("d1","d2"), players[0], callback);
 
-        playerStages.put(players[0], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("d2","d1"), players[0], callback);
     }
 
 
     @Test
     public void testCanMoveHorizontally() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 0, players[0]);
 
-        playerStages.put(players[0], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("a1","d1"), players[0], callback);
 
-        playerStages.put(players[0], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("d1","a1"), players[0], callback);
     }
 
     @Test
     public void testCanMoveVertically() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 0, players[0]);
 
-        playerStages.put(players[0], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("a1","a4"), players[0], callback);
 
-        playerStages.put(players[0], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("a4","a1"), players[0], callback);
     }
 
     @Test
     public void testMoving() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
-        playerStages.put(players[0], GameStage.MOVING);
+        placePiece(0, 0, players[0]);
+        setStage(players[0], GameStage.MOVING);
         board.performMove(new Move("a1","d1"), players[0], callback);
         verifyZeroInteractions(callback);
     }
 
     @Test
     public void testGameOverIfCantMove() throws Exception {
-        playerStages.put(players[0], GameStage.MOVING);
-        playerStages.put(players[1], GameStage.MOVING);
+        setStage(players[0], GameStage.MOVING);
+        setStage(players[1], GameStage.MOVING);
 
         // Player 1's pieces
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[3][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[6][0] = playerPieces.get(players[0]).remove(0);
-        internalBoard[3][1] = playerPieces.get(players[0]).remove(0);
+        placePiece(0, 0, players[0]);
+        placePiece(0, 3, players[0]);
+        placePiece(0, 6, players[0]);
+        placePiece(1, 3, players[0]);
 
         // Player 2's blocking pieces
-        internalBoard[0][3] = playerPieces.get(players[1]).remove(0);
-        internalBoard[1][1] = playerPieces.get(players[1]).remove(0);
-        internalBoard[5][1] = playerPieces.get(players[1]).remove(0);
-        internalBoard[6][3] = playerPieces.get(players[1]).remove(0);
+        placePiece(3, 0, players[1]);
+        placePiece(1, 1, players[1]);
+        placePiece(1, 5, players[1]);
+        placePiece(3, 6, players[1]);
 
         // Move piece to c3->c4
-        internalBoard[2][2] = playerPieces.get(players[1]).remove(0);
+        placePiece(2, 2, players[1]);
         board.performMove(new Move("c3","c4"), players[1], callback);
         verifyZeroInteractions(callback);
 
-        assertEquals(playerStages.get(players[0]), GameStage.GAME_OVER);
+        assertEquals(board.getStage(players[0]), GameStage.GAME_OVER);
     }
 
     @Test
     public void testFlying() throws Exception {
-        internalBoard[0][0] = playerPieces.get(players[0]).remove(0);
-        playerStages.put(players[0], GameStage.FLYING);
+        placePiece(0, 0, players[0]);
+        setStage(players[0], GameStage.FLYING);
         board.performMove(new Move("a1","b2"), players[0], callback);
         verifyZeroInteractions(callback);
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testMillTables() throws Exception {
+        assertEquals(16, Board.MILLS.length);
+        for (int mill : Board.MILLS) {
+            assertEquals(3, Integer.bitCount(mill));
+        }
+
+        // a1 is in the mills a1-d1-g1 and a1-a4-a7
+        int a1 = Board.POINT_INDEX[0][0];
+        int d1 = Board.POINT_INDEX[0][3];
+        int g1 = Board.POINT_INDEX[0][6];
+        int a4 = Board.POINT_INDEX[3][0];
+        int a7 = Board.POINT_INDEX[6][0];
+        int[] mills = Board.POINT_MILLS[a1];
+        assertTrue(mills[0] == ((1 << a1) | (1 << d1) | (1 << g1)) || mills[1] == ((1 << a1) | (1 << d1) | (1 << g1)));
+        assertTrue(mills[0] == ((1 << a1) | (1 << a4) | (1 << a7)) || mills[1] == ((1 << a1) | (1 << a4) | (1 << a7)));
+    }
+
+    @Test
+    public void testAdjacencyTable() throws Exception {
+        int connections = 0;
+        for (int point = 0; point < Board.NUM_POINTS; point++) {
+            connections += Integer.bitCount(Board.ADJACENT[point]);
+        }
+        assertEquals(64, connections); // 32 lines, counted from both ends
+
+        // c4 and e4 are not connected across the centre of the board
+        int c4 = Board.POINT_INDEX[3][2];
+        int e4 = Board.POINT_INDEX[3][4];
+        assertEquals(0, Board.ADJACENT[c4] & (1 << e4));
+        assertEquals(4, Integer.bitCount(Board.ADJACENT[Board.POINT_INDEX[1][3]])); // d2
+        assertEquals(2, Integer.bitCount(Board.ADJACENT[Board.POINT_INDEX[1][1]])); // b2
+    }
+
+    @Test
+    public void testGenerateMovesPlacing() throws Exception {
+        int[] moves = new int[Board.MAX_MOVES];
+        assertEquals(24, board.generateMoves(moves));
+        for (int i = 0; i < 24; i++) {
+            assertEquals(Move.NO_POINT, Move.getFrom(moves[i]));
+        }
+
+        board.performMove(new Move(null, "a1"), players[0], callback);
+        assertEquals(1, board.getSideToMove());
+        assertEquals(23, board.generateMoves(moves));
+        for (int i = 0; i < 23; i++) {
+            assertNotEquals(Board.POINT_INDEX[0][0], Move.getTo(moves[i]));
+        }
+    }
+
+    @Test
+    public void testGenerateMovesMoving() throws Exception {
+        placePiece(0, 0, players[0]);
+        placePiece(3, 0, players[1]);
+        setStage(players[0], GameStage.MOVING);
+
+        // a1 can only move to a4 as d1 is occupied
+        int[] moves = new int[Board.MAX_MOVES];
+        assertEquals(1, board.generateMoves(moves));
+        assertEquals(Board.POINT_INDEX[0][0], Move.getFrom(moves[0]));
+        assertEquals(Board.POINT_INDEX[3][0], Move.getTo(moves[0]));
+        board.performMove(Move.decode(moves[0]), players[0], callback);
+    }
+
+    @Test
+    public void testGenerateMovesFlying() throws Exception {
+        placePiece(0, 0, players[0]);
+        placePiece(3, 0, players[1]);
+        setStage(players[0], GameStage.FLYING);
+
+        int[] moves = new int[Board.MAX_MOVES];
+        assertEquals(22, board.generateMoves(moves, 0));
+        board.performMove(Move.decode(moves[21]), players[0], callback);
+    }
+
+    @Test
+    public void testGenerateMovesRemoval() throws Exception {
+        // Set up the board with the opponent having a mill a1 - g1, and also a piece in d2
+        placePiece(0, 0, players[1]);
+        placePiece(3, 0, players[1]);
+        placePiece(6, 0, players[1]);
+        placePiece(3, 1, players[1]);
+
+        // Create a mill a7-g7, only d2 may be removed
+        placePiece(0, 6, players[0]);
+        placePiece(6, 6, players[0]);
+        int[] moves = new int[Board.MAX_MOVES];
+        board.performMove(new Move(null, "d7"), players[0], () -> {
+            assertEquals(1, board.generateMoves(moves, 1));
+            assertEquals(Board.POINT_INDEX[1][3], Move.getFrom(moves[1]));
+            assertEquals(Move.NO_POINT, Move.getTo(moves[1]));
+            try {
+                board.performMove(Move.decode(moves[1]), players[0], null);
+            } catch (Board.IllegalMoveException e) {
+                fail(e.getMessage());
+            }
+        });
+        assertEquals(1, board.getSideToMove());
+
+        // Once only the mill remains, any of its pieces may be removed
+        clearPiece(3, 6);
+        board.performMove(new Move(null, "d7"), players[0], () -> assertEquals(3, board.generateMoves(moves)));
+    }
+
+    /**
+     * Assert that two boards hold the same position
+     */
+    private void assertSamePosition(Board expected, Board actual) {
+        for (int point = 0; point < Board.NUM_POINTS; point++) {
+            Piece expectedPiece = expected.getPieceAt(Board.POINT_X[point], Board.POINT_Y[point]);
+            Piece actualPiece = actual.getPieceAt(Board.POINT_X[point], Board.POINT_Y[point]);
+            assertEquals(expectedPiece == null ? null : expectedPiece.getOwner(),
+                    actualPiece == null ? null : actualPiece.getOwner());
+        }
+        for (Player player : players) {
+            assertEquals(expected.getStage(player), actual.getStage(player));
+            assertEquals(expected.getPiecesRemainingToBePlacedForPlayer(player),
+                    actual.getPiecesRemainingToBePlacedForPlayer(player));
+        }
+        assertEquals(expected.getSideToMove(), actual.getSideToMove());
+    }
+
+    @Test
+    public void testMakeMoveMatchesPerformMove() throws Exception {
+        Random random = new Random(1);
+        for (int game = 0; game < 20; game++) {
+            Board performed = new Board(players);
+            Board made = new Board(players);
+            int[] moves = new int[Board.MAX_MOVES];
+            for (int ply = 0; ply < 200 && !performed.isGameOver(); ply++) {
+                Player player = performed.getCurrentPlayer();
+                int count = performed.generateMoves(moves);
+                assertEquals(count, made.generateMoves(moves));
+                int move = moves[random.nextInt(count)];
+                int[] removal = {-1};
+                performed.performMove(Move.decode(move), player, () -> {
+                    int removals = performed.generateMoves(moves);
+                    if (removals == 0) { return; }
+                    removal[0] = moves[random.nextInt(removals)];
+                    try {
+                        performed.performMove(Move.decode(removal[0]), player, null);
+                    } catch (Board.IllegalMoveException e) {
+                        fail(e.getMessage());
+                    }
+                });
+                made.makeMove(move);
+                if (removal[0] >= 0) {
+                    made.makeMove(removal[0]);
+                }
+                assertSamePosition(performed, made);
+                assertEquals(performed.isGameOver(), made.isGameOver());
+            }
+        }
+    }
+
+    @Test
+    public void testUnmakeMoveRestoresPosition() throws Exception {
+        Random random = new Random(2);
+        Board reference = new Board(players);
+        int[] moves = new int[Board.MAX_MOVES];
+        int plies = 0;
+        for (; plies < 300 && !board.isGameOver(); plies++) {
+            int count = board.generateMoves(moves);
+            if (count == 0) { break; }
+            board.makeMove(moves[random.nextInt(count)]);
+        }
+        assertTrue(plies > 18);
+        for (int i = 0; i < plies; i++) {
+            board.unmakeMove();
+        }
+        assertSamePosition(reference, board);
+        assertEquals(24, board.generateMoves(moves));
+    }
+
+    @Test
+    public void testHashUpdatedIncrementally() throws Exception {
+        Random random = new Random(3);
+        int[] moves = new int[Board.MAX_MOVES];
+        long initialHash = board.getHash();
+        assertEquals(board.computeHash(), initialHash);
+
+        int plies = 0;
+        for (; plies < 200 && !board.isGameOver(); plies++) {
+            int count = board.generateMoves(moves);
+            if (count == 0) { break; }
+            long before = board.getHash();
+            board.makeMove(moves[random.nextInt(count)]);
+            assertEquals(board.computeHash(), board.getHash());
+            assertNotEquals(before, board.getHash());
+        }
+        for (int i = 0; i < plies; i++) {
+            board.unmakeMove();
+            assertEquals(board.computeHash(), board.getHash());
+        }
+        assertEquals(initialHash, board.getHash());
+    }
+
+    @Test
+    public void testHashTransposition() throws Exception {
+        Board other = new Board(players);
+        board.performMove(new Move(null, "a1"), players[0], callback);
+        board.performMove(new Move(null, "g7"), players[1], callback);
+        board.performMove(new Move(null, "d2"), players[0], callback);
+        other.performMove(new Move(null, "d2"), players[0], callback);
+        other.performMove(new Move(null, "g7"), players[1], callback);
+        other.performMove(new Move(null, "a1"), players[0], callback);
+        assertEquals(board.computeHash(), board.getHash());
+        assertEquals(board.getHash(), other.getHash());
+    }
+
+    /**
+     * Check the incrementally updated piece and mill counts against counts made from scratch
+     */
+    private void assertMillsConsistent(Board board) {
+        for (int side = 0; side < 2; side++) {
+            int pieces = board.getPieces(side);
+            int mills = 0;
+            int inMills = 0;
+            for (int mill = 0; mill < Board.MILLS.length; mill++) {
+                if ((pieces & Board.MILLS[mill]) == Board.MILLS[mill]) {
+                    mills |= 1 << mill;
+                    inMills |= Board.MILLS[mill];
+                }
+            }
+            assertEquals(mills, board.getFormedMills(side));
+            assertEquals(inMills, board.piecesInMillsOwnedByPlayer(side));
+            assertEquals(Integer.bitCount(inMills), board.numPiecesInMillsOwnedByPlayer(side));
+            for (int point = 0; point < Board.NUM_POINTS; point++) {
+                assertEquals((inMills & (1 << point)) != 0, board.isInMill(point, side));
+            }
+        }
+    }
+
+    @Test
+    public void testMillsUpdatedIncrementally() throws Exception {
+        Random random = new Random(7);
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int game = 0; game < 20; game++) {
+            Board board = new Board(players);
+            int plies = 0;
+            for (; plies < 300 && !board.isGameOver(); plies++) {
+                int count = board.generateMoves(moves);
+                if (count == 0) { break; }
+                board.makeMove(moves[random.nextInt(count)]);
+                assertMillsConsistent(board);
+                assertMillsConsistent(new Board(board));
+            }
+            for (int i = 0; i < plies; i++) {
+                board.unmakeMove();
+                assertMillsConsistent(board);
+            }
+        }
+    }
+
+    @Test
+    public void testMillSharingPoint() throws Exception {
+        // a1 is part of the a1-d1-g1 and a1-a4-a7 mills, breaking one leaves it in the other
+        placePiece(0, 0, players[0]);
+        placePiece(3, 0, players[0]);
+        placePiece(6, 0, players[0]);
+        placePiece(0, 3, players[0]);
+        placePiece(0, 6, players[0]);
+        assertEquals(5, board.numPiecesInMillsOwnedByPlayer(0));
+        clearPiece(6, 0);
+        assertEquals(3, board.numPiecesInMillsOwnedByPlayer(0));
+        assertTrue(board.isInMill(0, 0));
+        assertFalse(board.isInMill(1, 0));
+        assertMillsConsistent(board);
+    }
+
+    @Test
+    public void testSnapshotAndRestore() throws Exception {
+        Random random = new Random(11);
+        int[] moves = new int[Board.MAX_MOVES];
+        int[] restoredMoves = new int[Board.MAX_MOVES];
+        Board restored = new Board(players);
+        for (int plies = 0; plies < 300 && !board.isGameOver(); plies++) {
+            int count = board.generateMoves(moves);
+            if (count == 0) { break; }
+            board.makeMove(moves[random.nextInt(count)]);
+
+            Position position = board.snapshot();
+            restored.restore(Position.fromLong(position.toLong()));
+            assertEquals(position, restored.snapshot());
+            assertEquals(board.getHash(), restored.getHash());
+            assertEquals(board.isGameOver(), restored.isGameOver());
+            assertEquals(board.generateMoves(moves), restored.generateMoves(restoredMoves));
+            assertMillsConsistent(restored);
+        }
+    }
+
+    @Test
+    public void testCopyIsIndependent() throws Exception {
+        board.performMove(new Move(null, "a1"), players[0], callback);
+        Position position = board.snapshot();
+        Board copy = board.copy();
+        copy.performMove(new Move(null, "d1"), players[1], callback);
+        assertEquals(position, board.snapshot());
+        assertNotEquals(position, copy.snapshot());
+    }
+
+    @Test
+    public void testPlayTurnStatus() throws Exception {
+        int a1 = 0, d1 = 1, g1 = 2, d2 = 4, a4 = 9;
+        assertEquals(Board.TurnStatus.WRONG_STAGE, board.playTurn(Move.encode(a1, d1), Move.NO_POINT));
+        assertEquals(Board.TurnStatus.INVALID_MOVE, board.playTurn(Move.encode(a1, Move.NO_POINT), Move.NO_POINT));
+        assertEquals(Board.TurnStatus.OK, board.playTurn(Move.encode(Move.NO_POINT, a1), Move.NO_POINT));
+        assertEquals(Board.TurnStatus.OCCUPIED, board.playTurn(Move.encode(Move.NO_POINT, a1), Move.NO_POINT));
+        assertEquals(Board.TurnStatus.REMOVAL_NOT_ALLOWED, board.playTurn(Move.encode(Move.NO_POINT, d2), a1));
+        assertEquals(Board.TurnStatus.OK, board.playTurn(Move.encode(Move.NO_POINT, d2), Move.NO_POINT));
+        assertEquals(Board.TurnStatus.OK, board.playTurn(Move.encode(Move.NO_POINT, d1), Move.NO_POINT));
+        assertEquals(Board.TurnStatus.OK, board.playTurn(Move.encode(Move.NO_POINT, a4), Move.NO_POINT));
+
+        // a1 d1 g1 forms a mill for the first player
+        long hash = board.getHash();
+        assertEquals(Board.TurnStatus.REMOVAL_REQUIRED, board.playTurn(Move.encode(Move.NO_POINT, g1), Move.NO_POINT));
+        assertEquals(Board.TurnStatus.NOT_OPPONENT_PIECE, board.playTurn(Move.encode(Move.NO_POINT, g1), a1));
+        assertEquals(hash, board.getHash());
+        assertEquals(Board.TurnStatus.OK, board.playTurn(Move.encode(Move.NO_POINT, g1), d2));
+        assertEquals(1, board.getSideToMove());
+        assertFalse(board.isRemovalPending());
+        assertEquals(1, Integer.bitCount(board.getPieces(1)));
+
+        // The turn is two moves for unmakeMove
+        board.unmakeMove();
+        assertTrue(board.isRemovalPending());
+        assertEquals(Board.TurnStatus.REMOVAL_PENDING, board.playTurn(Move.encode(Move.NO_POINT, d2), Move.NO_POINT));
+        board.unmakeMove();
+        assertEquals(hash, board.getHash());
+    }
+
+    @Test
+    public void testPlayTurnRemovalFromMill() throws Exception {
+        // The second player forms a mill on a7 d7 g7, taking a1, then places a piece at a4 outside it
+        int[][] turns = {{3, Move.NO_POINT}, {21, Move.NO_POINT}, {5, Move.NO_POINT}, {22, Move.NO_POINT},
+                {0, Move.NO_POINT}, {23, 0}, {13, Move.NO_POINT}, {9, Move.NO_POINT}};
+        for (int[] turn : turns) {
+            assertEquals(Board.TurnStatus.OK, board.playTurn(Move.encode(Move.NO_POINT, turn[0]), turn[1]));
+        }
+
+        // b2 d2 f2 forms a mill for the first player, who must take a4 rather than a piece in the mill
+        assertEquals(Board.TurnStatus.REMOVAL_FROM_MILL, board.playTurn(Move.encode(Move.NO_POINT, 4), 21));
+        assertEquals(Board.TurnStatus.OK, board.playTurn(Move.encode(Move.NO_POINT, 4), 9));
+    }
+
+    @Test
+    public void testPlayTurnMatchesGenerateMoves() throws Exception {
+        Random random = new Random(5);
+        int[] moves = new int[Board.MAX_MOVES];
+        int[] removals = new int[Board.MAX_MOVES];
+        for (int plies = 0; plies < 120 && !board.isGameOver(); plies++) {
+            // Collect every legal turn as a move and removal
+            Set<Long> legal = new HashSet<>();
+            int count = board.generateMoves(moves);
+            for (int i = 0; i < count; i++) {
+                board.makeMove(moves[i]);
+                if (board.isRemovalPending()) {
+                    int removalCount = board.generateMoves(removals);
+                    for (int j = 0; j < removalCount; j++) {
+                        legal.add((long) moves[i] << 32 | Move.getFrom(removals[j]));
+                    }
+                } else {
+                    legal.add((long) moves[i] << 32 | (Move.NO_POINT & 0xffffffffL));
+                }
+                board.unmakeMove();
+            }
+
+            long hash = board.getHash();
+            int played = 0;
+            for (int from = Move.NO_POINT; from < Board.NUM_POINTS; from++) {
+                for (int to = 0; to < Board.NUM_POINTS; to++) {
+                    for (int removed = Move.NO_POINT; removed < Board.NUM_POINTS; removed++) {
+                        int move = Move.encode(from, to);
+                        Board.TurnStatus status = board.playTurn(move, removed);
+                        assertEquals(legal.contains((long) move << 32 | (removed & 0xffffffffL)), status.isLegal());
+                        if (status.isLegal()) {
+                            played++;
+                            board.unmakeMove();
+                            if (removed != Move.NO_POINT) { board.unmakeMove(); }
+                        }
+                        assertEquals(hash, board.getHash());
+                    }
+                }
+            }
+            assertEquals(legal.size(), played);
+            board.makeMove(moves[random.nextInt(count)]);
+            if (board.isRemovalPending()) {
+                board.generateMoves(removals);
+                board.makeMove(removals[0]);
+            }
+        }
+    }
+}
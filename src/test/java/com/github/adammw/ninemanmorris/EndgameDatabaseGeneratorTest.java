@@ -0,0 +1,115 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the EndgameDatabaseGenerator class
+ */
+public class EndgameDatabaseGeneratorTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static EndgameDatabaseGenerator generator;
+    private static EndgameTable subspace;
+    private static List<String> solved = new ArrayList<>();
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        generator = new EndgameDatabaseGenerator(folder.getRoot(), 3, 1);
+        generator.setProgressListener((w, b, positions, nanos) -> solved.add(w + "-" + b + ":" + positions));
+        generator.generate();
+        subspace = EndgameTable.open(generator.getFile(3, 3));
+    }
+
+    @Test
+    public void testFileWritten() throws Exception {
+        assertTrue(generator.getFile(3, 3).exists());
+        assertEquals(EndgameTable.HEADER_SIZE + 2 * new EndgameIndex(3, 3).getSize(), generator.getFile(3, 3).length());
+    }
+
+    @Test
+    public void testProgressReported() throws Exception {
+        assertEquals(1, solved.size());
+        assertEquals("3-3:" + new EndgameIndex(3, 3).getSize(), solved.get(0));
+    }
+
+    @Test
+    public void testPairSize() throws Exception {
+        assertEquals(new EndgameIndex(3, 3).getSize(), EndgameDatabaseGenerator.getPairSize(3, 3));
+        assertEquals(new EndgameIndex(3, 4).getSize() + new EndgameIndex(4, 3).getSize(),
+                EndgameDatabaseGenerator.getPairSize(3, 4));
+    }
+
+    @Test
+    public void testMillInOne() throws Exception {
+        // a1, d1 and g4 can fly to g1 to close the top mill
+        int toMove = bit(0) | bit(1) | bit(14);
+        int opponent = bit(9) | bit(10) | bit(11);
+        assertEquals(EndgameValue.win(1), subspace.get(toMove, opponent));
+    }
+
+    @Test
+    public void testValuesAreConsistent() throws Exception {
+        // Every value should follow from the values of the positions one move later
+        EndgameIndex index = new EndgameIndex(3, 3);
+        Random random = new Random(7);
+        int wins = 0;
+        int losses = 0;
+        for (int i = 0; i < 20000; i++) {
+            long position = index.positionAt((long) (random.nextDouble() * index.getSize()));
+            int toMove = EndgameIndex.getToMove(position);
+            int opponent = EndgameIndex.getOpponent(position);
+            short value = subspace.get(toMove, opponent);
+            assertEquals(expectedValue(toMove, opponent), value);
+            if (EndgameValue.isWin(value)) { wins++; }
+            if (EndgameValue.isLoss(value)) { losses++; }
+        }
+        assertTrue(wins > 0);
+        assertTrue(losses > 0);
+    }
+
+    /**
+     * Work out the value of a position with three pieces each from the stored values of its successors
+     */
+    private short expectedValue(int toMove, int opponent) {
+        int empty = ~(toMove | opponent) & Board.ALL_POINTS;
+        int shortestWin = Integer.MAX_VALUE;
+        int longestLoss = -1;
+        boolean draw = false;
+        for (int from = 0; from < Board.NUM_POINTS; from++) {
+            if ((toMove & bit(from)) == 0) { continue; }
+            for (int to = 0; to < Board.NUM_POINTS; to++) {
+                if ((empty & bit(to)) == 0) { continue; }
+                int moved = toMove ^ bit(from) ^ bit(to);
+                if (EndgameDatabaseGenerator.formsMill(moved, to)) {
+                    shortestWin = 1;
+                    continue;
+                }
+                short next = subspace.get(opponent, moved);
+                if (EndgameValue.isLoss(next)) {
+                    shortestWin = Math.min(shortestWin, EndgameValue.getDistance(next) + 1);
+                } else if (EndgameValue.isDraw(next)) {
+                    draw = true;
+                } else {
+                    longestLoss = Math.max(longestLoss, EndgameValue.getDistance(next) + 1);
+                }
+            }
+        }
+        if (shortestWin != Integer.MAX_VALUE) { return EndgameValue.win(shortestWin); }
+        if (draw) { return EndgameValue.DRAW; }
+        return EndgameValue.loss(longestLoss);
+    }
+
+    private static int bit(int point) {
+        return 1 << point;
+    }
+}
@@ -0,0 +1,114 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the EndgameDatabase class
+ */
+public class EndgameDatabaseTest {
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static EndgameDatabase database;
+
+    @BeforeClass
+    public static void generate() throws Exception {
+        new EndgameDatabaseGenerator(folder.getRoot(), 3, 1).generate();
+        database = new EndgameDatabase(folder.getRoot());
+    }
+
+    @Test
+    public void testContains() throws Exception {
+        assertTrue(database.contains(3, 3));
+        assertFalse(database.contains(4, 3));
+        assertFalse(database.contains(2, 3));
+        assertEquals(EndgameValue.UNKNOWN, database.probe(0b1111, 0b111 << 8));
+    }
+
+    @Test
+    public void testProbeBoard() throws Exception {
+        Board board = SearchBenchmark.createPosition(0, 0);
+        assertEquals(EndgameValue.UNKNOWN, database.probe(board));
+    }
+
+    @Test
+    public void testConcurrentProbes() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            long seed = t;
+            results.add(pool.submit(() -> {
+                Random random = new Random(seed);
+                for (int i = 0; i < 10000; i++) {
+                    int toMove = 0;
+                    int opponent = 0;
+                    while (Integer.bitCount(toMove) < 3) { toMove |= 1 << random.nextInt(Board.NUM_POINTS); }
+                    while (Integer.bitCount(opponent) < 3) {
+                        opponent |= (1 << random.nextInt(Board.NUM_POINTS)) & ~toMove;
+                    }
+                    // A symmetric copy of the position must give the same value
+                    int symmetry = random.nextInt(BoardSymmetry.COUNT);
+                    short value = database.probe(toMove, opponent);
+                    if (!EndgameValue.isKnown(value) || value != database.probe(
+                            BoardSymmetry.transform(toMove, symmetry), BoardSymmetry.transform(opponent, symmetry))) {
+                        return false;
+                    }
+                }
+                return true;
+            }));
+        }
+        for (Future<Boolean> result : results) {
+            assertTrue(result.get());
+        }
+        pool.shutdown();
+    }
+
+    @Test
+    public void testCorruptHeaders() throws Exception {
+        assertNotATable(writeTable(EndgameTable.MAGIC, EndgameTable.VERSION, -1, 3, 0));
+        assertNotATable(writeTable(EndgameTable.MAGIC, EndgameTable.VERSION, 3, 20, 0));
+        assertNotATable(writeTable(EndgameTable.MAGIC, EndgameTable.VERSION, 3, 3, 5)); // wrong size
+        assertNotATable(writeTable(EndgameTable.MAGIC, EndgameTable.VERSION, 3, 3,
+                new EndgameIndex(3, 3).getSize())); // truncated
+        assertNotATable(writeTable(0, EndgameTable.VERSION, 3, 3, 0));
+    }
+
+    private static File writeTable(int magic, int version, int toMoveCount, int opponentCount, long size)
+            throws IOException {
+        File file = folder.newFile();
+        try (DataOutputStream out = new DataOutputStream(new FileOutputStream(file))) {
+            out.writeInt(magic);
+            out.writeInt(version);
+            out.writeInt(toMoveCount);
+            out.writeInt(opponentCount);
+            out.writeLong(size);
+            out.writeShort(0);
+        }
+        return file;
+    }
+
+    private static void assertNotATable(File file) {
+        try {
+            EndgameTable.open(file);
+            fail("Opened " + file);
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+}
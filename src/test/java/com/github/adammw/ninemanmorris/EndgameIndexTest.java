@@ -0,0 +1,109 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the EndgameIndex class
+ */
+public class EndgameIndexTest {
+    @Test
+    public void testSize() throws Exception {
+        // Almost every set of 9 points has 16 distinct symmetric copies
+        long size = new EndgameIndex(9, 9).getSize();
+        assertTrue(size >= 1307504L * 5005L / 16);
+        assertTrue(size < 1307504L * 5005L / 15);
+    }
+
+    @Test
+    public void testRankAndUnrank() throws Exception {
+        for (long rank = 0; rank < EndgameIndex.BINOMIAL[Board.NUM_POINTS][3]; rank++) {
+            int mask = EndgameIndex.unrank(rank, 3);
+            assertEquals(3, Integer.bitCount(mask));
+            assertEquals(rank, EndgameIndex.rank(mask));
+        }
+    }
+
+    @Test
+    public void testCompressAndExpand() throws Exception {
+        int free = 0b101101100;
+        assertEquals(0b10110, EndgameIndex.compress(0b100101000, free));
+        assertEquals(0b100101000, EndgameIndex.expand(0b10110, free));
+    }
+
+    @Test
+    public void testIndexRoundTrip() throws Exception {
+        EndgameIndex index = new EndgameIndex(5, 4);
+        Random random = new Random(1);
+        for (int i = 0; i < 10000; i++) {
+            int toMove = randomSet(random, 5, 0);
+            int opponent = randomSet(random, 4, toMove);
+            long id = index.indexOf(toMove, opponent);
+            assertTrue(id >= 0 && id < index.getSize());
+            assertTrue(index.isCanonical(id));
+
+            long position = index.positionAt(id);
+            assertEquals(5, Integer.bitCount(EndgameIndex.getToMove(position)));
+            assertEquals(4, Integer.bitCount(EndgameIndex.getOpponent(position)));
+            assertEquals(0, EndgameIndex.getToMove(position) & EndgameIndex.getOpponent(position));
+            assertEquals(id, index.indexOf(EndgameIndex.getToMove(position), EndgameIndex.getOpponent(position)));
+        }
+    }
+
+    @Test
+    public void testSymmetricPositionsShareIndex() throws Exception {
+        EndgameIndex index = new EndgameIndex(4, 3);
+        Random random = new Random(2);
+        for (int i = 0; i < 1000; i++) {
+            int toMove = randomSet(random, 4, 0);
+            int opponent = randomSet(random, 3, toMove);
+            long id = index.indexOf(toMove, opponent);
+            for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+                assertEquals(id, index.indexOf(BoardSymmetry.transform(toMove, symmetry),
+                        BoardSymmetry.transform(opponent, symmetry)));
+            }
+        }
+    }
+
+    @Test
+    public void testDistinctPositionsHaveDistinctIndexes() throws Exception {
+        // Every position with 3 pieces against 2 either maps to a new index or to a symmetric copy's
+        EndgameIndex index = new EndgameIndex(3, 2);
+        long[] positions = new long[(int) index.getSize()];
+        for (int rank = 0; rank < EndgameIndex.BINOMIAL[Board.NUM_POINTS][3]; rank++) {
+            int toMove = EndgameIndex.unrank(rank, 3);
+            for (int opponentRank = 0; opponentRank < EndgameIndex.BINOMIAL[Board.NUM_POINTS - 3][2]; opponentRank++) {
+                int opponent = EndgameIndex.expand(EndgameIndex.unrank(opponentRank, 2), ~toMove & Board.ALL_POINTS);
+                int id = (int) index.indexOf(toMove, opponent);
+                long position = EndgameIndex.pack(toMove, opponent);
+                if (positions[id] == 0) {
+                    positions[id] = position;
+                } else {
+                    assertTrue(isSymmetric(positions[id], position));
+                }
+            }
+        }
+    }
+
+    private static boolean isSymmetric(long a, long b) {
+        for (int symmetry = 0; symmetry < BoardSymmetry.COUNT; symmetry++) {
+            if (BoardSymmetry.transform(EndgameIndex.getToMove(a), symmetry) == EndgameIndex.getToMove(b) &&
+                    BoardSymmetry.transform(EndgameIndex.getOpponent(a), symmetry) == EndgameIndex.getOpponent(b)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static int randomSet(Random random, int count, int exclude) {
+        int mask = 0;
+        while (Integer.bitCount(mask) < count) {
+            int point = random.nextInt(Board.NUM_POINTS);
+            if ((exclude & (1 << point)) == 0) { mask |= 1 << point; }
+        }
+        return mask;
+    }
+}
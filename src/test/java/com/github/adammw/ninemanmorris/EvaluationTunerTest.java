@@ -0,0 +1,136 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the EvaluationTuner class
+ */
+public class EvaluationTunerTest {
+    /**
+     * Build a dataset where the first player wins when ahead on material and loses when behind, except for a
+     * few results which go the other way
+     */
+    private static EvaluationTuner.Dataset materialDataset(int size, long seed) {
+        EvaluationTuner.Dataset dataset = new EvaluationTuner.Dataset();
+        Random random = new Random(seed);
+        int[] features = new int[Evaluator.FEATURES];
+        for (int i = 0; i < size; i++) {
+            for (int f = 0; f < Evaluator.FEATURES; f++) {
+                features[f] = random.nextInt(7) - 3;
+            }
+            int material = features[Evaluator.Feature.MATERIAL.ordinal()];
+            int points = material > 0 ? 2 : material < 0 ? 0 : 1;
+            if (random.nextInt(10) == 0) { points = 2 - points; }
+            dataset.add(features, random.nextInt(Evaluator.PHASES), points);
+        }
+        return dataset;
+    }
+
+    @Test
+    public void testGamePositionsMatchEvaluator() {
+        EvaluationTuner.Dataset dataset = new EvaluationTuner.Dataset();
+        Evaluator evaluator = new Evaluator();
+        int[] weights = evaluator.getWeights();
+        Board board = SearchBenchmark.createPosition(0, 0);
+        int positions = 0;
+        for (int game = 0; game < 20; game++) {
+            int[] moves = GameRecordTest.randomGame(game, 300);
+            int winner = game % 3 - 1;
+            int added = dataset.addGame(moves, moves.length, winner, 4);
+            for (int i = 0; i < moves.length; i++) {
+                board.makeMove(moves[i]);
+                if (i + 1 < 4 || board.isRemovalPending()) { continue; }
+                assertEquals(evaluator.evaluate(board, 0), dataset.evaluate(positions, weights));
+                assertEquals(winner == GameResult.DRAW ? 0.5 : winner == 0 ? 1 : 0, dataset.getResult(positions), 0);
+                positions++;
+                added--;
+            }
+            assertEquals(0, added);
+            for (int i = 0; i < moves.length; i++) {
+                board.unmakeMove();
+            }
+        }
+        assertEquals(positions, dataset.size());
+        assertTrue(positions > 1024); // the arrays have grown
+    }
+
+    @Test
+    public void testParallelErrorMatchesSequential() {
+        EvaluationTuner.Dataset dataset = materialDataset(5 * EvaluationTuner.SPLIT_THRESHOLD + 123, 1);
+        int[] weights = new Evaluator().getWeights();
+        EvaluationTuner tuner = new EvaluationTuner(dataset, 4);
+        try {
+            double expected = dataset.sumErrors(0, dataset.size(), weights, tuner.getScale()) / dataset.size();
+            assertEquals(expected, tuner.computeError(weights), 1e-12);
+        } finally {
+            tuner.shutdown();
+        }
+    }
+
+    @Test
+    public void testEmptyDataset() {
+        EvaluationTuner tuner = new EvaluationTuner(new EvaluationTuner.Dataset(), 1);
+        try {
+            assertEquals(0, tuner.computeError(new Evaluator().getWeights()), 0);
+        } finally {
+            tuner.shutdown();
+        }
+    }
+
+    @Test
+    public void testExpectedResult() {
+        assertEquals(0.5, EvaluationTuner.expectedResult(0, 1), 1e-12);
+        assertEquals(10 / 11.0, EvaluationTuner.expectedResult(400, 1), 1e-12);
+        assertEquals(1 / 11.0, EvaluationTuner.expectedResult(-200, 2), 1e-12);
+    }
+
+    @Test
+    public void testFitScale() {
+        EvaluationTuner.Dataset dataset = materialDataset(20000, 2);
+        int[] weights = new Evaluator().getWeights();
+        EvaluationTuner tuner = new EvaluationTuner(dataset, 2);
+        try {
+            double scale = tuner.fitScale(weights);
+            assertEquals(scale, tuner.getScale(), 0);
+            double error = dataset.sumErrors(0, dataset.size(), weights, scale);
+            assertTrue(error < dataset.sumErrors(0, dataset.size(), weights, scale * 0.9));
+            assertTrue(error < dataset.sumErrors(0, dataset.size(), weights, scale * 1.1));
+        } finally {
+            tuner.shutdown();
+        }
+    }
+
+    @Test
+    public void testTuneLowersError() {
+        EvaluationTuner.Dataset dataset = materialDataset(20000, 3);
+        Evaluator initial = new Evaluator();
+        EvaluationTuner tuner = new EvaluationTuner(dataset, 2);
+        try {
+            tuner.fitScale(initial.getWeights());
+            double initialError = tuner.computeError(initial.getWeights());
+            double[] lastError = { initialError };
+            Evaluator tuned = tuner.tune(initial, 8, (evaluator, error) -> {
+                assertTrue(error < lastError[0]);
+                assertEquals(error, tuner.computeError(evaluator.getWeights()), 1e-12);
+                lastError[0] = error;
+            });
+            assertTrue(lastError[0] < initialError);
+            assertEquals(lastError[0], tuner.computeError(tuned.getWeights()), 1e-12);
+            // Only material decides the results, so it should outweigh every other feature
+            for (int phase = 0; phase < Evaluator.PHASES; phase++) {
+                int material = tuned.getWeight(phase, Evaluator.Feature.MATERIAL);
+                for (Evaluator.Feature feature : Evaluator.Feature.values()) {
+                    if (feature != Evaluator.Feature.MATERIAL) {
+                        assertTrue(material > 4 * Math.abs(tuned.getWeight(phase, feature)));
+                    }
+                }
+            }
+        } finally {
+            tuner.shutdown();
+        }
+    }
+}
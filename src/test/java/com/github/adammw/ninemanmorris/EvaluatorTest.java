@@ -0,0 +1,141 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Evaluator class
+ */
+public class EvaluatorTest {
+    /**
+     * Count the features of one player by scanning the board
+     */
+    private static int[] countFeatures(Board board, int side) {
+        int pieces = board.getPieces(side);
+        int opponentPieces = board.getPieces(side ^ 1);
+        int empty = ~(pieces | opponentPieces) & Board.ALL_POINTS;
+        int[] features = new int[Evaluator.FEATURES];
+        features[Evaluator.Feature.MATERIAL.ordinal()] = Integer.bitCount(pieces) + board.getPiecesInHand(side);
+        int inMills = 0;
+        for (int mill : Board.MILLS) {
+            if ((pieces & mill) == mill) {
+                inMills |= mill;
+                features[Evaluator.Feature.MILLS.ordinal()]++;
+            }
+            if (Integer.bitCount(pieces & mill) == 2 && (opponentPieces & mill) == 0) {
+                features[Evaluator.Feature.OPEN_TWOS.ordinal()]++;
+            }
+        }
+        features[Evaluator.Feature.MILL_PIECES.ordinal()] = Integer.bitCount(inMills);
+        for (int p = pieces; p != 0; p &= p - 1) {
+            int moves = Integer.bitCount(Board.ADJACENT[Integer.numberOfTrailingZeros(p)] & empty);
+            if (moves == 0) { features[Evaluator.Feature.BLOCKED.ordinal()]++; }
+            if (board.getStage(side) == GameStage.MOVING) { features[Evaluator.Feature.MOBILITY.ordinal()] += moves; }
+        }
+        if (board.isRemovalPending() && board.getSideToMove() == side) {
+            features[Evaluator.Feature.REMOVAL_PENDING.ordinal()] = 1;
+        }
+        return features;
+    }
+
+    private static void assertFeatures(Board board) {
+        int[] features = new int[Evaluator.FEATURES];
+        Evaluator.getFeatures(board, 0, features);
+        int[] first = countFeatures(board, 0);
+        int[] second = countFeatures(board, 1);
+        for (int i = 0; i < Evaluator.FEATURES; i++) {
+            assertEquals(Evaluator.Feature.values()[i].toString(), first[i] - second[i], features[i]);
+        }
+    }
+
+    /**
+     * The evaluation used by the search before weights were configurable
+     */
+    private static int previousEvaluation(Board board, int side) {
+        int score = 0;
+        for (int player = 0; player < 2; player++) {
+            int pieces = board.getPieces(player);
+            int empty = ~(pieces | board.getPieces(player ^ 1)) & Board.ALL_POINTS;
+            int value = 100 * (Integer.bitCount(pieces) + board.getPiecesInHand(player));
+            value += 10 * Integer.bitCount(board.piecesInMillsOwnedByPlayer(player));
+            if (board.getStage(player) == GameStage.MOVING) {
+                for (int p = pieces; p != 0; p &= p - 1) {
+                    value += 4 * Integer.bitCount(Board.ADJACENT[Integer.numberOfTrailingZeros(p)] & empty);
+                }
+            }
+            score += player == side ? value : -value;
+        }
+        return score;
+    }
+
+    @Test
+    public void testFeaturesUpdatedIncrementally() {
+        Random random = new Random(9);
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int game = 0; game < 20; game++) {
+            Board board = SearchBenchmark.createPosition(0, 0);
+            int plies = 0;
+            for (; plies < 300 && !board.isGameOver(); plies++) {
+                int count = board.generateMoves(moves);
+                if (count == 0) { break; }
+                board.makeMove(moves[random.nextInt(count)]);
+                assertFeatures(board);
+            }
+            Board restored = SearchBenchmark.createPosition(0, 0);
+            restored.restore(board.snapshot());
+            assertFeatures(restored);
+            for (int i = 0; i < plies; i++) {
+                board.unmakeMove();
+                assertFeatures(board);
+            }
+        }
+    }
+
+    @Test
+    public void testEvaluateMatchesFeatures() {
+        Random random = new Random(4);
+        int[] weights = new int[Evaluator.PHASES * Evaluator.FEATURES];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = random.nextInt(201) - 100;
+        }
+        Evaluator evaluator = new Evaluator(weights);
+        Evaluator defaults = new Evaluator();
+        int[] features = new int[Evaluator.FEATURES];
+        for (int i = 0; i < 200; i++) {
+            Board board = SearchBenchmark.createPosition(random.nextInt(80), i);
+            for (int side = 0; side < 2; side++) {
+                Evaluator.getFeatures(board, side, features);
+                int expected = 0;
+                for (int feature = 0; feature < Evaluator.FEATURES; feature++) {
+                    expected += weights[Evaluator.getPhase(board) * Evaluator.FEATURES + feature] * features[feature];
+                }
+                assertEquals(expected, evaluator.evaluate(board, side));
+                assertEquals(previousEvaluation(board, side), defaults.evaluate(board, side));
+            }
+        }
+    }
+
+    @Test
+    public void testReadWrite() throws Exception {
+        int[] weights = new int[Evaluator.PHASES * Evaluator.FEATURES];
+        for (int i = 0; i < weights.length; i++) {
+            weights[i] = i * 3 - 7;
+        }
+        Evaluator evaluator = new Evaluator(weights);
+        assertEquals(evaluator, Evaluator.read(new StringReader(evaluator.toString())));
+
+        Evaluator partial = Evaluator.read(new StringReader("# comment\nOPEN_TWOS 1 2 3\n"));
+        assertEquals(3, partial.getWeight(Evaluator.FLYING_PHASE, Evaluator.Feature.OPEN_TWOS));
+        assertEquals(100, partial.getWeight(Evaluator.MOVING_PHASE, Evaluator.Feature.MATERIAL));
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadInvalid() throws Exception {
+        Evaluator.read(new StringReader("MATERIAL 1 2\n"));
+    }
+}
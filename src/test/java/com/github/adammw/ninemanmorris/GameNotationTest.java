@@ -0,0 +1,101 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.text.ParseException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the GameNotation and GameNotationReader classes
+ */
+public class GameNotationTest {
+    private static GameNotationReader reader(String text) {
+        return new GameNotationReader(new StringReader(text));
+    }
+
+    @Test
+    public void testWriteTurns() throws Exception {
+        Board board = SearchBenchmark.createPosition(0, 0);
+        int[] moves = Perft.applyMoves(board, PerftTest.FLYING_POSITION);
+        StringWriter out = new StringWriter();
+        GameNotation.write(out, null, 0, true, moves, moves.length);
+        String text = out.toString();
+
+        assertTrue(text.startsWith("[Result \"1-0\"]\n\n1. a1 b4 2. d7 d1 3. a4 c4 4. a7xd1 g1 "));
+        assertTrue(text.contains(" d2-d1xc4 "));
+        assertTrue(text.endsWith(" d2-d1xe4 1-0\n\n"));
+        for (String line : text.split("\n")) {
+            assertTrue(line.length() <= 80);
+        }
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        int[][] games = new int[50][];
+        StringWriter out = new StringWriter();
+        for (int i = 0; i < games.length; i++) {
+            games[i] = GameRecordTest.randomGame(i, 300);
+            GameNotation.write(out, null, i % 3 - 1, i % 5 != 0, games[i], games[i].length);
+        }
+
+        try (GameNotationReader reader = reader(out.toString())) {
+            for (int i = 0; i < games.length; i++) {
+                assertTrue(reader.next());
+                assertEquals(i % 3 - 1, reader.getWinner());
+                assertEquals(i % 5 != 0 || i % 3 != 0, reader.isFinished());
+                assertArrayEquals(games[i], Arrays.copyOf(reader.getMoves(), reader.getMoveCount()));
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testTagsAndComments() throws Exception {
+        Map<String, String> tags = new LinkedHashMap<>();
+        tags.put("Event", "Club \"final\"");
+        tags.put("Result", "ignored");
+        StringWriter out = new StringWriter();
+        GameNotation.write(out, tags, GameResult.DRAW, true, new int[] {Move.encode(Move.NO_POINT, 4)}, 1);
+        assertEquals("[Event \"Club \\\"final\\\"\"]\n[Result \"1/2-1/2\"]\n\n1. d2 1/2-1/2\n\n", out.toString());
+
+        GameNotationReader reader = reader(out + "{ a comment } 1. a1 {another} d7 0-1");
+        assertTrue(reader.next());
+        assertEquals("Club \"final\"", reader.getTag("Event"));
+        assertEquals(1, reader.getMoveCount());
+        assertTrue(reader.next());
+        assertNull(reader.getTag("Event"));
+        assertEquals(1, reader.getWinner());
+        assertEquals(2, reader.getMoveCount());
+        assertEquals(Move.encode(Move.NO_POINT, 22), reader.getMoves()[1]);
+        assertFalse(reader.next());
+    }
+
+    private static void assertInvalid(String text, int line) throws Exception {
+        try {
+            GameNotationReader reader = reader(text);
+            while (reader.next()) {
+                // read every game
+            }
+            fail("Expected a parse error for " + text);
+        } catch (ParseException ex) {
+            assertEquals(line, ex.getErrorOffset());
+        }
+    }
+
+    @Test
+    public void testInvalidGames() throws Exception {
+        assertInvalid("1. d2 d2 *", 1);                 // occupied point
+        assertInvalid("1. a1 d7\n2. d1 d6 3. g1 *", 2);  // mill without a removal
+        assertInvalid("1. a1xd7 *", 1);                 // removal without a mill
+        assertInvalid("1. b1 *", 1);                    // not a point
+        assertInvalid("1. d2-d3 *", 1);                 // moving in the placing stage
+        assertInvalid("1. a1 d7", 1);                   // no result
+        assertInvalid("[Result \"1-0\" 1. a1 *", 1);    // unterminated tag
+    }
+}
@@ -0,0 +1,161 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the GameRecordWriter and GameRecordReader classes
+ */
+public class GameRecordTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Play random moves from the start of a game
+     */
+    static int[] randomGame(long seed, int maxMoves) {
+        Board board = SearchBenchmark.createPosition(0, 0);
+        Random random = new Random(seed);
+        int[] moves = new int[Board.MAX_MOVES];
+        int[] game = new int[maxMoves];
+        int count = 0;
+        while (count < maxMoves && !board.isGameOver()) {
+            int n = board.generateMoves(moves);
+            if (n == 0) { break; }
+            game[count] = moves[random.nextInt(n)];
+            board.makeMove(game[count++]);
+        }
+        // Don't end on a move which still has a removal to come
+        if (board.isRemovalPending()) { count--; }
+        return Arrays.copyOf(game, count);
+    }
+
+    @Test
+    public void testRoundTrip() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int[][] games = new int[50][];
+        try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+            for (int i = 0; i < games.length; i++) {
+                games[i] = randomGame(i, 300);
+                writer.writeGame(i % 3 - 1, games[i], games[i].length);
+            }
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()))) {
+            for (int i = 0; i < games.length; i++) {
+                assertTrue(reader.next());
+                assertEquals(i % 3 - 1, reader.getWinner());
+                assertEquals(games[i].length, reader.getMoveCount());
+                assertArrayEquals(games[i], Arrays.copyOf(reader.getMoves(), reader.getMoveCount()));
+            }
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test
+    public void testTurnSizes() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+            // A placement and a slide take one byte each, a flight or a turn with a removal takes two
+            writer.writeGame(0, new int[] { Move.encode(Move.NO_POINT, 0) }, 1);
+            writer.writeGame(0, new int[] { Move.encode(0, 1) }, 1);
+            writer.writeGame(0, new int[] { Move.encode(0, 23) }, 1);
+            writer.writeGame(0, new int[] { Move.encode(Move.NO_POINT, 2), Move.encode(5, Move.NO_POINT) }, 2);
+        }
+        GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()));
+        int[] expected = {2, 2, 3, 3};
+        for (int size : expected) {
+            assertTrue(reader.next());
+            assertEquals(size, reader.getByteCount());
+        }
+    }
+
+    @Test
+    public void testAppend() throws Exception {
+        File file = new File(folder.getRoot(), "games.nmmg");
+        int[] first = randomGame(1, 100);
+        int[] second = randomGame(2, 100);
+        try (GameRecordWriter writer = GameRecordWriter.append(file)) {
+            writer.writeGame(0, first, first.length);
+        }
+        try (GameRecordWriter writer = GameRecordWriter.append(file)) {
+            writer.writeGame(1, second, second.length);
+        }
+
+        try (GameRecordReader reader = new GameRecordReader(new FileInputStream(file))) {
+            assertTrue(reader.next());
+            assertEquals(first.length, reader.getMoveCount());
+            assertTrue(reader.next());
+            assertEquals(1, reader.getWinner());
+            assertEquals(second.length, reader.getMoveCount());
+            assertFalse(reader.next());
+        }
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidHeader() throws Exception {
+        new GameRecordReader(new ByteArrayInputStream(new byte[] {1, 2, 3, 4, 5}));
+    }
+
+    @Test(expected = IOException.class)
+    public void testAppendToOtherFormat() throws Exception {
+        File file = folder.newFile("games.txt");
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("not a game record".getBytes("US-ASCII"));
+        }
+        GameRecordWriter.append(file);
+    }
+
+    @Test(expected = IOException.class)
+    public void testTruncatedGame() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        int[] game = randomGame(3, 50);
+        try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+            writer.writeGame(0, game, game.length);
+        }
+        byte[] truncated = Arrays.copyOf(bytes.toByteArray(), bytes.size() - 1);
+        new GameRecordReader(new ByteArrayInputStream(truncated)).next();
+    }
+
+    @Test
+    public void testSelfPlayRecordsReplay() throws Exception {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        SelfPlayRunner runner = new SelfPlayRunner(HeadlessGameTest.FirstMovePlayer::new,
+                HeadlessGameTest.FirstMovePlayer::new, 2);
+        runner.setRandomPlies(8);
+        try (GameRecordWriter writer = new GameRecordWriter(bytes)) {
+            runner.setRecordWriter(writer);
+            runner.run(4, new StringWriter());
+        }
+
+        // Every recorded game replays legally through the board
+        GameRecordReader reader = new GameRecordReader(new ByteArrayInputStream(bytes.toByteArray()));
+        int games = 0;
+        int[] legal = new int[Board.MAX_MOVES];
+        while (reader.next()) {
+            Board board = SearchBenchmark.createPosition(0, 0);
+            int[] moves = reader.getMoves();
+            for (int i = 0; i < reader.getMoveCount(); i++) {
+                int move = moves[i];
+                int count = board.generateMoves(legal);
+                assertTrue(Arrays.stream(legal, 0, count).anyMatch(legalMove -> legalMove == move));
+                board.makeMove(move);
+            }
+            games++;
+        }
+        assertEquals(4, games);
+    }
+}
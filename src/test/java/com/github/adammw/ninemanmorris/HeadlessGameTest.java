@@ -0,0 +1,82 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the HeadlessGame class
+ */
+public class HeadlessGameTest {
+    /**
+     * Player which always makes the first legal move
+     */
+    static class FirstMovePlayer extends Player {
+        private final int[] moves = new int[Board.MAX_MOVES];
+
+        FirstMovePlayer(String name) {
+            super(null, name);
+        }
+
+        @Override
+        Move getMove(Board board) {
+            board.generateMoves(moves);
+            return Move.decode(moves[0]);
+        }
+
+        @Override
+        Move getPieceToRemove(Board board) {
+            return getMove(board);
+        }
+    }
+
+    private static Player[] createPlayers() {
+        return new Player[] { new FirstMovePlayer("PLAYER 1"), new FirstMovePlayer("PLAYER 2") };
+    }
+
+    @Test
+    public void testGamePlayedToEnd() throws Exception {
+        HeadlessGame game = new HeadlessGame(createPlayers(), HeadlessGame.DEFAULT_MAX_PLIES, 6, 1);
+        GameResult result = game.play(3);
+        assertEquals(3, result.getGame());
+        assertTrue(result.getPlies() >= 18);
+        if (result.getWinner() == GameResult.DRAW) {
+            assertEquals(HeadlessGame.DEFAULT_MAX_PLIES, result.getPlies());
+        } else {
+            assertTrue(game.getBoard().isGameOver());
+            assertEquals(game.getBoard().getPlayer(result.getWinner()), game.getBoard().getWinningPlayer());
+        }
+
+        // Both players leave the placing stage, and transitions are in order
+        assertTrue(result.getTransitionCount() >= 2);
+        assertEquals(GameStage.MOVING, result.getTransitionStage(0));
+        for (int i = 1; i < result.getTransitionCount(); i++) {
+            assertTrue(result.getTransitionPly(i) >= result.getTransitionPly(i - 1));
+        }
+    }
+
+    @Test
+    public void testPlyLimit() throws Exception {
+        GameResult result = new HeadlessGame(createPlayers(), 10, 0, 1).play(0);
+        assertEquals(GameResult.DRAW, result.getWinner());
+        assertEquals(10, result.getPlies());
+        assertEquals(0, result.getTransitionCount());
+    }
+
+    @Test
+    public void testRandomPliesAreSeeded() throws Exception {
+        GameResult first = new HeadlessGame(createPlayers(), 100, 8, 42).play(0);
+        GameResult second = new HeadlessGame(createPlayers(), 100, 8, 42).play(0);
+        assertEquals(first, second);
+    }
+
+    @Test
+    public void testResultRoundTrip() throws Exception {
+        GameResult result = new GameResult(12, 0, 87, new int[] {
+                GameResult.encodeTransition(18, 0, GameStage.MOVING),
+                GameResult.encodeTransition(87, 1, GameStage.GAME_OVER)
+        });
+        assertEquals("12 0 87 18:0M 87:1X", result.toString());
+        assertEquals(result, GameResult.parse(result.toString()));
+    }
+}
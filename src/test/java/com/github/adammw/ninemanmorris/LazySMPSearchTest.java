@@ -0,0 +1,72 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the LazySMPSearch class
+ */
+public class LazySMPSearchTest {
+    private LazySMPSearch search;
+
+    @Before
+    public void setUp() throws Exception {
+        search = new LazySMPSearch(3, new TranspositionTable(4));
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        search.shutdown();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testRequiresAThread() throws Exception {
+        new LazySMPSearch(0, new TranspositionTable(1));
+    }
+
+    @Test
+    public void testSearchReturnsLegalMove() throws Exception {
+        Board board = SearchBenchmark.createPosition(24, 4);
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        long hash = board.getHash();
+
+        int best = search.search(board, 5, 10000);
+        boolean legal = false;
+        for (int i = 0; i < count; i++) {
+            legal |= moves[i] == best;
+        }
+        assertTrue(legal);
+        assertEquals(hash, board.getHash());
+        assertEquals(5, search.getCompletedDepth());
+        assertTrue(search.getNodes() > 0);
+        assertTrue(search.getTable().getStores() > 0);
+    }
+
+    @Test
+    public void testMatchesSingleThreadedMillCompletion() throws Exception {
+        Board board = new Board(new Player[] { new HumanPlayer(null, "PLAYER 1"), new HumanPlayer(null, "PLAYER 2") });
+        board.performMove(new Move(null, "a1"), board.getPlayer(0), null);
+        board.performMove(new Move(null, "b2"), board.getPlayer(1), null);
+        board.performMove(new Move(null, "d1"), board.getPlayer(0), null);
+        board.performMove(new Move(null, "f6"), board.getPlayer(1), null);
+
+        int move = search.search(board, 3, 10000);
+        assertEquals(Board.POINT_INDEX[0][6], Move.getTo(move));
+    }
+
+    @Test
+    public void testInterruptedCallerWaitsForHelpers() throws Exception {
+        Board board = SearchBenchmark.createPosition(24, 4);
+        Thread.currentThread().interrupt();
+        int first = search.search(board, 5, 10000);
+        assertTrue(Thread.interrupted()); // the interrupt is kept for the caller
+
+        // The helpers had finished, so searching again doesn't race them
+        assertEquals(first, search.search(board, 5, 10000));
+        assertEquals(5, search.getCompletedDepth());
+    }
+}
@@ -0,0 +1,47 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the MatchScore class
+ */
+public class MatchScoreTest {
+    @Test
+    public void testAdd() throws Exception {
+        MatchScore score = new MatchScore();
+        score.add(1);
+        score.add(0.5);
+        score.add(0);
+        score.add(1);
+        assertEquals(2, score.getWins());
+        assertEquals(1, score.getDraws());
+        assertEquals(1, score.getLosses());
+        assertEquals(0.625, score.getScore(), 1e-9);
+    }
+
+    @Test
+    public void testElo() throws Exception {
+        assertEquals(0, new MatchScore(10, 0, 10).getElo(), 1e-9);
+        assertEquals(190.85, new MatchScore(75, 0, 25).getElo(), 0.01);
+        assertEquals(-190.85, new MatchScore(25, 0, 75).getElo(), 0.01);
+        assertEquals(0.75, MatchScore.toScore(MatchScore.toElo(0.75)), 1e-9);
+    }
+
+    @Test
+    public void testEloErrorShrinksWithMoreGames() throws Exception {
+        double few = new MatchScore(30, 40, 30).getEloError();
+        double many = new MatchScore(300, 400, 300).getEloError();
+        assertTrue(few > 0);
+        assertEquals(few / Math.sqrt(10), many, 0.5);
+    }
+
+    @Test
+    public void testLogLikelihoodRatio() throws Exception {
+        // A score matching elo1 favours H1, one matching elo0 favours H0
+        assertTrue(new MatchScore(600, 0, 400).getLogLikelihoodRatio(0, 50) > 0);
+        assertTrue(new MatchScore(500, 0, 500).getLogLikelihoodRatio(0, 50) < 0);
+        assertEquals(0, new MatchScore().getLogLikelihoodRatio(0, 50), 0);
+    }
+}
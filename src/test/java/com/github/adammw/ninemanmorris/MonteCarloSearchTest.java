@@ -0,0 +1,138 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the MonteCarloSearch class
+ */
+public class MonteCarloSearchTest {
+    private static boolean isLegal(Board board, int move) {
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) { return true; }
+        }
+        return false;
+    }
+
+    @Test
+    public void testClosesMillMatchesMakeMove() {
+        int[] moves = new int[Board.MAX_MOVES];
+        for (int seed = 0; seed < 200; seed++) {
+            Board board = SearchBenchmark.createPosition(seed % 60, seed);
+            if (board.isGameOver() || board.isRemovalPending()) { continue; }
+            int side = board.getSideToMove();
+            int count = board.generateMoves(moves);
+            for (int i = 0; i < count; i++) {
+                assertEquals(Move.decode(moves[i]).toString(), wouldCloseMill(board, moves[i]),
+                        MonteCarloSearch.closesMill(board, side, moves[i]));
+            }
+        }
+    }
+
+    private static boolean wouldCloseMill(Board board, int move) {
+        board.makeMove(move);
+        boolean removal = board.isRemovalPending();
+        board.unmakeMove();
+        return removal;
+    }
+
+    @Test
+    public void testTakesMill() {
+        Board board = SearchBenchmark.createPosition(0, 0);
+        // The first player can close a1-d1-g1 while the second threatens b2-d2-f2
+        Perft.applyMoves(board, "a1 b2 d1 d2");
+        MonteCarloSearch search = new MonteCarloSearch(1, 1 << 16);
+        try {
+            assertEquals(Move.encode(Move.NO_POINT, 2), search.search(board, 60000, 5000));
+            assertEquals(5000, search.getPlayouts());
+            assertTrue(search.getPlayoutsPerSecond() > 0);
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void testParallelSearchIsLegal() {
+        MonteCarloSearch search = new MonteCarloSearch(4, MonteCarloSearch.DEFAULT_MAX_NODES);
+        try {
+            assertEquals(4, search.getThreadCount());
+            Random random = new Random(1);
+            for (int i = 0; i < 10; i++) {
+                Board board = SearchBenchmark.createPosition(random.nextInt(50), i);
+                if (board.isGameOver()) { continue; }
+                Position before = board.snapshot();
+                int move = search.search(board, 60000, 2000);
+                assertTrue(isLegal(board, move));
+                assertEquals(before, board.snapshot()); // searched on copies
+                assertTrue(search.getPlayouts() >= 2000 && search.getPlayouts() < 2000 + 4);
+                assertTrue(search.getNodeCount() > 1);
+            }
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void testFullTree() {
+        MonteCarloSearch search = new MonteCarloSearch(2, 1 + Board.MAX_MOVES);
+        try {
+            Board board = SearchBenchmark.createPosition(10, 3);
+            int move = search.search(board, 60000, 1000);
+            assertTrue(isLegal(board, move));
+            assertTrue(search.getNodeCount() <= 1 + Board.MAX_MOVES);
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void testRemoval() {
+        Board board = SearchBenchmark.createPosition(0, 0);
+        Perft.applyMoves(board, "a1 b2 d1 d2 g1");
+        assertTrue(board.isRemovalPending());
+        MonteCarloSearch search = new MonteCarloSearch(1, 1 << 16);
+        try {
+            int move = search.search(board, 60000, 1000);
+            assertTrue(isLegal(board, move));
+            assertEquals(Move.NO_POINT, Move.getTo(move));
+        } finally {
+            search.shutdown();
+        }
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        try {
+            new MonteCarloSearch(0, MonteCarloSearch.DEFAULT_MAX_NODES);
+            fail("Expected an exception");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            new MonteCarloSearch(1, Board.MAX_MOVES);
+            fail("Expected an exception");
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testPlayerFactory() {
+        System.setProperty(PlayerFactory.MCTS_PLAYOUTS_PROPERTY, "500");
+        try {
+            Player player = PlayerFactory.build(null, PlayerType.MCTS_AI_PLAYER, "PLAYER 1", 2);
+            assertTrue(player instanceof MonteCarloPlayer);
+            Board board = SearchBenchmark.createPosition(6, 1);
+            Move move = player.getMove(board);
+            assertTrue(isLegal(board, move.getCode()));
+            assertTrue(((MonteCarloPlayer) player).getSearch().getPlayouts() < 500 + 2);
+        } finally {
+            System.clearProperty(PlayerFactory.MCTS_PLAYOUTS_PROPERTY);
+        }
+    }
+}
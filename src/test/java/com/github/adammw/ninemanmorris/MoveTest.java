@@ -0,0 +1,57 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Move class
+ */
+public class MoveTest {
+    @Test
+    public void testEncoding() throws Exception {
+        Move move = new Move("d2", "d3");
+        assertEquals(Move.encode(4, 7), move.getCode());
+        assertEquals(4, Move.getFrom(move.getCode()));
+        assertEquals(7, Move.getTo(move.getCode()));
+        assertEquals(Move.NO_POINT, Move.getFrom(Move.encode(Move.NO_POINT, 7)));
+        assertEquals(Move.NO_POINT, Move.getTo(Move.encode(4, Move.NO_POINT)));
+        assertEquals(move.getCode(), (short) move.getCode());
+    }
+
+    @Test
+    public void testSharedInstances() throws Exception {
+        Move move = Move.of(4, 7);
+        assertSame(move, Move.decode(Move.encode(4, 7)));
+        assertSame(BoardLocation.valueOf("d2"), move.getPreviousPieceLocation());
+        assertSame(BoardLocation.valueOf("d3"), move.getNewPieceLocation());
+        assertNull(Move.of(Move.NO_POINT, 7).getPreviousPieceLocation());
+        assertNull(Move.of(4, Move.NO_POINT).getNewPieceLocation());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalid() {
+        Move.decode(Move.encode(Move.NO_POINT, Move.NO_POINT));
+    }
+
+    @Test
+    public void testEqualsAndHashCode() throws Exception {
+        Set<Move> moves = new HashSet<>();
+        moves.add(new Move(null, "a1"));
+        moves.add(new Move("a1", "d1"));
+        assertTrue(moves.contains(Move.of(Move.NO_POINT, 0)));
+        assertTrue(moves.contains(new Move(BoardLocation.of(0), BoardLocation.of(1))));
+        assertFalse(moves.contains(new Move("d1", "a1")));
+        assertFalse(moves.contains(new Move("a1", null)));
+    }
+
+    @Test
+    public void testToString() throws Exception {
+        assertEquals("a1", new Move(null, "a1").toString());
+        assertEquals("a1-d1", new Move("a1", "d1").toString());
+        assertEquals("xa1", new Move("a1", null).toString());
+    }
+}
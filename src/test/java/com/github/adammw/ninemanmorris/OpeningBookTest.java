@@ -0,0 +1,126 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the OpeningBook and OpeningBookBuilder classes
+ */
+public class OpeningBookTest {
+    private static boolean isLegal(Board board, int move) {
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            if (moves[i] == move) { return true; }
+        }
+        return false;
+    }
+
+    @Test
+    public void testSymmetricProbe() {
+        OpeningBook book = new OpeningBook();
+        Board board = SearchBenchmark.createPosition(0, 0);
+        assertEquals(OpeningBook.NO_MOVE, book.probe(board));
+
+        // Book d1 in reply to a1, then look it up after g7, the opposite corner
+        board.makeMove(Move.encode(Move.NO_POINT, 0));
+        book.put(board, Move.encode(Move.NO_POINT, 1));
+        assertEquals(1, book.size());
+        assertEquals(Move.encode(Move.NO_POINT, 1), book.probe(board));
+
+        Board mirrored = SearchBenchmark.createPosition(0, 0);
+        mirrored.makeMove(Move.encode(Move.NO_POINT, 23));
+        int move = book.probe(mirrored);
+        assertTrue(isLegal(mirrored, move));
+        assertTrue(move == Move.encode(Move.NO_POINT, 22) || move == Move.encode(Move.NO_POINT, 14));
+
+        // The same pieces with the other player to move is a different position
+        Board other = SearchBenchmark.createPosition(0, 0);
+        other.makeMove(Move.encode(Move.NO_POINT, 4));
+        assertEquals(OpeningBook.NO_MOVE, book.probe(other));
+    }
+
+    @Test
+    public void testReadWrite() throws Exception {
+        OpeningBook book = new OpeningBook();
+        Random random = new Random(3);
+        int[] moves = new int[Board.MAX_MOVES];
+        Board[] positions = new Board[200];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = SearchBenchmark.createPosition(1 + random.nextInt(30), i);
+            int count = positions[i].generateMoves(moves);
+            if (count > 0) { book.put(positions[i], moves[random.nextInt(count)]); }
+        }
+
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        book.write(bytes);
+        OpeningBook read = OpeningBook.read(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals(book.size(), read.size());
+        for (Board position : positions) {
+            assertEquals(book.probe(position), read.probe(position));
+            if (read.probe(position) != OpeningBook.NO_MOVE) {
+                assertTrue(isLegal(position, read.probe(position)));
+            }
+        }
+    }
+
+    @Test
+    public void testBuildFromGames() {
+        int a1 = 0, d1 = 1, g1 = 2;
+        OpeningBookBuilder builder = new OpeningBookBuilder(2);
+        int[] first = {Move.encode(Move.NO_POINT, a1), Move.encode(Move.NO_POINT, d1)};
+        int[] second = {Move.encode(Move.NO_POINT, a1), Move.encode(Move.NO_POINT, g1)};
+        builder.addGame(first, 2, 0);
+        builder.addGame(first, 2, 0);
+        builder.addGame(second, 2, 1);
+
+        OpeningBook book = builder.build(1);
+        assertEquals(2, book.size());
+        Board board = SearchBenchmark.createPosition(0, 0);
+        assertTrue(isLegal(board, book.probe(board)));
+        board.makeMove(first[0]);
+        assertEquals(second[1], book.probe(board)); // the second player only won after g1
+
+        assertEquals(2, builder.build(2).size());
+        assertEquals(1, builder.build(3).size());
+    }
+
+    @Test
+    public void testEquivalentMovesCountedTogether() {
+        // Every corner is the same opening move on the empty board
+        int a1 = 0, g1 = 2, a7 = 21;
+        OpeningBookBuilder builder = new OpeningBookBuilder(1);
+        for (int corner : new int[] {a1, g1, a7}) {
+            builder.addGame(new int[] {Move.encode(Move.NO_POINT, corner)}, 1, 0);
+        }
+        OpeningBook book = builder.build(3);
+        assertEquals(1, book.size());
+        Board board = SearchBenchmark.createPosition(0, 0);
+        int move = book.probe(board);
+        int to = Move.getTo(move);
+        assertTrue(to == a1 || to == g1 || to == a7 || to == 23);
+    }
+
+    @Test
+    public void testBuildFromSearch() {
+        OpeningBookBuilder builder = new OpeningBookBuilder(2);
+        // The start position and one reply to each of the 4 kinds of point
+        assertEquals(5, builder.addSearchResults(1, 1000, 1));
+        OpeningBook book = builder.build(1);
+        assertEquals(5, book.size());
+
+        Board board = SearchBenchmark.createPosition(0, 0);
+        int[] moves = new int[Board.MAX_MOVES];
+        int count = board.generateMoves(moves);
+        for (int i = 0; i < count; i++) {
+            board.makeMove(moves[i]);
+            assertTrue(isLegal(board, book.probe(board)));
+            board.unmakeMove();
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Perft class
+ */
+public class PerftTest {
+    /**
+     * A position reached after both players have had pieces removed, where the player to move has three pieces
+     * left and can fly
+     */
+    static final String FLYING_POSITION = "a1 b4 d7 d1 a4 c4 a7 xd1 g1 d2 c3 g7 xg1 d3 g1 e4 g4 xe4 e4 b2 " +
+            "d6 d2-d1 xc4 c3-c4 g4-f4 d6-d5 f4-g4 xd3 c4-c3 d1-d2 d5-e5 d2-d1 xe4";
+
+    private Board board;
+
+    @Before
+    public void setUp() throws Exception {
+        board = new Board(new Player[] {
+                new HumanPlayer(null, "PLAYER 1"),
+                new HumanPlayer(null, "PLAYER 2")
+        });
+    }
+
+    @Test
+    public void testOpeningPosition() throws Exception {
+        long[] expected = {24, 552, 12144, 255024, 5100480};
+        for (int depth = 1; depth <= expected.length; depth++) {
+            Perft.Counts counts = Perft.count(board, depth);
+            assertEquals(expected[depth - 1], counts.getNodes());
+            assertEquals(expected[depth - 1], counts.getPlacements());
+        }
+    }
+
+    @Test
+    public void testOpeningPositionWithCaptures() throws Exception {
+        // 16 mills x 6 orders of white's pieces x 21 x 20 black placements, each allowing 2 removals
+        Perft.Counts counts = Perft.count(board, 6, 2);
+        assertEquals(96223680L, counts.getNodes());
+        assertEquals(96143040L, counts.getPlacements());
+        assertEquals(80640L, counts.getCaptures());
+        assertEquals(0, counts.getSlides() + counts.getFlights());
+    }
+
+    @Test
+    public void testFlyingPosition() throws Exception {
+        Perft.applyMoves(board, FLYING_POSITION);
+        assertEquals(GameStage.FLYING, board.getStage(board.getSideToMove()));
+
+        Perft.Counts counts = Perft.count(board, 3);
+        assertEquals(5616, counts.getNodes());
+        assertEquals(5616, counts.getFlights());
+
+        counts = Perft.count(board, 4);
+        assertEquals(40946, counts.getNodes());
+        assertEquals(40808, counts.getSlides());
+        assertEquals(138, counts.getCaptures());
+    }
+
+    @Test
+    public void testParallelMatchesSerial() throws Exception {
+        Perft.applyMoves(board, FLYING_POSITION);
+        Perft.Counts serial = Perft.count(board, 4);
+        Perft.Counts parallel = Perft.count(board, 4, 3);
+        assertEquals(serial.toString(), parallel.toString());
+
+        List<Perft.Counts> divided = Perft.divide(board, 4, 2);
+        long total = 0;
+        for (Perft.Counts counts : divided) {
+            total += counts.getNodes();
+        }
+        assertEquals(serial.getNodes(), total);
+    }
+
+    @Test
+    public void testBoardRestored() throws Exception {
+        Perft.applyMoves(board, FLYING_POSITION);
+        long hash = board.getHash();
+        Perft.count(board, 3);
+        assertEquals(hash, board.getHash());
+        assertEquals(hash, board.computeHash());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIllegalMoveRejected() throws Exception {
+        Perft.applyMoves(board, "a1 a1");
+    }
+}
@@ -0,0 +1,39 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Position class
+ */
+public class PositionTest {
+    @Test
+    public void testPacking() {
+        Position position = Position.of(new int[] {0x800001, 0x000f00}, new int[] {9, 0},
+                new GameStage[] {GameStage.PLACING, GameStage.FLYING}, 1, true);
+        assertEquals(0x800001, position.getPieces(0));
+        assertEquals(0x000f00, position.getPieces(1));
+        assertEquals(9, position.getPiecesInHand(0));
+        assertEquals(0, position.getPiecesInHand(1));
+        assertEquals(GameStage.PLACING, position.getStage(0));
+        assertEquals(GameStage.FLYING, position.getStage(1));
+        assertEquals(1, position.getSideToMove());
+        assertTrue(position.isRemovalPending());
+
+        Position unpacked = Position.fromLong(position.toLong());
+        assertEquals(position, unpacked);
+        assertEquals(position.hashCode(), unpacked.hashCode());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOverlappingPieces() {
+        Position.of(new int[] {1, 1}, new int[] {9, 9},
+                new GameStage[] {GameStage.PLACING, GameStage.PLACING}, 0, false);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPackedPosition() {
+        Position.fromLong(-1L);
+    }
+}
@@ -0,0 +1,54 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the SelfPlayRunner class
+ */
+public class SelfPlayRunnerTest {
+    @Test
+    public void testRunGamesInParallel() throws Exception {
+        SelfPlayRunner runner = new SelfPlayRunner(HeadlessGameTest.FirstMovePlayer::new,
+                HeadlessGameTest.FirstMovePlayer::new, 3);
+        runner.setRandomPlies(6);
+        StringWriter out = new StringWriter();
+        List<GameResult> results = runner.run(8, out);
+
+        assertEquals(8, results.size());
+        String[] lines = out.toString().split("\n");
+        assertEquals(8, lines.length);
+        boolean[] seen = new boolean[8];
+        for (String line : lines) {
+            GameResult result = GameResult.parse(line);
+            assertEquals(results.get(result.getGame()), result);
+            seen[result.getGame()] = true;
+        }
+        for (boolean game : seen) {
+            assertTrue(game);
+        }
+    }
+
+    @Test
+    public void testGamesAreReproducible() throws Exception {
+        SelfPlayRunner runner = new SelfPlayRunner(HeadlessGameTest.FirstMovePlayer::new,
+                HeadlessGameTest.FirstMovePlayer::new, 2);
+        assertEquals(runner.run(4, new StringWriter()), runner.run(4, new StringWriter()));
+    }
+
+    @Test
+    public void testPlayersAreReusedAcrossGames() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        SelfPlayRunner runner = new SelfPlayRunner(name -> {
+            created.incrementAndGet();
+            return new HeadlessGameTest.FirstMovePlayer(name);
+        }, HeadlessGameTest.FirstMovePlayer::new, 2);
+        assertEquals(6, runner.run(6, new StringWriter()).size());
+        assertTrue(created.get() <= 2);
+    }
+}
@@ -0,0 +1,128 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Test;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the Tournament and Sprt classes
+ */
+public class TournamentTest {
+    /**
+     * Player which makes random legal moves
+     */
+    static class RandomPlayer extends Player {
+        private final int[] moves = new int[Board.MAX_MOVES];
+        private final Random random = new Random(1);
+
+        RandomPlayer(String name) {
+            super(null, name);
+        }
+
+        @Override
+        Move getMove(Board board) {
+            return Move.decode(moves[random.nextInt(board.generateMoves(moves))]);
+        }
+
+        @Override
+        Move getPieceToRemove(Board board) {
+            return getMove(board);
+        }
+    }
+
+    @Test
+    public void testRandomOpenings() throws Exception {
+        List<int[]> openings = Tournament.randomOpenings(20, 4, 1);
+        assertEquals(20, openings.size());
+        for (int[] opening : openings) {
+            assertEquals(4, opening.length);
+        }
+    }
+
+    @Test
+    public void testLongRandomOpeningsSkipFinishedGames() throws Exception {
+        // Random play often ends the game within this many plies
+        List<int[]> openings = Tournament.randomOpenings(10, 120, 1);
+        assertFalse(openings.isEmpty());
+        for (int[] opening : openings) {
+            Board board = new Board(new Player[] {
+                    new HumanPlayer(null, "PLAYER 1"),
+                    new HumanPlayer(null, "PLAYER 2")
+            });
+            for (int move : opening) {
+                board.makeMove(move);
+            }
+            assertFalse(board.isGameOver());
+        }
+    }
+
+    @Test
+    public void testSprtBounds() throws Exception {
+        Sprt sprt = new Sprt(0, 10, 0.05, 0.05);
+        assertEquals(-2.944, sprt.getLowerBound(), 0.001);
+        assertEquals(2.944, sprt.getUpperBound(), 0.001);
+        assertEquals(Sprt.Status.CONTINUE, sprt.check(new MatchScore(1, 0, 0)));
+        assertEquals(Sprt.Status.ACCEPT_H1, sprt.check(new MatchScore(6000, 0, 4000)));
+        assertEquals(Sprt.Status.ACCEPT_H0, sprt.check(new MatchScore(4000, 0, 6000)));
+    }
+
+    @Test
+    public void testPairedGamesSwapSides() throws Exception {
+        Tournament tournament = new Tournament(HeadlessGameTest.FirstMovePlayer::new,
+                HeadlessGameTest.FirstMovePlayer::new, Tournament.randomOpenings(3, 4, 2), 2);
+        tournament.setMaxPlies(60);
+        StringWriter log = new StringWriter();
+        tournament.setResultLog(log);
+        MatchScore score = tournament.run(3);
+
+        // Identical players score the same from each side of each opening
+        assertEquals(6, score.getGames());
+        assertEquals(0.5, score.getScore(), 1e-9);
+        assertEquals(6, log.toString().split("\n").length);
+        assertEquals(Sprt.Status.CONTINUE, tournament.getStatus());
+    }
+
+    @Test
+    public void testSprtStopsEarly() throws Exception {
+        Tournament tournament = new Tournament(Tournament.parsePlayer("2:50"), RandomPlayer::new,
+                Tournament.randomOpenings(10, 2, 3), 2);
+        tournament.setSprt(new Sprt(0, 200, 0.05, 0.05));
+        MatchScore score = tournament.run(100);
+
+        assertEquals(Sprt.Status.ACCEPT_H1, tournament.getStatus());
+        assertTrue(score.getGames() < 200);
+        assertTrue(score.getElo() > 0);
+    }
+
+    @Test
+    public void testSprtStopsOnWholePairs() throws Exception {
+        // An odd number of threads finishes games out of pair order
+        for (int threads = 1; threads <= 3; threads += 2) {
+            Tournament tournament = new Tournament(Tournament.parsePlayer("2:50"), RandomPlayer::new,
+                    Tournament.randomOpenings(10, 2, 3), threads);
+            tournament.setSprt(new Sprt(0, 200, 0.05, 0.05));
+            MatchScore score = tournament.run(100);
+
+            assertEquals(Sprt.Status.ACCEPT_H1, tournament.getStatus());
+            assertEquals(0, score.getGames() % 2);
+            assertTrue(score.getGames() < 200);
+        }
+    }
+
+    @Test
+    public void testPlayersAreReusedAcrossGames() throws Exception {
+        AtomicInteger created = new AtomicInteger();
+        Tournament tournament = new Tournament(name -> {
+            created.incrementAndGet();
+            return new HeadlessGameTest.FirstMovePlayer(name);
+        }, HeadlessGameTest.FirstMovePlayer::new, Tournament.randomOpenings(3, 4, 2), 2);
+        tournament.setMaxPlies(60);
+        assertEquals(8, tournament.run(4).getGames());
+        assertTrue(created.get() <= 2);
+    }
+}
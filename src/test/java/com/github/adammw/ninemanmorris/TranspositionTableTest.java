@@ -0,0 +1,92 @@
+package com.github.adammw.ninemanmorris;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Unit tests for the TranspositionTable class
+ */
+public class TranspositionTableTest {
+    private TranspositionTable table;
+
+    @Before
+    public void setUp() throws Exception {
+        table = new TranspositionTable(1);
+    }
+
+    @Test
+    public void testCapacity() throws Exception {
+        assertEquals(65536, table.getCapacity());
+    }
+
+    @Test
+    public void testStoreAndProbe() throws Exception {
+        long key = 0x123456789abcdefL;
+        assertEquals(0, table.probe(key));
+
+        table.store(key, Move.encode(3, 4), -1234, 7, TranspositionTable.BOUND_LOWER);
+        long entry = table.probe(key);
+        assertNotEquals(0, entry);
+        assertEquals(Move.encode(3, 4), TranspositionTable.getMove(entry));
+        assertEquals(-1234, TranspositionTable.getScore(entry));
+        assertEquals(7, TranspositionTable.getDepth(entry));
+        assertEquals(TranspositionTable.BOUND_LOWER, TranspositionTable.getBound(entry));
+
+        assertEquals(0, table.probe(key + 1));
+        assertEquals(3, table.getProbes());
+        assertEquals(1, table.getHits());
+        assertEquals(1, table.getStores());
+        assertEquals(1.0 / 3, table.getHitRate(), 1e-9);
+    }
+
+    @Test
+    public void testDepthPreferredAndAlwaysReplace() throws Exception {
+        // Keys which differ only above the index bits share a bucket
+        long key1 = 1L << 56;
+        long key2 = 2L << 56;
+        long key3 = 3L << 56;
+        long key4 = 4L << 56;
+        table.store(key1, 0, 1, 10, TranspositionTable.BOUND_EXACT);
+        table.store(key2, 0, 2, 5, TranspositionTable.BOUND_EXACT);
+        assertNotEquals(0, table.probe(key1));
+        assertNotEquals(0, table.probe(key2));
+
+        // A shallower result replaces the other entry, never the deepest one
+        table.store(key3, 0, 3, 2, TranspositionTable.BOUND_EXACT);
+        assertNotEquals(0, table.probe(key3));
+        assertNotEquals(0, table.probe(key1));
+        assertEquals(0, table.probe(key2));
+
+        // A shallower result for the deepest position doesn't replace it
+        table.store(key1, 0, 1, 3, TranspositionTable.BOUND_EXACT);
+        assertEquals(10, TranspositionTable.getDepth(table.probe(key1)));
+        assertNotEquals(0, table.probe(key3));
+
+        // A deeper result takes the depth-preferred entry, moving the result it replaces to the other entry
+        table.store(key4, 0, 4, 12, TranspositionTable.BOUND_EXACT);
+        assertNotEquals(0, table.probe(key4));
+        assertNotEquals(0, table.probe(key1));
+        assertEquals(0, table.probe(key3));
+
+        // Results from an older search are replaced first
+        table.newSearch();
+        table.store(key2, 0, 2, 1, TranspositionTable.BOUND_EXACT);
+        assertNotEquals(0, table.probe(key2));
+        assertNotEquals(0, table.probe(key4));
+        assertEquals(0, table.probe(key1));
+    }
+
+    @Test
+    public void testFillAndClear() throws Exception {
+        assertEquals(0, table.getFill(), 0);
+        for (long key = 0; key < table.getCapacity(); key++) {
+            table.store(key * 0x9e3779b97f4a7c15L, 0, 0, 1, TranspositionTable.BOUND_EXACT);
+        }
+        assertTrue(table.getFill() > 0.5);
+        table.clear();
+        assertEquals(0, table.getFill(), 0);
+        assertEquals(0, table.getStores());
+    }
+}